@@ -0,0 +1,47 @@
+package com.funnfood.restaurant.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class EmailConfig {
+
+    @Value("${app.email.outbox.workers:4}")
+    private int workers;
+
+    /**
+     * Single poller thread. A wake-up while one poll is already queued is dropped,
+     * since the queued poll will pick up the new rows anyway.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor emailOutboxPoller() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("email-outbox-poll-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    /**
+     * Bounded SMTP worker pool. When it is saturated the poller sends the chunk itself,
+     * which throttles polling instead of queueing without limit.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor emailSendExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers);
+        executor.setThreadNamePrefix("email-send-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+}
@@ -0,0 +1,26 @@
+package com.funnfood.restaurant.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class OrderFeedConfig {
+
+    @Value("${app.orders.feed.senders:4}")
+    private int senders;
+
+    /**
+     * Threads writing feed events to subscriber connections. Each subscriber has at most one pending
+     * send task, so the task queue is bounded by the number of subscribers.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor orderFeedExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(senders);
+        executor.setMaxPoolSize(senders);
+        executor.setThreadNamePrefix("order-feed-");
+        return executor;
+    }
+}
@@ -2,6 +2,7 @@ package com.funnfood.restaurant.controller;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -12,12 +13,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -32,6 +36,7 @@ import com.funnfood.restaurant.payload.response.JwtResponse;
 import com.funnfood.restaurant.payload.response.MessageResponse;
 import com.funnfood.restaurant.repository.RoleRepository;
 import com.funnfood.restaurant.repository.UserRepository;
+import com.funnfood.restaurant.security.jwt.JwtTokenCache;
 import com.funnfood.restaurant.security.jwt.JwtUtils;
 import com.funnfood.restaurant.security.services.UserDetailsImpl;
 import com.funnfood.restaurant.service.UserService;
@@ -60,6 +65,38 @@ public class AuthController {
     @Autowired
     UserService userService;
 
+    @Autowired
+    JwtTokenCache jwtTokenCache;
+
+    @GetMapping("/token-cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getTokenCacheStats() {
+        return ResponseEntity.ok(jwtTokenCache.getStats());
+    }
+
+    /**
+     * Sign out everywhere: every token issued to the caller so far stops working.
+     */
+    @PostMapping("/signout")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<MessageResponse> signOut(Authentication authentication) {
+        // Only local accounts hold revocable tokens; other principals, e.g. OAuth2 logins, have no user id here
+        if (!(authentication.getPrincipal() instanceof UserDetailsImpl userDetails)) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Sign-out is only supported for accounts signed in with a token"));
+        }
+        userService.revokeTokens(userDetails.getId());
+        return ResponseEntity.ok(new MessageResponse("Signed out"));
+    }
+
+    @PostMapping("/users/{id}/revoke-tokens")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<MessageResponse> revokeTokens(@PathVariable Long id) {
+        userService.revokeTokens(id);
+        return ResponseEntity.ok(new MessageResponse("Tokens revoked"));
+    }
+
     @PostMapping("/signin")
     public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
         try {
@@ -2,6 +2,7 @@ package com.funnfood.restaurant.controller;
 
 import com.funnfood.restaurant.model.User;
 import com.funnfood.restaurant.payload.request.TableReservationRequest;
+import com.funnfood.restaurant.payload.response.AvailabilityGridResponse;
 import com.funnfood.restaurant.payload.response.DiningRoomResponse;
 import com.funnfood.restaurant.payload.response.DiningTableResponse;
 import com.funnfood.restaurant.payload.response.MessageResponse;
@@ -18,6 +19,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -56,6 +58,17 @@ public class DiningController {
         return ResponseEntity.ok(availableTables);
     }
 
+    // Get the availability of all tables of a restaurant in 15-minute slots over a date range
+    @GetMapping("/availability/restaurant/{restaurantId}")
+    public ResponseEntity<AvailabilityGridResponse> getAvailabilityGrid(
+            @PathVariable Long restaurantId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(required = false) Integer guests) {
+        AvailabilityGridResponse grid = diningService.getAvailabilityGrid(restaurantId, from, days, guests);
+        return ResponseEntity.ok(grid);
+    }
+
     // Create a table reservation
     @PostMapping("/reservations")
     @PreAuthorize("hasRole('USER') or hasRole('MANAGER') or hasRole('ADMIN')")
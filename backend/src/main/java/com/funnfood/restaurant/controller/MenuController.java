@@ -4,15 +4,18 @@ import com.funnfood.restaurant.model.MenuCategory;
 import com.funnfood.restaurant.model.MenuItem;
 import com.funnfood.restaurant.payload.response.MenuCategoryResponse;
 import com.funnfood.restaurant.payload.response.MenuItemResponse;
+import com.funnfood.restaurant.service.MenuPayloadCache;
 import com.funnfood.restaurant.service.MenuService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -21,10 +24,21 @@ public class MenuController {
     @Autowired
     private MenuService menuService;
 
+    @Autowired
+    private MenuPayloadCache menuPayloadCache;
+
     @GetMapping("/categories")
-    public ResponseEntity<List<MenuCategoryResponse>> getAllCategories() {
-        List<MenuCategoryResponse> categories = menuService.getAllCategories();
-        return ResponseEntity.ok(categories);
+    public ResponseEntity<byte[]> getAllCategories(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return menuPayloadCache.get(MenuPayloadCache.CATEGORIES_VIEW, menuService::getAllCategories)
+                .toResponse(ifNoneMatch, acceptEncoding);
+    }
+
+    @GetMapping("/cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getCatalogCacheStats() {
+        return ResponseEntity.ok(menuService.getCatalogCacheStats());
     }
 
     @GetMapping("/categories/{id}")
@@ -1,18 +1,23 @@
 package com.funnfood.restaurant.controller;
 
+import com.funnfood.restaurant.exception.BadRequestException;
 import com.funnfood.restaurant.exception.ResourceNotFoundException;
 import com.funnfood.restaurant.model.MenuItem;
 import com.funnfood.restaurant.payload.request.MenuItemRequest;
 import com.funnfood.restaurant.payload.response.MenuItemResponse;
 import com.funnfood.restaurant.service.MenuItemService;
+import com.funnfood.restaurant.service.MenuPayloadCache;
+import com.funnfood.restaurant.service.MenuSearchIndex;
 import com.funnfood.restaurant.service.MenuService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,13 +33,34 @@ public class MenuItemController {
     @Autowired
     private MenuService menuService;
 
+    @Autowired
+    private MenuPayloadCache menuPayloadCache;
+
     @GetMapping
-    public ResponseEntity<List<MenuItemResponse>> getAllMenuItems() {
-        List<MenuItem> items = menuItemService.getAllMenuItems();
-        List<MenuItemResponse> responses = items.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(responses);
+    public ResponseEntity<byte[]> getAllMenuItems(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return menuPayloadCache.get(MenuPayloadCache.MENU_ITEMS_VIEW, () -> menuItemService.getAllMenuItems().stream()
+                        .map(this::convertToResponse)
+                        .collect(Collectors.toList()))
+                .toResponse(ifNoneMatch, acceptEncoding);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> searchMenuItems(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) Boolean vegetarian,
+            @RequestParam(required = false) Boolean available,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            MenuSearchIndex.Filter filter = new MenuSearchIndex.Filter(vegetarian, available, minPrice, maxPrice);
+            return ResponseEntity.ok(menuItemService.searchMenuItems(query, filter, limit));
+        } catch (BadRequestException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(createErrorResponse(e.getMessage()));
+        }
     }
 
     @GetMapping("/{id}")
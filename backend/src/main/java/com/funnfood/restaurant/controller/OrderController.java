@@ -1,29 +1,49 @@
 package com.funnfood.restaurant.controller;
 
+import com.funnfood.restaurant.exception.BadRequestException;
 import com.funnfood.restaurant.exception.ResourceNotFoundException;
 import com.funnfood.restaurant.model.Order;
 import com.funnfood.restaurant.model.OrderItem;
 import com.funnfood.restaurant.model.MenuItem;
 import com.funnfood.restaurant.payload.request.OrderRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.funnfood.restaurant.payload.response.OrderItemResponse;
+import com.funnfood.restaurant.payload.response.OrderPageResponse;
+import com.funnfood.restaurant.payload.response.MessageResponse;
 import com.funnfood.restaurant.payload.response.OrderResponse;
+import com.funnfood.restaurant.payload.response.OrderStatsResponse;
+import com.funnfood.restaurant.util.OrderCursor;
 import com.funnfood.restaurant.repository.MenuItemRepository;
+import com.funnfood.restaurant.service.OrderEventBus;
 import com.funnfood.restaurant.service.OrderItemService;
 import com.funnfood.restaurant.service.OrderService;
+import com.funnfood.restaurant.service.OrderStatsAggregator;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -39,6 +59,18 @@ public class OrderController {
     @Autowired
     private MenuItemRepository menuItemRepository;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OrderEventBus orderEventBus;
+
+    @Autowired
+    private OrderStatsAggregator orderStatsAggregator;
+
+    @Value("${app.orders.feed.timeout-ms:1800000}")
+    private long feedTimeoutMs;
+
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<List<OrderResponse>> getAllOrders() {
@@ -49,6 +81,36 @@ public class OrderController {
         return ResponseEntity.ok(orderResponses);
     }
 
+    @GetMapping("/page")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<OrderPageResponse> getOrdersPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(getPage(null, null, cursor, size));
+    }
+
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportOrders(
+            @RequestParam(required = false) Long restaurantId,
+            @RequestParam(required = false) String status,
+            HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        OutputStream out = response.getOutputStream();
+        ObjectWriter writer = objectMapper.writerFor(OrderResponse.class);
+
+        // One JSON document per line, written as the orders are read
+        orderService.exportOrders(restaurantId, status, order -> {
+            try {
+                out.write(writer.writeValueAsBytes(convertToResponse(order)));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        out.flush();
+    }
+
     @GetMapping("/user/{userId}")
     @PreAuthorize("hasRole('USER') or hasRole('MANAGER') or hasRole('ADMIN')")
     public ResponseEntity<List<OrderResponse>> getOrdersByUser(@PathVariable Long userId) {
@@ -71,6 +133,75 @@ public class OrderController {
         return ResponseEntity.ok(orderResponses);
     }
 
+    /**
+     * Live feed of new orders and status changes for a restaurant, as Server-Sent Events.
+     * Load the order list once, then apply the events; a reconnect resumes after its Last-Event-ID.
+     */
+    @GetMapping(value = "/restaurant/{restaurantId}/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    public SseEmitter getOrderFeed(
+            @PathVariable Long restaurantId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        SseEmitter emitter = new SseEmitter(feedTimeoutMs);
+        OrderEventBus.Subscription subscription = orderEventBus.subscribe(restaurantId, parseLastEventId(lastEventId),
+                new OrderEventBus.Sink() {
+                    @Override
+                    public void send(OrderEventBus.Message message) throws IOException {
+                        if (message.isHeartbeat()) {
+                            emitter.send(SseEmitter.event().comment("keep-alive"));
+                            return;
+                        }
+                        SseEmitter.SseEventBuilder event = SseEmitter.event()
+                                .name(message.name())
+                                .data(message.data(), MediaType.APPLICATION_JSON);
+                        if (message.id() > 0) {
+                            event.id(String.valueOf(message.id()));
+                        }
+                        emitter.send(event);
+                    }
+
+                    @Override
+                    public void close() {
+                        emitter.complete();
+                    }
+                });
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+        return emitter;
+    }
+
+    /**
+     * Order counts by status, revenue and average ticket of a restaurant for one day (today by default),
+     * from the maintained aggregates rather than the order list.
+     */
+    @GetMapping("/restaurant/{restaurantId}/stats")
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<OrderStatsResponse> getRestaurantStats(
+            @PathVariable Long restaurantId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(orderStatsAggregator.getStats(restaurantId, date != null ? date : LocalDate.now()));
+    }
+
+    /**
+     * Recount the dashboard aggregates of every restaurant from the orders.
+     */
+    @PostMapping("/stats/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<MessageResponse> rebuildStats() {
+        int rows = orderStatsAggregator.rebuild();
+        return ResponseEntity.ok(new MessageResponse("Rebuilt order stats from " + rows + " groups"));
+    }
+
+    @GetMapping("/restaurant/{restaurantId}/page")
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<OrderPageResponse> getOrdersPageByRestaurant(
+            @PathVariable Long restaurantId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(getPage(restaurantId, null, cursor, size));
+    }
+
     @GetMapping("/status/{status}")
     @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
     public ResponseEntity<List<OrderResponse>> getOrdersByStatus(@PathVariable String status) {
@@ -81,6 +212,15 @@ public class OrderController {
         return ResponseEntity.ok(orderResponses);
     }
 
+    @GetMapping("/status/{status}/page")
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<OrderPageResponse> getOrdersPageByStatus(
+            @PathVariable String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(getPage(null, status, cursor, size));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('MANAGER') or hasRole('ADMIN')")
     public ResponseEntity<?> getOrderById(@PathVariable Long id) {
@@ -113,11 +253,20 @@ public class OrderController {
             @PathVariable Long userId,
             @Valid @RequestBody OrderRequest orderRequest) {
         try {
+            // Load every referenced menu item in a single query
+            Set<Long> menuItemIds = orderRequest.getItems().stream()
+                    .map(com.funnfood.restaurant.payload.request.OrderItemRequest::getMenuItemId)
+                    .collect(Collectors.toSet());
+            Map<Long, MenuItem> menuItems = menuItemRepository.findAllById(menuItemIds).stream()
+                    .collect(Collectors.toMap(MenuItem::getId, Function.identity()));
+
             // Convert request to order items
             Set<OrderItem> orderItems = new HashSet<>();
             for (com.funnfood.restaurant.payload.request.OrderItemRequest itemRequest : orderRequest.getItems()) {
-                MenuItem menuItem = menuItemRepository.findById(itemRequest.getMenuItemId())
-                        .orElseThrow(() -> new ResourceNotFoundException("MenuItem", "id", itemRequest.getMenuItemId()));
+                MenuItem menuItem = menuItems.get(itemRequest.getMenuItemId());
+                if (menuItem == null) {
+                    throw new ResourceNotFoundException("MenuItem", "id", itemRequest.getMenuItemId());
+                }
                 OrderItem orderItem = new OrderItem();
                 orderItem.setMenuItem(menuItem);
                 orderItem.setQuantity(itemRequest.getQuantity());
@@ -134,13 +283,18 @@ public class OrderController {
                     orderRequest.getDeliveryState(),
                     orderRequest.getDeliveryZipCode(),
                     orderRequest.getContactPhone(),
-                    orderRequest.getSpecialInstructions()
+                    orderRequest.getSpecialInstructions(),
+                    orderRequest.getDeliveryLatitude(),
+                    orderRequest.getDeliveryLongitude()
             );
 
             return new ResponseEntity<>(convertToResponse(createdOrder), HttpStatus.CREATED);
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(createErrorResponse(e.getMessage()));
+        } catch (BadRequestException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(createErrorResponse(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(createErrorResponse("Failed to create order: " + e.getMessage()));
@@ -158,6 +312,12 @@ public class OrderController {
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(createErrorResponse(e.getMessage()));
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(createErrorResponse(e.getMessage()));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(createErrorResponse(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(createErrorResponse("Failed to update order status: " + e.getMessage()));
@@ -194,6 +354,9 @@ public class OrderController {
         } catch (IllegalStateException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(createErrorResponse(e.getMessage()));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(createErrorResponse(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(createErrorResponse("Failed to cancel order: " + e.getMessage()));
@@ -248,6 +411,36 @@ public class OrderController {
         }
     }
 
+    private OrderPageResponse getPage(Long restaurantId, String status, String cursor, Integer size) {
+        int pageSize = orderService.resolvePageSize(size);
+
+        // Read one extra row to know whether another page follows
+        List<Order> orders = orderService.getOrdersPage(restaurantId, status, cursor, pageSize + 1);
+        boolean hasMore = orders.size() > pageSize;
+        if (hasMore) {
+            orders = orders.subList(0, pageSize);
+        }
+
+        List<OrderResponse> orderResponses = orders.stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+        String nextCursor = hasMore ? OrderCursor.of(orders.get(orders.size() - 1)).encode() : null;
+
+        return new OrderPageResponse(orderResponses, nextCursor, hasMore);
+    }
+
+    // An unreadable id cannot be resumed from, so it gets the same resync as one that is too old
+    private static Long parseLastEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
     private OrderResponse convertToResponse(Order order) {
         OrderResponse response = new OrderResponse();
         response.setId(order.getId());
@@ -2,19 +2,23 @@ package com.funnfood.restaurant.controller;
 
 import com.funnfood.restaurant.payload.request.StripePaymentRequest;
 import com.funnfood.restaurant.payload.response.MessageResponse;
+import com.funnfood.restaurant.payload.response.PaymentStatusResponse;
 import com.funnfood.restaurant.payload.response.StripePaymentResponse;
 import com.funnfood.restaurant.security.services.UserDetailsImpl;
+import com.funnfood.restaurant.service.IdempotencyStore;
 import com.funnfood.restaurant.service.PaymentService;
-import jakarta.servlet.http.HttpServletRequest;
+import com.funnfood.restaurant.service.StripeWebhookIngestor;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.io.IOException;
-import java.util.stream.Collectors;
+import java.time.LocalDateTime;
 
 @CrossOrigin(origins = "http://localhost:3000", maxAge = 3600)
 @RestController
@@ -24,40 +28,99 @@ public class PaymentController {
     @Autowired
     private PaymentService paymentService;
 
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private StripeWebhookIngestor stripeWebhookIngestor;
+
+    @GetMapping("/order/{orderId}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<PaymentStatusResponse> getPaymentStatus(@PathVariable Long orderId) {
+        return ResponseEntity.ok(paymentService.getPaymentStatusByOrder(orderId));
+    }
+
+    /**
+     * Create a payment intent. Retries sent with the same Idempotency-Key get the original response back.
+     */
     @PostMapping("/stripe/create-payment")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<StripePaymentResponse> createStripePayment(
             @Valid @RequestBody StripePaymentRequest request,
+            @RequestHeader(value = IdempotencyStore.KEY_HEADER, required = false) String idempotencyKey,
             Authentication authentication) {
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-        StripePaymentResponse response = paymentService.createStripePayment(request, userDetails.getId());
-        return ResponseEntity.ok(response);
-
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(paymentService.createStripePayment(request, userDetails.getId()));
+        }
 
+        String fingerprint = request.getOrderId() + "|" + request.getAmount() + "|" + request.getCurrency()
+                + "|" + request.getDescription();
+        IdempotencyStore.Result<StripePaymentResponse> result = idempotencyStore.execute(
+                "create-payment:" + userDetails.getId() + ":" + idempotencyKey, fingerprint,
+                () -> paymentService.createStripePayment(request, userDetails.getId()));
+        return ResponseEntity.ok()
+                .header(IdempotencyStore.REPLAYED_HEADER, String.valueOf(result.replayed()))
+                .body(result.value());
     }
 
+    /**
+     * Stripe webhook endpoint. Events are acknowledged once queued and applied in the background;
+     * 503 tells Stripe to retry later when the queue is full.
+     */
     @PostMapping("/stripe/webhook")
     public ResponseEntity<MessageResponse> handleStripeWebhook(
             @RequestHeader("Stripe-Signature") String sigHeader,
-            HttpServletRequest request) throws IOException {
+            @RequestBody String payload) {
 
-        // Read the request body
-        String payload = request.getReader().lines().collect(Collectors.joining());
+        StripeWebhookIngestor.Outcome outcome = stripeWebhookIngestor.receive(payload, sigHeader);
+        if (outcome == StripeWebhookIngestor.Outcome.REJECTED) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(new MessageResponse("Webhook queue is full, please retry"));
+        }
+        return ResponseEntity.ok(new MessageResponse(outcome == StripeWebhookIngestor.Outcome.DUPLICATE
+                ? "Webhook already received" : "Webhook received"));
+    }
 
-        // Process the webhook
-        paymentService.handleStripeWebhook(payload, sigHeader);
+    /**
+     * Queue stored webhook events received in [from, to) for another pass, e.g. the FAILED ones
+     * after fixing their cause.
+     */
+    @PostMapping("/stripe/webhook/replay")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<MessageResponse> replayStripeWebhooks(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String status) {
 
-        return ResponseEntity.ok(new MessageResponse("Webhook processed successfully"));
+        int replayed = stripeWebhookIngestor.replay(from, to != null ? to : LocalDateTime.now(),
+                status != null ? status.toUpperCase() : null);
+        return ResponseEntity.ok(new MessageResponse("Replaying " + replayed + " webhook events"));
     }
 
     @PostMapping("/stripe/update-status")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<MessageResponse> updatePaymentStatus(
             @RequestParam String paymentIntentId,
-            @RequestParam String status) {
+            @RequestParam String status,
+            @RequestHeader(value = IdempotencyStore.KEY_HEADER, required = false) String idempotencyKey,
+            Authentication authentication) {
 
-        paymentService.updatePaymentStatus(paymentIntentId, status);
+        if (idempotencyKey == null) {
+            paymentService.updatePaymentStatus(paymentIntentId, status);
+            return ResponseEntity.ok(new MessageResponse("Payment status updated successfully"));
+        }
 
-        return ResponseEntity.ok(new MessageResponse("Payment status updated successfully"));
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        IdempotencyStore.Result<MessageResponse> result = idempotencyStore.execute(
+                "update-status:" + userDetails.getId() + ":" + idempotencyKey, paymentIntentId + "|" + status,
+                () -> {
+                    paymentService.updatePaymentStatus(paymentIntentId, status);
+                    return new MessageResponse("Payment status updated successfully");
+                });
+        return ResponseEntity.ok()
+                .header(IdempotencyStore.REPLAYED_HEADER, String.valueOf(result.replayed()))
+                .body(result.value());
     }
 }
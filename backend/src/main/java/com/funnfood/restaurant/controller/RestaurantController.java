@@ -1,11 +1,18 @@
 package com.funnfood.restaurant.controller;
 
+import com.funnfood.restaurant.payload.request.PricingRuleRequest;
+import com.funnfood.restaurant.payload.response.DeliveryQuoteResponse;
+import com.funnfood.restaurant.payload.response.PricingRuleResponse;
 import com.funnfood.restaurant.payload.response.RestaurantResponse;
+import com.funnfood.restaurant.service.PricingRuleService;
 import com.funnfood.restaurant.service.RestaurantService;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -16,6 +23,9 @@ public class RestaurantController {
     @Autowired
     private RestaurantService restaurantService;
 
+    @Autowired
+    private PricingRuleService pricingRuleService;
+
     @GetMapping
     public ResponseEntity<List<RestaurantResponse>> getAllRestaurants() {
         List<RestaurantResponse> restaurants = restaurantService.getAllRestaurants();
@@ -42,4 +52,34 @@ public class RestaurantController {
         List<RestaurantResponse> restaurants = restaurantService.getNearbyRestaurants(city, latitude, longitude);
         return ResponseEntity.ok(restaurants);
     }
+
+    @GetMapping("/{id}/delivery-quote")
+    public ResponseEntity<DeliveryQuoteResponse> getDeliveryQuote(
+            @PathVariable Long id,
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(required = false) BigDecimal subtotal) {
+        return ResponseEntity.ok(pricingRuleService.quote(id, latitude, longitude, subtotal));
+    }
+
+    @GetMapping("/{id}/pricing")
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<PricingRuleResponse> getPricingRule(@PathVariable Long id) {
+        return ResponseEntity.ok(pricingRuleService.getRule(id));
+    }
+
+    @PutMapping("/{id}/pricing")
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<PricingRuleResponse> savePricingRule(
+            @PathVariable Long id,
+            @Valid @RequestBody PricingRuleRequest request) {
+        return ResponseEntity.ok(pricingRuleService.saveRule(id, request));
+    }
+
+    @DeleteMapping("/{id}/pricing")
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<Void> deletePricingRule(@PathVariable Long id) {
+        pricingRuleService.deleteRule(id);
+        return ResponseEntity.noContent().build();
+    }
 }
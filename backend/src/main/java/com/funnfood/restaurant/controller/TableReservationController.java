@@ -43,19 +43,14 @@ public class TableReservationController {
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('MANAGER') or hasRole('ADMIN')")
     public ResponseEntity<TableReservationResponse> getReservationById(@PathVariable Long id) {
-        TableReservation reservation = tableReservationService.getReservationById(id);
-
-        // Check if the current user has permission to view this reservation
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = auth.getName();
+        return viewIfPermitted(tableReservationService.getReservationById(id));
+    }
 
-        if (reservation.getUser().getUsername().equals(currentUsername) ||
-                auth.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN") ||
-                        a.getAuthority().equals("ROLE_MANAGER"))) {
-            return ResponseEntity.ok(mapToResponse(reservation));
-        } else {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
+    // Get reservation by the token number given to the guest
+    @GetMapping("/token/{tokenNumber}")
+    @PreAuthorize("hasRole('USER') or hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<TableReservationResponse> getReservationByToken(@PathVariable String tokenNumber) {
+        return viewIfPermitted(tableReservationService.getReservationByTokenNumber(tokenNumber));
     }
 
     // Get current user's reservations
@@ -153,6 +148,20 @@ public class TableReservationController {
     }
 
     // Helper method to map TableReservation entity to TableReservationResponse
+    private ResponseEntity<TableReservationResponse> viewIfPermitted(TableReservation reservation) {
+        // Check if the current user has permission to view this reservation
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String currentUsername = auth.getName();
+
+        if (reservation.getUser().getUsername().equals(currentUsername) ||
+                auth.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN") ||
+                        a.getAuthority().equals("ROLE_MANAGER"))) {
+            return ResponseEntity.ok(mapToResponse(reservation));
+        } else {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+    }
+
     private TableReservationResponse mapToResponse(TableReservation reservation) {
         TableReservationResponse response = new TableReservationResponse();
         response.setId(reservation.getId());
@@ -0,0 +1,41 @@
+package com.funnfood.restaurant.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.math.BigDecimal;
+
+/**
+ * Delivery fee charged for addresses up to a distance from the restaurant.
+ */
+@Embeddable
+public class DeliveryFeeBand {
+    @Column(name = "max_distance_km", nullable = false)
+    private double maxDistanceKm;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal fee;
+
+    public DeliveryFeeBand() {
+    }
+
+    public DeliveryFeeBand(double maxDistanceKm, BigDecimal fee) {
+        this.maxDistanceKm = maxDistanceKm;
+        this.fee = fee;
+    }
+
+    public double getMaxDistanceKm() {
+        return maxDistanceKm;
+    }
+
+    public void setMaxDistanceKm(double maxDistanceKm) {
+        this.maxDistanceKm = maxDistanceKm;
+    }
+
+    public BigDecimal getFee() {
+        return fee;
+    }
+
+    public void setFee(BigDecimal fee) {
+        this.fee = fee;
+    }
+}
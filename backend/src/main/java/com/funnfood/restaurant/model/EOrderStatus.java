@@ -0,0 +1,62 @@
+package com.funnfood.restaurant.model;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Order lifecycle states and the legal transitions between them.
+ * The values match the strings stored in orders.status.
+ */
+public enum EOrderStatus {
+    PENDING,
+    CONFIRMED,
+    PAID,
+    PREPARING,
+    READY,
+    OUT_FOR_DELIVERY,
+    DELIVERED,
+    CANCELLED,
+    REFUNDED;
+
+    private static final Map<EOrderStatus, Set<EOrderStatus>> TRANSITIONS = new EnumMap<>(EOrderStatus.class);
+    private static final Map<EOrderStatus, Set<EOrderStatus>> SOURCES = new EnumMap<>(EOrderStatus.class);
+
+    static {
+        TRANSITIONS.put(PENDING, EnumSet.of(CONFIRMED, PAID, PREPARING, CANCELLED));
+        TRANSITIONS.put(CONFIRMED, EnumSet.of(PAID, PREPARING, CANCELLED));
+        TRANSITIONS.put(PAID, EnumSet.of(PREPARING, REFUNDED));
+        TRANSITIONS.put(PREPARING, EnumSet.of(READY, REFUNDED));
+        TRANSITIONS.put(READY, EnumSet.of(OUT_FOR_DELIVERY, DELIVERED));
+        TRANSITIONS.put(OUT_FOR_DELIVERY, EnumSet.of(DELIVERED));
+        TRANSITIONS.put(DELIVERED, EnumSet.of(REFUNDED));
+        TRANSITIONS.put(CANCELLED, EnumSet.of(REFUNDED));
+        TRANSITIONS.put(REFUNDED, EnumSet.noneOf(EOrderStatus.class));
+
+        for (EOrderStatus status : values()) {
+            SOURCES.put(status, EnumSet.noneOf(EOrderStatus.class));
+        }
+        TRANSITIONS.forEach((from, targets) -> targets.forEach(to -> SOURCES.get(to).add(from)));
+    }
+
+    public boolean canTransitionTo(EOrderStatus target) {
+        return TRANSITIONS.get(this).contains(target);
+    }
+
+    /**
+     * States from which an order may move to this one.
+     */
+    public Set<EOrderStatus> allowedSources() {
+        return Collections.unmodifiableSet(SOURCES.get(this));
+    }
+
+    public static EOrderStatus from(String status) {
+        try {
+            return valueOf(status.trim().toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Unknown order status: " + status);
+        }
+    }
+}
@@ -7,10 +7,18 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_order_date_id", columnList = "order_date, id"),
+        @Index(name = "idx_orders_restaurant_order_date", columnList = "restaurant_id, order_date, id"),
+        @Index(name = "idx_orders_status_order_date", columnList = "status, order_date, id")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_orders_token_number", columnNames = "token_number")
+})
 public class Order {
+    // Pooled sequence ids let Hibernate batch order inserts instead of one round-trip per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -72,6 +80,10 @@ public class Order {
     @Column(name = "payment_status")
     private String paymentStatus;
 
+    // Guards read-modify-save updates against concurrent writers
+    @Version
+    private Long version;
+
     public Order() {
         this.orderDate = LocalDateTime.now();
     }
@@ -230,6 +242,14 @@ public class Order {
         this.paymentId = paymentId;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getPaymentStatus() {
         return paymentStatus;
     }
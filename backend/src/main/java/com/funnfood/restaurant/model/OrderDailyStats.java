@@ -0,0 +1,109 @@
+package com.funnfood.restaurant.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Number and total amount of one restaurant's orders placed on one day that are now in one status.
+ * Maintained from the in-memory aggregates and rebuilt from the orders when needed.
+ */
+@Entity
+@Table(name = "order_daily_stats", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_order_daily_stats_restaurant_date_status",
+                columnNames = {"restaurant_id", "stats_date", "status"})
+}, indexes = {
+        @Index(name = "idx_order_daily_stats_stats_date", columnList = "stats_date")
+})
+public class OrderDailyStats {
+    // Pooled sequence ids so a flush or rebuild is inserted in one JDBC batch
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_daily_stats_seq")
+    @SequenceGenerator(name = "order_daily_stats_seq", sequenceName = "order_daily_stats_seq", allocationSize = 50)
+    private Long id;
+
+    // A plain column rather than an association; the summary never needs the restaurant loaded
+    @Column(name = "restaurant_id", nullable = false)
+    private Long restaurantId;
+
+    @Column(name = "stats_date", nullable = false)
+    private LocalDate statsDate;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    @Column(name = "total_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public OrderDailyStats() {
+    }
+
+    public OrderDailyStats(Long restaurantId, LocalDate statsDate, String status) {
+        this.restaurantId = restaurantId;
+        this.statsDate = statsDate;
+        this.status = status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getRestaurantId() {
+        return restaurantId;
+    }
+
+    public void setRestaurantId(Long restaurantId) {
+        this.restaurantId = restaurantId;
+    }
+
+    public LocalDate getStatsDate() {
+        return statsDate;
+    }
+
+    public void setStatsDate(LocalDate statsDate) {
+        this.statsDate = statsDate;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -6,7 +6,11 @@ import jakarta.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+        @Index(name = "idx_payments_order_id", columnList = "order_id"),
+        @Index(name = "idx_payments_stripe_payment_intent_id", columnList = "stripePaymentIntentId"),
+        @Index(name = "idx_payments_transaction_id", columnList = "transactionId")
+})
 public class Payment {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -32,7 +36,8 @@ public class Payment {
 
     private String refundReason;
 
-    @OneToOne
+    // Lazy so lookups by intent or transaction id are one statement; the order id is read from the proxy
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id")
     private Order order;
 
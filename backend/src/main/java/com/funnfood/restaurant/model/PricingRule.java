@@ -0,0 +1,78 @@
+package com.funnfood.restaurant.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tax rate and delivery fee bands of a restaurant. Restaurants without a rule use the configured defaults.
+ */
+@Entity
+@Table(name = "pricing_rules", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_pricing_rules_restaurant", columnNames = "restaurant_id")
+})
+public class PricingRule {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "restaurant_id", nullable = false)
+    private Restaurant restaurant;
+
+    // Fraction of the subtotal, e.g. 0.0800
+    @Column(name = "tax_rate", nullable = false, precision = 6, scale = 4)
+    private BigDecimal taxRate;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "pricing_rule_fee_bands", joinColumns = @JoinColumn(name = "pricing_rule_id"))
+    @OrderBy("maxDistanceKm ASC")
+    private List<DeliveryFeeBand> feeBands = new ArrayList<>();
+
+    private LocalDateTime updatedAt;
+
+    public PricingRule() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Restaurant getRestaurant() {
+        return restaurant;
+    }
+
+    public void setRestaurant(Restaurant restaurant) {
+        this.restaurant = restaurant;
+    }
+
+    public BigDecimal getTaxRate() {
+        return taxRate;
+    }
+
+    public void setTaxRate(BigDecimal taxRate) {
+        this.taxRate = taxRate;
+    }
+
+    public List<DeliveryFeeBand> getFeeBands() {
+        return feeBands;
+    }
+
+    public void setFeeBands(List<DeliveryFeeBand> feeBands) {
+        this.feeBands = feeBands;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
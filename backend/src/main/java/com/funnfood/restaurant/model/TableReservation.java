@@ -6,7 +6,9 @@ import jakarta.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "table_reservations")
+@Table(name = "table_reservations", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_table_reservations_token_number", columnNames = "token_number")
+})
 public class TableReservation {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -44,6 +44,10 @@ public class User {
     @Column(name = "provider")
     private String provider = "local";
 
+    // Bumped to revoke every JWT issued to this user before the change
+    @Column(name = "token_version")
+    private int tokenVersion = 0;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL)
     private Set<UserAddress> addresses = new HashSet<>();
 
@@ -113,6 +117,14 @@ public class User {
         this.provider = provider;
     }
 
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void setTokenVersion(int tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
     public Set<UserAddress> getAddresses() {
         return addresses;
     }
@@ -1,5 +1,6 @@
 package com.funnfood.restaurant.payload.request;
 
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -17,6 +18,7 @@ public class MenuItemRequest {
 
     @NotNull
     @Positive
+    @Digits(integer = 8, fraction = 2, message = "Price can have at most two decimal places")
     private BigDecimal price;
 
     private String imageUrl;
@@ -1,6 +1,8 @@
 package com.funnfood.restaurant.payload.request;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
@@ -32,6 +34,15 @@ public class OrderRequest {
 
     private String specialInstructions;
 
+    // Optional delivery coordinates; without them the restaurant's flat delivery fee applies
+    @DecimalMin("-90.0")
+    @DecimalMax("90.0")
+    private Double deliveryLatitude;
+
+    @DecimalMin("-180.0")
+    @DecimalMax("180.0")
+    private Double deliveryLongitude;
+
     // Getters and Setters
     public Long getRestaurantId() {
         return restaurantId;
@@ -96,4 +107,20 @@ public class OrderRequest {
     public void setSpecialInstructions(String specialInstructions) {
         this.specialInstructions = specialInstructions;
     }
+
+    public Double getDeliveryLatitude() {
+        return deliveryLatitude;
+    }
+
+    public void setDeliveryLatitude(Double deliveryLatitude) {
+        this.deliveryLatitude = deliveryLatitude;
+    }
+
+    public Double getDeliveryLongitude() {
+        return deliveryLongitude;
+    }
+
+    public void setDeliveryLongitude(Double deliveryLongitude) {
+        this.deliveryLongitude = deliveryLongitude;
+    }
 }
@@ -0,0 +1,68 @@
+package com.funnfood.restaurant.payload.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PricingRuleRequest {
+
+    @NotNull(message = "Tax rate cannot be null")
+    @DecimalMin(value = "0.0", message = "Tax rate cannot be negative")
+    @DecimalMax(value = "1.0", message = "Tax rate cannot exceed 1")
+    @Digits(integer = 1, fraction = 4, message = "Tax rate can have at most four decimal places")
+    private BigDecimal taxRate;
+
+    // Empty means a flat default delivery fee at any distance within the delivery radius
+    @Valid
+    private List<FeeBand> feeBands = new ArrayList<>();
+
+    public BigDecimal getTaxRate() {
+        return taxRate;
+    }
+
+    public void setTaxRate(BigDecimal taxRate) {
+        this.taxRate = taxRate;
+    }
+
+    public List<FeeBand> getFeeBands() {
+        return feeBands;
+    }
+
+    public void setFeeBands(List<FeeBand> feeBands) {
+        this.feeBands = feeBands;
+    }
+
+    public static class FeeBand {
+
+        @NotNull(message = "Band distance cannot be null")
+        @DecimalMin(value = "0.0", inclusive = false, message = "Band distance must be positive")
+        private Double maxDistanceKm;
+
+        @NotNull(message = "Band fee cannot be null")
+        @DecimalMin(value = "0.0", message = "Band fee cannot be negative")
+        @Digits(integer = 8, fraction = 2, message = "Band fee can have at most two decimal places")
+        private BigDecimal fee;
+
+        public Double getMaxDistanceKm() {
+            return maxDistanceKm;
+        }
+
+        public void setMaxDistanceKm(Double maxDistanceKm) {
+            this.maxDistanceKm = maxDistanceKm;
+        }
+
+        public BigDecimal getFee() {
+            return fee;
+        }
+
+        public void setFee(BigDecimal fee) {
+            this.fee = fee;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.funnfood.restaurant.payload.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Bookable slots of every table of a restaurant over a date range.
+ * Each table's {@code slots} is a Base64 bitset of {@code slotCount} bits: bit i (byte i / 8, bit i % 8,
+ * least significant first) is set when a reservation starting at {@code from + i * slotMinutes} would not conflict.
+ */
+public class AvailabilityGridResponse {
+
+    private Long restaurantId;
+    private LocalDateTime from;
+    private int slotMinutes;
+    private int slotCount;
+    private List<TableSlots> tables;
+
+    public AvailabilityGridResponse(Long restaurantId, LocalDateTime from, int slotMinutes, int slotCount,
+                                    List<TableSlots> tables) {
+        this.restaurantId = restaurantId;
+        this.from = from;
+        this.slotMinutes = slotMinutes;
+        this.slotCount = slotCount;
+        this.tables = tables;
+    }
+
+    // Getters and Setters
+    public Long getRestaurantId() {
+        return restaurantId;
+    }
+
+    public void setRestaurantId(Long restaurantId) {
+        this.restaurantId = restaurantId;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDateTime from) {
+        this.from = from;
+    }
+
+    public int getSlotMinutes() {
+        return slotMinutes;
+    }
+
+    public void setSlotMinutes(int slotMinutes) {
+        this.slotMinutes = slotMinutes;
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    public void setSlotCount(int slotCount) {
+        this.slotCount = slotCount;
+    }
+
+    public List<TableSlots> getTables() {
+        return tables;
+    }
+
+    public void setTables(List<TableSlots> tables) {
+        this.tables = tables;
+    }
+
+    public static class TableSlots {
+
+        private Long tableId;
+        private String tableNumber;
+        private int capacity;
+        private Long diningRoomId;
+        private String slots;
+
+        public TableSlots(Long tableId, String tableNumber, int capacity, Long diningRoomId, String slots) {
+            this.tableId = tableId;
+            this.tableNumber = tableNumber;
+            this.capacity = capacity;
+            this.diningRoomId = diningRoomId;
+            this.slots = slots;
+        }
+
+        public Long getTableId() {
+            return tableId;
+        }
+
+        public void setTableId(Long tableId) {
+            this.tableId = tableId;
+        }
+
+        public String getTableNumber() {
+            return tableNumber;
+        }
+
+        public void setTableNumber(String tableNumber) {
+            this.tableNumber = tableNumber;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public Long getDiningRoomId() {
+            return diningRoomId;
+        }
+
+        public void setDiningRoomId(Long diningRoomId) {
+            this.diningRoomId = diningRoomId;
+        }
+
+        public String getSlots() {
+            return slots;
+        }
+
+        public void setSlots(String slots) {
+            this.slots = slots;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.funnfood.restaurant.payload.response;
+
+import java.math.BigDecimal;
+
+/**
+ * Delivery fee and tax for an address, before an order is placed. Fee and totals are null when
+ * the restaurant does not deliver that far; tax and total are null when no subtotal was given.
+ */
+public class DeliveryQuoteResponse {
+
+    private Long restaurantId;
+    private double distanceKm;
+    private boolean deliverable;
+    private BigDecimal deliveryFee;
+    private BigDecimal taxRate;
+    private BigDecimal tax;
+    private BigDecimal total;
+
+    // Getters and Setters
+    public Long getRestaurantId() {
+        return restaurantId;
+    }
+
+    public void setRestaurantId(Long restaurantId) {
+        this.restaurantId = restaurantId;
+    }
+
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+
+    public void setDistanceKm(double distanceKm) {
+        this.distanceKm = distanceKm;
+    }
+
+    public boolean isDeliverable() {
+        return deliverable;
+    }
+
+    public void setDeliverable(boolean deliverable) {
+        this.deliverable = deliverable;
+    }
+
+    public BigDecimal getDeliveryFee() {
+        return deliveryFee;
+    }
+
+    public void setDeliveryFee(BigDecimal deliveryFee) {
+        this.deliveryFee = deliveryFee;
+    }
+
+    public BigDecimal getTaxRate() {
+        return taxRate;
+    }
+
+    public void setTaxRate(BigDecimal taxRate) {
+        this.taxRate = taxRate;
+    }
+
+    public BigDecimal getTax() {
+        return tax;
+    }
+
+    public void setTax(BigDecimal tax) {
+        this.tax = tax;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public void setTotal(BigDecimal total) {
+        this.total = total;
+    }
+}
@@ -0,0 +1,71 @@
+package com.funnfood.restaurant.payload.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+public class OrderStatsResponse {
+    private Long restaurantId;
+    private LocalDate date;
+    private long totalOrders;
+    private Map<String, Long> ordersByStatus;
+    private long revenueOrders;
+    private BigDecimal revenue;
+    private BigDecimal averageTicket;
+
+    public Long getRestaurantId() {
+        return restaurantId;
+    }
+
+    public void setRestaurantId(Long restaurantId) {
+        this.restaurantId = restaurantId;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public long getTotalOrders() {
+        return totalOrders;
+    }
+
+    public void setTotalOrders(long totalOrders) {
+        this.totalOrders = totalOrders;
+    }
+
+    public Map<String, Long> getOrdersByStatus() {
+        return ordersByStatus;
+    }
+
+    public void setOrdersByStatus(Map<String, Long> ordersByStatus) {
+        this.ordersByStatus = ordersByStatus;
+    }
+
+    public long getRevenueOrders() {
+        return revenueOrders;
+    }
+
+    public void setRevenueOrders(long revenueOrders) {
+        this.revenueOrders = revenueOrders;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+
+    public BigDecimal getAverageTicket() {
+        return averageTicket;
+    }
+
+    public void setAverageTicket(BigDecimal averageTicket) {
+        this.averageTicket = averageTicket;
+    }
+}
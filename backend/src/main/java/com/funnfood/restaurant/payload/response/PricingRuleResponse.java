@@ -0,0 +1,95 @@
+package com.funnfood.restaurant.payload.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Pricing rule of a restaurant; {@code defaultRule} is true when the restaurant has none and the
+ * configured defaults apply.
+ */
+public class PricingRuleResponse {
+
+    private Long restaurantId;
+    private BigDecimal taxRate;
+    private List<FeeBand> feeBands;
+    private BigDecimal flatDeliveryFee;
+    private boolean defaultRule;
+    private LocalDateTime updatedAt;
+
+    // Getters and Setters
+    public Long getRestaurantId() {
+        return restaurantId;
+    }
+
+    public void setRestaurantId(Long restaurantId) {
+        this.restaurantId = restaurantId;
+    }
+
+    public BigDecimal getTaxRate() {
+        return taxRate;
+    }
+
+    public void setTaxRate(BigDecimal taxRate) {
+        this.taxRate = taxRate;
+    }
+
+    public List<FeeBand> getFeeBands() {
+        return feeBands;
+    }
+
+    public void setFeeBands(List<FeeBand> feeBands) {
+        this.feeBands = feeBands;
+    }
+
+    public BigDecimal getFlatDeliveryFee() {
+        return flatDeliveryFee;
+    }
+
+    public void setFlatDeliveryFee(BigDecimal flatDeliveryFee) {
+        this.flatDeliveryFee = flatDeliveryFee;
+    }
+
+    public boolean isDefaultRule() {
+        return defaultRule;
+    }
+
+    public void setDefaultRule(boolean defaultRule) {
+        this.defaultRule = defaultRule;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public static class FeeBand {
+
+        private double maxDistanceKm;
+        private BigDecimal fee;
+
+        public FeeBand(double maxDistanceKm, BigDecimal fee) {
+            this.maxDistanceKm = maxDistanceKm;
+            this.fee = fee;
+        }
+
+        public double getMaxDistanceKm() {
+            return maxDistanceKm;
+        }
+
+        public void setMaxDistanceKm(double maxDistanceKm) {
+            this.maxDistanceKm = maxDistanceKm;
+        }
+
+        public BigDecimal getFee() {
+            return fee;
+        }
+
+        public void setFee(BigDecimal fee) {
+            this.fee = fee;
+        }
+    }
+}
@@ -15,6 +15,7 @@ public class RestaurantResponse {
     private int avgDeliveryTimeMin;
     private Long managerId;
     private String managerName;
+    private Double distanceKm;
 
     public RestaurantResponse() {
     }
@@ -131,4 +132,12 @@ public class RestaurantResponse {
     public void setManagerName(String managerName) {
         this.managerName = managerName;
     }
+
+    public Double getDistanceKm() {
+        return distanceKm;
+    }
+
+    public void setDistanceKm(Double distanceKm) {
+        this.distanceKm = distanceKm;
+    }
 }
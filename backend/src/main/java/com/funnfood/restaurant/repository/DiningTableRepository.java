@@ -15,6 +15,12 @@ public interface DiningTableRepository extends JpaRepository<DiningTable, Long>
     List<DiningTable> findByDiningRoom(DiningRoom diningRoom);
     boolean existsByTableNumberAndDiningRoomId(String tableNumber, Long diningRoomId);
 
+    @Query("SELECT t FROM DiningTable t WHERE t.diningRoom.restaurant.id = :restaurantId AND t.capacity >= :capacity " +
+            "ORDER BY t.diningRoom.id, t.id")
+    List<DiningTable> findByRestaurantIdAndMinCapacity(
+            @Param("restaurantId") Long restaurantId,
+            @Param("capacity") int capacity);
+
 
     @Query("SELECT t FROM DiningTable t WHERE t.diningRoom = :diningRoom AND t.capacity >= :capacity " +
             "AND NOT EXISTS (SELECT r FROM TableReservation r WHERE r.diningTable = t " +
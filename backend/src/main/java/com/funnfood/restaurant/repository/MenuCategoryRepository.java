@@ -1,13 +1,20 @@
 package com.funnfood.restaurant.repository;
 
 import com.funnfood.restaurant.model.MenuCategory;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface MenuCategoryRepository extends JpaRepository<MenuCategory, Long> {
     Optional<MenuCategory> findByName(String name);
     boolean existsByName(String name);
+
+    @EntityGraph(attributePaths = {"menuItems"})
+    @Query("SELECT DISTINCT c FROM MenuCategory c ORDER BY c.id")
+    List<MenuCategory> findAllWithItems();
 }
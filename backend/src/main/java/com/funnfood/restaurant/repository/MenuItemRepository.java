@@ -3,6 +3,7 @@ package com.funnfood.restaurant.repository;
 import com.funnfood.restaurant.model.MenuCategory;
 import com.funnfood.restaurant.model.MenuItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,4 +14,7 @@ public interface MenuItemRepository extends JpaRepository<MenuItem, Long> {
     List<MenuItem> findByIsVegetarian(boolean isVegetarian);
     List<MenuItem> findByCategory(MenuCategory category);
     List<MenuItem> findByIsAvailable(boolean isAvailable);
+
+    @Query("SELECT m FROM MenuItem m LEFT JOIN FETCH m.category")
+    List<MenuItem> findAllWithCategory();
 }
@@ -0,0 +1,17 @@
+package com.funnfood.restaurant.repository;
+
+import com.funnfood.restaurant.model.OrderDailyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderDailyStatsRepository extends JpaRepository<OrderDailyStats, Long> {
+    List<OrderDailyStats> findByRestaurantIdAndStatsDate(Long restaurantId, LocalDate statsDate);
+
+    // Rows for a flush; may include rows of other restaurants on the same days, which the caller skips
+    List<OrderDailyStats> findByRestaurantIdInAndStatsDateIn(Collection<Long> restaurantIds, Collection<LocalDate> dates);
+}
@@ -3,22 +3,144 @@ package com.funnfood.restaurant.repository;
 import com.funnfood.restaurant.model.Order;
 import com.funnfood.restaurant.model.Restaurant;
 import com.funnfood.restaurant.model.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
+    // List queries load the restaurant, items and menu items in the same statement,
+    // so mapping N orders to responses costs one query instead of 1 + N + N*items
+    @EntityGraph(attributePaths = {"restaurant", "orderItems", "orderItems.menuItem"})
+    @Query("SELECT o FROM Order o")
+    List<Order> findAllWithItems();
+
+    @EntityGraph(attributePaths = {"restaurant", "orderItems", "orderItems.menuItem"})
     List<Order> findByUser(User user);
 
+    @EntityGraph(attributePaths = {"restaurant", "orderItems", "orderItems.menuItem"})
     List<Order> findByRestaurant(Restaurant restaurant);
 
+    @EntityGraph(attributePaths = {"restaurant", "orderItems", "orderItems.menuItem"})
     List<Order> findByStatus(String status);
 
+    @EntityGraph(attributePaths = {"restaurant", "orderItems", "orderItems.menuItem"})
     List<Order> findByUserAndStatus(User user, String status);
 
+    @EntityGraph(attributePaths = {"restaurant", "orderItems", "orderItems.menuItem"})
     List<Order> findByRestaurantAndStatus(Restaurant restaurant, String status);
 
-    List<Order> findByTokenNumber(String tokenNumber);
+    @EntityGraph(attributePaths = {"restaurant", "orderItems", "orderItems.menuItem"})
+    Optional<Order> findByTokenNumber(String tokenNumber);
+
+    @Query("SELECT o.id, o.restaurant.id FROM Order o WHERE o.status IN :statuses")
+    List<Object[]> findOpenOrderRestaurants(@Param("statuses") Collection<String> statuses);
+
+    // Count and total of orders per restaurant, order day and status, for rebuilding the dashboard aggregates;
+    // a null from counts every order
+    @Query("SELECT o.restaurant.id, CAST(o.orderDate AS LocalDate), o.status, COUNT(o), SUM(o.totalAmount) " +
+            "FROM Order o WHERE o.restaurant IS NOT NULL AND o.orderDate IS NOT NULL " +
+            "AND (:from IS NULL OR o.orderDate >= :from) " +
+            "GROUP BY o.restaurant.id, CAST(o.orderDate AS LocalDate), o.status")
+    List<Object[]> countByRestaurantDayAndStatus(@Param("from") LocalDateTime from);
+
+    /**
+     * Move the order to the target status only if it is currently in one of the allowed source states.
+     * Returns the number of updated rows (0 or 1); bumps the version so concurrent entity saves fail fast.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :target, o.version = o.version + 1 " +
+            "WHERE o.id = :id AND o.status IN :sources")
+    int updateStatusIfIn(
+            @Param("id") Long id,
+            @Param("target") String target,
+            @Param("sources") Collection<String> sources);
+
+    /**
+     * Initialize the items of orders already loaded by a keyset page query.
+     * Fetching collections together with a row limit would paginate in memory, so pages load them in this second query.
+     */
+    @EntityGraph(attributePaths = {"orderItems", "orderItems.menuItem"})
+    @Query("SELECT o FROM Order o WHERE o.id IN :ids")
+    List<Order> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Keyset pages, newest first. The "After" variants continue below the (orderDate, id) cursor.
+    @EntityGraph(attributePaths = {"restaurant"})
+    @Query("SELECT o FROM Order o ORDER BY o.orderDate DESC, o.id DESC")
+    List<Order> findFirstPage(Pageable pageable);
+
+    @EntityGraph(attributePaths = {"restaurant"})
+    @Query("SELECT o FROM Order o WHERE o.orderDate < :orderDate " +
+            "OR (o.orderDate = :orderDate AND o.id < :id) " +
+            "ORDER BY o.orderDate DESC, o.id DESC")
+    List<Order> findPageAfter(
+            @Param("orderDate") LocalDateTime orderDate,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    @EntityGraph(attributePaths = {"restaurant"})
+    @Query("SELECT o FROM Order o WHERE o.restaurant.id = :restaurantId " +
+            "ORDER BY o.orderDate DESC, o.id DESC")
+    List<Order> findFirstPageByRestaurant(@Param("restaurantId") Long restaurantId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"restaurant"})
+    @Query("SELECT o FROM Order o WHERE o.restaurant.id = :restaurantId " +
+            "AND (o.orderDate < :orderDate OR (o.orderDate = :orderDate AND o.id < :id)) " +
+            "ORDER BY o.orderDate DESC, o.id DESC")
+    List<Order> findPageByRestaurantAfter(
+            @Param("restaurantId") Long restaurantId,
+            @Param("orderDate") LocalDateTime orderDate,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    @EntityGraph(attributePaths = {"restaurant"})
+    @Query("SELECT o FROM Order o WHERE o.status = :status " +
+            "ORDER BY o.orderDate DESC, o.id DESC")
+    List<Order> findFirstPageByStatus(@Param("status") String status, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"restaurant"})
+    @Query("SELECT o FROM Order o WHERE o.status = :status " +
+            "AND (o.orderDate < :orderDate OR (o.orderDate = :orderDate AND o.id < :id)) " +
+            "ORDER BY o.orderDate DESC, o.id DESC")
+    List<Order> findPageByStatusAfter(
+            @Param("status") String status,
+            @Param("orderDate") LocalDateTime orderDate,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    // Full exports; must be consumed inside a read-only transaction and closed afterwards
+    @EntityGraph(attributePaths = {"restaurant"})
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT o FROM Order o ORDER BY o.orderDate, o.id")
+    Stream<Order> streamAll();
+
+    @EntityGraph(attributePaths = {"restaurant"})
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT o FROM Order o WHERE o.restaurant.id = :restaurantId ORDER BY o.orderDate, o.id")
+    Stream<Order> streamByRestaurant(@Param("restaurantId") Long restaurantId);
+
+    @EntityGraph(attributePaths = {"restaurant"})
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT o FROM Order o WHERE o.restaurant.id = :restaurantId AND o.status = :status ORDER BY o.orderDate, o.id")
+    Stream<Order> streamByRestaurantAndStatus(@Param("restaurantId") Long restaurantId, @Param("status") String status);
+
+    @EntityGraph(attributePaths = {"restaurant"})
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT o FROM Order o WHERE o.status = :status ORDER BY o.orderDate, o.id")
+    Stream<Order> streamByStatus(@Param("status") String status);
 }
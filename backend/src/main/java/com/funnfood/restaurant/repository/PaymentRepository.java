@@ -3,8 +3,12 @@ package com.funnfood.restaurant.repository;
 import com.funnfood.restaurant.model.Order;
 import com.funnfood.restaurant.model.Payment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,4 +18,14 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     Optional<Payment> findByStripePaymentIntentId(String paymentIntentId);
 
     Optional<Payment> findByTransactionId(String transactionId);
+
+    // Id-based variants query the order_id column directly instead of needing a loaded Order
+    Optional<Payment> findByOrderId(Long orderId);
+
+    // Payment with its order in one statement, for the payment status screen
+    @Query("SELECT p FROM Payment p JOIN FETCH p.order WHERE p.order.id = :orderId")
+    Optional<Payment> findWithOrderByOrderId(@Param("orderId") Long orderId);
+
+    // Payments touched by a batch of webhook events in one query
+    List<Payment> findByStripePaymentIntentIdIn(Collection<String> paymentIntentIds);
 }
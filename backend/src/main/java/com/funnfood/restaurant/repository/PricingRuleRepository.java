@@ -0,0 +1,17 @@
+package com.funnfood.restaurant.repository;
+
+import com.funnfood.restaurant.model.PricingRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PricingRuleRepository extends JpaRepository<PricingRule, Long> {
+    Optional<PricingRule> findByRestaurantId(Long restaurantId);
+
+    @Query("SELECT DISTINCT r FROM PricingRule r JOIN FETCH r.restaurant LEFT JOIN FETCH r.feeBands")
+    List<PricingRule> findAllWithBands();
+}
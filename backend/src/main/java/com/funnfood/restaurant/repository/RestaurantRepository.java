@@ -15,6 +15,12 @@ public interface RestaurantRepository extends JpaRepository<Restaurant, Long> {
 
     List<Restaurant> findByCity(String city);
 
+    /**
+     * (id, latitude, longitude, delivery radius, city) of every restaurant.
+     */
+    @Query("SELECT r.id, r.latitude, r.longitude, r.deliveryRadiusKm, r.city FROM Restaurant r")
+    List<Object[]> findAllLocations();
+
     @Query("SELECT r FROM Restaurant r WHERE r.city = :city AND " +
             "6371 * acos(cos(radians(:latitude)) * cos(radians(r.latitude)) * " +
             "cos(radians(r.longitude) - radians(:longitude)) + " +
@@ -0,0 +1,27 @@
+package com.funnfood.restaurant.repository;
+
+import com.funnfood.restaurant.model.StripeWebhookEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StripeWebhookEventRepository extends JpaRepository<StripeWebhookEvent, Long> {
+    @Query("SELECT e.eventId FROM StripeWebhookEvent e WHERE e.eventId IN :eventIds")
+    List<String> findExistingEventIds(@Param("eventIds") Collection<String> eventIds);
+
+    List<StripeWebhookEvent> findByEventIdIn(Collection<String> eventIds);
+
+    // Events to replay, oldest first; a null status matches every status
+    @Query("SELECT e FROM StripeWebhookEvent e WHERE e.receivedAt >= :from AND e.receivedAt < :to " +
+            "AND (:status IS NULL OR e.status = :status) ORDER BY e.receivedAt, e.id")
+    List<StripeWebhookEvent> findForReplay(
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("status") String status);
+}
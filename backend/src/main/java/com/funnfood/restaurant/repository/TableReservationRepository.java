@@ -10,11 +10,32 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TableReservationRepository extends JpaRepository<TableReservation, Long> {
     List<TableReservation> findByUser(User user);
 
+    Optional<TableReservation> findByTokenNumber(String tokenNumber);
+
+    /**
+     * (reservation id, table id, start time) of every non-cancelled table reservation starting at or after the given time.
+     */
+    @Query("SELECT r.id, r.diningTable.id, r.reservationDateTime FROM TableReservation r " +
+            "WHERE r.diningTable IS NOT NULL AND r.status <> 'CANCELLED' AND r.reservationDateTime >= :from")
+    List<Object[]> findActiveSlotsFrom(@Param("from") LocalDateTime from);
+
+    /**
+     * (table id, start time) of the non-cancelled reservations of a restaurant's tables starting within [from, to].
+     */
+    @Query("SELECT r.diningTable.id, r.reservationDateTime FROM TableReservation r " +
+            "WHERE r.diningTable.diningRoom.restaurant.id = :restaurantId AND r.status <> 'CANCELLED' " +
+            "AND r.reservationDateTime >= :from AND r.reservationDateTime <= :to")
+    List<Object[]> findActiveSlotsByRestaurant(
+            @Param("restaurantId") Long restaurantId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
     @Query("SELECT r FROM TableReservation r WHERE r.diningTable = :table " +
             "AND ((r.reservationDateTime >= :startTime AND r.reservationDateTime <= :endTime) " +
             "OR (r.reservationDateTime <= :startTime AND FUNCTION('DATEADD', HOUR, 2, r.reservationDateTime) >= :startTime)) " +
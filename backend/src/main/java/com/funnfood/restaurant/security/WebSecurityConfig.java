@@ -83,6 +83,7 @@ public class WebSecurityConfig {
                                 .requestMatchers("/api/menu/**").permitAll()
                                 .requestMatchers("/api/menu-categories/**").permitAll()
                                 .requestMatchers("/api/menu-items/**").permitAll()
+                                .requestMatchers("/api/payment/stripe/webhook").permitAll()
                                 .requestMatchers("/error").permitAll()
                                 .anyRequest().authenticated()
                 )
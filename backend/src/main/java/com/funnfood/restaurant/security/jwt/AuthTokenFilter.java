@@ -1,6 +1,8 @@
 package com.funnfood.restaurant.security.jwt;
 
+import com.funnfood.restaurant.security.services.UserDetailsImpl;
 import com.funnfood.restaurant.security.services.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -30,6 +32,16 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private JwtTokenCache tokenCache;
+
+    @Autowired
+    private TokenRevocationRegistry revocationRegistry;
+
+    // When enabled the principal is built from JWT claims instead of loading the user row
+    @Value("${jwt.stateless-principal.enabled:false}")
+    private boolean statelessPrincipal;
+
     @Value("${jwt.header.string}")
     private String headerString;
 
@@ -43,25 +55,20 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-                String authoritiesString = jwtUtils.getAuthoritiesFromJwtToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-                // Use the authorities from the JWT token
-                Collection<? extends GrantedAuthority> authorities =
-                        authoritiesString != null && !authoritiesString.isEmpty() ?
-                                Arrays.stream(authoritiesString.split(","))
-                                        .map(SimpleGrantedAuthority::new)
-                                        .collect(Collectors.toList()) :
-                                userDetails.getAuthorities();
-
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, authorities);
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+            if (jwt != null) {
+                // Repeat requests with the same token skip signature verification and the user lookup
+                JwtTokenCache.CachedToken cached = tokenCache.get(jwt);
+                if (cached == null) {
+                    cached = verifyAndLoad(jwt);
+                }
+
+                if (cached != null && !isRevoked(cached)) {
+                    UsernamePasswordAuthenticationToken authentication =
+                            new UsernamePasswordAuthenticationToken(cached.getUserDetails(), null, cached.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
             }
         } catch (Exception e) {
             logger.error("Cannot set user authentication: {}", e.getMessage());
@@ -70,6 +77,44 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private JwtTokenCache.CachedToken verifyAndLoad(String jwt) {
+        Claims claims = jwtUtils.getVerifiedClaims(jwt);
+        if (claims == null) {
+            return null;
+        }
+
+        String username = claims.getSubject();
+        String authoritiesString = jwtUtils.getAuthoritiesFromClaims(claims);
+
+        UserDetails userDetails = statelessPrincipal ? jwtUtils.getPrincipalFromClaims(claims) : null;
+        if (userDetails == null) {
+            userDetails = userDetailsService.loadUserByUsername(username);
+        }
+
+        // Use the authorities from the JWT token
+        Collection<? extends GrantedAuthority> authorities =
+                authoritiesString != null && !authoritiesString.isEmpty() ?
+                        Arrays.stream(authoritiesString.split(","))
+                                .map(SimpleGrantedAuthority::new)
+                                .collect(Collectors.toList()) :
+                        userDetails.getAuthorities();
+
+        return tokenCache.put(jwt, claims, userDetails, authorities);
+    }
+
+    private boolean isRevoked(JwtTokenCache.CachedToken cached) {
+        Long userId = jwtUtils.getUserIdFromClaims(cached.getClaims());
+        if (userId == null && cached.getUserDetails() instanceof UserDetailsImpl) {
+            userId = ((UserDetailsImpl) cached.getUserDetails()).getId();
+        }
+
+        if (revocationRegistry.isRevoked(userId, jwtUtils.getTokenVersionFromClaims(cached.getClaims()))) {
+            logger.warn("Rejected revoked JWT for user: {}", cached.getUserDetails().getUsername());
+            return true;
+        }
+        return false;
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader(headerString);
 
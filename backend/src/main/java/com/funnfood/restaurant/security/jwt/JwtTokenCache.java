@@ -0,0 +1,220 @@
+package com.funnfood.restaurant.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of already verified bearer tokens.
+ * Entries are keyed by the SHA-256 digest of the token, expire at the token's exp claim
+ * and are evicted least-recently-used first once the cache is full.
+ */
+@Component
+public class JwtTokenCache {
+    private static final Logger logger = LoggerFactory.getLogger(JwtTokenCache.class);
+
+    @Value("${jwt.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${jwt.cache.max-size:10000}")
+    private int maxSize;
+
+    private final Map<String, CachedToken> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Return the cached verification result for the token, or null on a miss or expired entry.
+     */
+    public CachedToken get(String token) {
+        if (!enabled) {
+            return null;
+        }
+
+        String key = digest(token);
+        CachedToken cached = entries.get(key);
+        long now = System.currentTimeMillis();
+
+        if (cached == null) {
+            misses.increment();
+            return null;
+        }
+
+        if (cached.isExpired(now)) {
+            entries.remove(key, cached);
+            evictions.increment();
+            misses.increment();
+            return null;
+        }
+
+        cached.lastAccess = now;
+        hits.increment();
+        return cached;
+    }
+
+    /**
+     * Store a verified token. Tokens without an exp claim are never cached.
+     */
+    public CachedToken put(String token, Claims claims, UserDetails userDetails,
+                           Collection<? extends GrantedAuthority> authorities) {
+        Date expiration = claims.getExpiration();
+        CachedToken cached = new CachedToken(claims, userDetails, authorities,
+                expiration != null ? expiration.getTime() : 0L);
+
+        if (!enabled || expiration == null) {
+            return cached;
+        }
+
+        entries.put(digest(token), cached);
+        if (entries.size() > maxSize) {
+            evictOverflow();
+        }
+        return cached;
+    }
+
+    /**
+     * Drop every cached token of a user, e.g. after their roles or profile changed. Inside a transaction this
+     * happens once it commits, so a request running meanwhile cannot cache the user details from before the change.
+     */
+    public void invalidateUser(String username) {
+        if (username == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictUser(username);
+                }
+            });
+        } else {
+            evictUser(username);
+        }
+    }
+
+    private void evictUser(String username) {
+        entries.values().removeIf(cached -> username.equals(cached.getUserDetails().getUsername()));
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.cache.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        int before = entries.size();
+        entries.values().removeIf(cached -> cached.isExpired(now));
+        int removed = before - entries.size();
+        if (removed > 0) {
+            evictions.add(removed);
+            logger.debug("Purged {} expired tokens from cache", removed);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        stats.put("enabled", enabled);
+        stats.put("size", entries.size());
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+
+    /**
+     * Remove expired entries and then the least recently used tenth of the cache,
+     * so a full cache is not re-scanned on every insert.
+     */
+    private synchronized void evictOverflow() {
+        if (entries.size() <= maxSize) {
+            return;
+        }
+
+        purgeExpired();
+        int excess = entries.size() - maxSize;
+        if (excess <= 0) {
+            return;
+        }
+
+        int toRemove = Math.max(excess, maxSize / 10);
+        List<Map.Entry<String, CachedToken>> snapshot = new ArrayList<>(entries.entrySet());
+        snapshot.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+        for (int i = 0; i < toRemove && i < snapshot.size(); i++) {
+            Map.Entry<String, CachedToken> entry = snapshot.get(i);
+            if (entries.remove(entry.getKey(), entry.getValue())) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public static class CachedToken {
+        private final Claims claims;
+        private final UserDetails userDetails;
+        private final Collection<? extends GrantedAuthority> authorities;
+        private final long expiresAtMillis;
+        private volatile long lastAccess;
+
+        CachedToken(Claims claims, UserDetails userDetails,
+                    Collection<? extends GrantedAuthority> authorities, long expiresAtMillis) {
+            this.claims = claims;
+            this.userDetails = userDetails;
+            this.authorities = authorities;
+            this.expiresAtMillis = expiresAtMillis;
+            this.lastAccess = System.currentTimeMillis();
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAtMillis;
+        }
+
+        public Claims getClaims() {
+            return claims;
+        }
+
+        public UserDetails getUserDetails() {
+            return userDetails;
+        }
+
+        public Collection<? extends GrantedAuthority> getAuthorities() {
+            return authorities;
+        }
+    }
+}
@@ -4,22 +4,37 @@ import com.funnfood.restaurant.security.services.UserDetailsImpl;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.stream.Collectors;
 
 @Component
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    // Claims that let AuthTokenFilter build the principal without a user lookup
+    private static final String USER_ID_KEY = "uid";
+    private static final String EMAIL_KEY = "email";
+    private static final String EMAIL_VERIFIED_KEY = "emailVerified";
+    private static final String TOKEN_VERSION_KEY = "ver";
+
+    @Autowired
+    private TokenRevocationRegistry revocationRegistry;
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
@@ -29,6 +44,19 @@ public class JwtUtils {
     @Value("${jwt.authorities.key}")
     private String authoritiesKey;
 
+    // Built once from jwtSecret; both are thread-safe and reused for every token
+    private SecretKey signingKey;
+
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+
     public String generateJwtToken(Authentication authentication) {
         UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
 
@@ -40,6 +68,10 @@ public class JwtUtils {
         return Jwts.builder()
                 .setSubject(userPrincipal.getUsername())
                 .claim(authoritiesKey, authorities)
+                .claim(USER_ID_KEY, userPrincipal.getId())
+                .claim(EMAIL_KEY, userPrincipal.getEmail())
+                .claim(EMAIL_VERIFIED_KEY, userPrincipal.isEmailVerified())
+                .claim(TOKEN_VERSION_KEY, revocationRegistry.currentVersion(userPrincipal.getId()))
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
                 .signWith(getSigningKey())
@@ -57,35 +89,70 @@ public class JwtUtils {
     }
 
     private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
+        return jwtParser.parseClaimsJws(token)
                 .getBody()
                 .getSubject();
     }
 
     public String getAuthoritiesFromJwtToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .get(authoritiesKey, String.class);
+        return getAuthoritiesFromClaims(jwtParser.parseClaimsJws(token).getBody());
+    }
+
+    public String getAuthoritiesFromClaims(Claims claims) {
+        return claims.get(authoritiesKey, String.class);
+    }
+
+    public Long getUserIdFromClaims(Claims claims) {
+        Number userId = claims.get(USER_ID_KEY, Number.class);
+        return userId != null ? userId.longValue() : null;
+    }
+
+    public Integer getTokenVersionFromClaims(Claims claims) {
+        Number version = claims.get(TOKEN_VERSION_KEY, Number.class);
+        return version != null ? version.intValue() : null;
+    }
+
+    /**
+     * Build a principal from the identity claims embedded by generateJwtToken,
+     * or return null for tokens issued without them.
+     */
+    public UserDetailsImpl getPrincipalFromClaims(Claims claims) {
+        Long userId = getUserIdFromClaims(claims);
+        if (userId == null) {
+            return null;
+        }
+
+        String authoritiesString = getAuthoritiesFromClaims(claims);
+        List<GrantedAuthority> authorities = authoritiesString != null && !authoritiesString.isEmpty() ?
+                Arrays.stream(authoritiesString.split(","))
+                        .map(SimpleGrantedAuthority::new)
+                        .collect(Collectors.toList()) :
+                Collections.emptyList();
+
+        return new UserDetailsImpl(
+                userId,
+                claims.getSubject(),
+                claims.get(EMAIL_KEY, String.class),
+                null,
+                Boolean.TRUE.equals(claims.get(EMAIL_VERIFIED_KEY, Boolean.class)),
+                authorities);
     }
 
     public boolean validateJwtToken(String authToken) {
+        return getVerifiedClaims(authToken) != null;
+    }
+
+    /**
+     * Verify the token signature and expiry once and return its claims,
+     * or null if the token is not valid.
+     */
+    public Claims getVerifiedClaims(String authToken) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(authToken);
-            return true;
+            return jwtParser.parseClaimsJws(authToken).getBody();
         } catch (SignatureException e) {
             logger.error("Invalid JWT signature: {}", e.getMessage());
         } catch (MalformedJwtException e) {
@@ -98,6 +165,6 @@ public class JwtUtils {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
 
-        return false;
+        return null;
     }
 }
@@ -0,0 +1,68 @@
+package com.funnfood.restaurant.security.jwt;
+
+import com.funnfood.restaurant.model.User;
+import com.funnfood.restaurant.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of each user's minimum accepted token version.
+ * Only users whose sessions were ever revoked are held here, so the per-request check is a single map lookup.
+ */
+@Component
+public class TokenRevocationRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationRegistry.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final Map<Long, Integer> minimumVersions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void loadRevocations() {
+        for (User user : userRepository.findByTokenVersionGreaterThan(0)) {
+            minimumVersions.put(user.getId(), user.getTokenVersion());
+        }
+        logger.info("Loaded token revocations for {} users", minimumVersions.size());
+    }
+
+    /**
+     * The version new tokens for this user are issued with.
+     */
+    public int currentVersion(Long userId) {
+        return userId == null ? 0 : minimumVersions.getOrDefault(userId, 0);
+    }
+
+    /**
+     * Reject every token of the user issued with a version below the given one. Inside a transaction this
+     * takes effect once it commits, so a rolled back revocation leaves the registry matching the database.
+     */
+    public void revoke(Long userId, int minimumVersion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    minimumVersions.merge(userId, minimumVersion, Math::max);
+                }
+            });
+        } else {
+            minimumVersions.merge(userId, minimumVersion, Math::max);
+        }
+    }
+
+    public boolean isRevoked(Long userId, Integer tokenVersion) {
+        if (userId == null) {
+            return false;
+        }
+        Integer minimum = minimumVersions.get(userId);
+        return minimum != null && (tokenVersion == null || tokenVersion < minimum);
+    }
+}
@@ -13,6 +13,7 @@ import com.funnfood.restaurant.payload.response.MessageResponse;
 import com.funnfood.restaurant.repository.RoleRepository;
 import com.funnfood.restaurant.repository.UserRepository;
 import com.funnfood.restaurant.repository.VerificationTokenRepository;
+import com.funnfood.restaurant.security.jwt.JwtTokenCache;
 import com.funnfood.restaurant.security.jwt.JwtUtils;
 import com.funnfood.restaurant.security.services.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -50,6 +51,9 @@ public class AuthService {
     @Autowired
     private JwtUtils jwtUtils;
 
+    @Autowired
+    private JwtTokenCache jwtTokenCache;
+
     @Autowired
     private EmailService emailService;
 
@@ -156,6 +160,7 @@ public class AuthService {
         userRepository.save(user);
 
         verificationTokenRepository.delete(verificationToken);
+        jwtTokenCache.invalidateUser(user.getUsername());
 
         return new MessageResponse("Email verified successfully!");
     }
@@ -0,0 +1,307 @@
+package com.funnfood.restaurant.service;
+
+import com.funnfood.restaurant.model.EOrderStatus;
+import com.funnfood.restaurant.model.OrderItem;
+import com.funnfood.restaurant.model.Restaurant;
+import com.funnfood.restaurant.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Delivery time estimates from in-memory kitchen and courier statistics.
+ * <p>
+ * An estimate is the slowest item's preparation time, plus the wait behind the restaurant's open kitchen queue,
+ * plus the travel time: the distance at {@code app.eta.courier-speed-kmh} when the delivery point is known,
+ * otherwise the restaurant's average delivery time. Preparation and travel are scaled by per-restaurant factors
+ * learned from how long past orders actually took, kept as exponentially weighted averages in atomic counters and
+ * updated on status transitions after they commit. Estimating reads no database state beyond the restaurant and
+ * items the caller already holds.
+ * <p>
+ * An order joins the kitchen queue once it is confirmed, paid or being prepared. Until then it is only held as
+ * pending, and pending orders nobody moved on within {@code app.eta.pending-ttl-minutes} are dropped.
+ */
+@Component
+public class DeliveryEtaEstimator {
+    private static final Logger logger = LoggerFactory.getLogger(DeliveryEtaEstimator.class);
+
+    private static final double SMOOTHING = 0.2;
+    private static final double MIN_FACTOR = 0.25;
+    private static final double MAX_FACTOR = 4.0;
+
+    // Statuses in which an order is waiting for or being worked on by the kitchen; PENDING orders may never get there
+    static final List<String> KITCHEN_STATUSES = List.of(
+            EOrderStatus.CONFIRMED.name(), EOrderStatus.PAID.name(), EOrderStatus.PREPARING.name());
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Value("${app.eta.pending-ttl-minutes:120}")
+    private long pendingTtlMinutes = 120;
+
+    private final int defaultPrepMinutes;
+    private final int defaultDeliveryMinutes;
+    private final int kitchenParallelism;
+    private final double courierSpeedKmh;
+    private final int pickupMinutes;
+    private final LongSupplier clock;
+
+    private final Map<Long, RestaurantStats> stats = new ConcurrentHashMap<>();
+    private final Map<Long, OpenOrder> openOrders = new ConcurrentHashMap<>();
+    private final Map<Long, OpenOrder> pendingOrders = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DeliveryEtaEstimator(@Value("${app.eta.default-prep-minutes:15}") int defaultPrepMinutes,
+                                @Value("${app.eta.default-delivery-minutes:25}") int defaultDeliveryMinutes,
+                                @Value("${app.eta.kitchen-parallelism:3}") int kitchenParallelism,
+                                @Value("${app.eta.courier-speed-kmh:25}") double courierSpeedKmh,
+                                @Value("${app.eta.pickup-minutes:5}") int pickupMinutes) {
+        this(defaultPrepMinutes, defaultDeliveryMinutes, kitchenParallelism, courierSpeedKmh, pickupMinutes, System::nanoTime);
+    }
+
+    DeliveryEtaEstimator(int defaultPrepMinutes, int defaultDeliveryMinutes, int kitchenParallelism,
+                         double courierSpeedKmh, int pickupMinutes, LongSupplier clock) {
+        this.defaultPrepMinutes = defaultPrepMinutes;
+        this.defaultDeliveryMinutes = defaultDeliveryMinutes;
+        this.kitchenParallelism = Math.max(1, kitchenParallelism);
+        this.courierSpeedKmh = courierSpeedKmh;
+        this.pickupMinutes = pickupMinutes;
+        this.clock = clock;
+    }
+
+    /**
+     * Seed the kitchen queues with the orders that were open when the application started, and hold the orders
+     * still pending then so that confirming them later brings them into the kitchen. Their pending time to live
+     * counts from startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long now = clock.getAsLong();
+        List<Object[]> rows = orderRepository.findOpenOrderRestaurants(KITCHEN_STATUSES);
+        for (Object[] row : rows) {
+            track((Long) row[0], new OpenOrder((Long) row[1], 0, 0, now));
+        }
+        List<Object[]> pendingRows = orderRepository.findOpenOrderRestaurants(List.of(EOrderStatus.PENDING.name()));
+        for (Object[] row : pendingRows) {
+            pendingOrders.putIfAbsent((Long) row[0], new OpenOrder((Long) row[1], 0, 0, now));
+        }
+        logger.info("Loaded {} open and {} pending orders into the delivery estimator", rows.size(), pendingRows.size());
+    }
+
+    /**
+     * Estimate how long a new order will take to arrive.
+     */
+    public Estimate estimate(Restaurant restaurant, Collection<OrderItem> items, Double latitude, Double longitude) {
+        RestaurantStats restaurantStats = statsFor(restaurant.getId());
+
+        double prepMinutes = 0;
+        for (OrderItem item : items) {
+            Integer itemMinutes = item.getMenuItem().getPreparationTimeMinutes();
+            prepMinutes = Math.max(prepMinutes, itemMinutes != null && itemMinutes > 0 ? itemMinutes : defaultPrepMinutes);
+        }
+
+        double travelMinutes;
+        if (latitude != null && longitude != null && courierSpeedKmh > 0) {
+            double distanceKm = RestaurantGeoIndex.distanceKm(restaurant.getLatitude(), restaurant.getLongitude(), latitude, longitude);
+            travelMinutes = pickupMinutes + distanceKm / courierSpeedKmh * 60.0;
+        } else {
+            travelMinutes = restaurant.getAvgDeliveryTimeMin() > 0 ? restaurant.getAvgDeliveryTimeMin() : defaultDeliveryMinutes;
+        }
+
+        double queueMinutes = (double) restaurantStats.kitchenQueue.get() / kitchenParallelism * restaurantStats.kitchenMinutes.get();
+        double total = prepMinutes * restaurantStats.prepFactor.get()
+                + queueMinutes
+                + travelMinutes * restaurantStats.deliveryFactor.get();
+        return new Estimate((int) Math.ceil(total), prepMinutes, travelMinutes);
+    }
+
+    /**
+     * Hold a placed order as pending once the surrounding transaction commits.
+     */
+    public void orderPlaced(Long orderId, Long restaurantId, Estimate estimate) {
+        afterCommit(() -> pendingOrders.put(orderId,
+                new OpenOrder(restaurantId, estimate.prepMinutes(), estimate.travelMinutes(), clock.getAsLong())));
+    }
+
+    /**
+     * Apply a committed status transition to the queue and, when a stage finishes, to the learned factors.
+     */
+    public void statusChanged(Long orderId, EOrderStatus status) {
+        afterCommit(() -> apply(orderId, status));
+    }
+
+    /**
+     * Forget pending orders that were neither confirmed nor cancelled in time.
+     */
+    @Scheduled(fixedDelayString = "${app.eta.pending-purge-interval-ms:300000}")
+    public void expirePending() {
+        long cutoff = clock.getAsLong() - TimeUnit.MINUTES.toNanos(pendingTtlMinutes);
+        pendingOrders.values().removeIf(order -> order.placedAt - cutoff < 0);
+    }
+
+    int kitchenQueue(Long restaurantId) {
+        RestaurantStats restaurantStats = stats.get(restaurantId);
+        return restaurantStats != null ? restaurantStats.kitchenQueue.get() : 0;
+    }
+
+    private void track(Long orderId, OpenOrder order) {
+        if (openOrders.putIfAbsent(orderId, order) == null) {
+            statsFor(order.restaurantId).kitchenQueue.incrementAndGet();
+        }
+    }
+
+    private void apply(Long orderId, EOrderStatus status) {
+        // Leaving PENDING either brings the order into the kitchen or cancels it
+        OpenOrder pending = pendingOrders.remove(orderId);
+        if (pending != null && KITCHEN_STATUSES.contains(status.name())) {
+            track(orderId, pending);
+        }
+
+        OpenOrder order = openOrders.get(orderId);
+        if (order == null) {
+            return;
+        }
+        RestaurantStats restaurantStats = statsFor(order.restaurantId);
+        long now = clock.getAsLong();
+
+        switch (status) {
+            case PREPARING -> order.preparingSince = now;
+            case READY, OUT_FOR_DELIVERY, DELIVERED -> {
+                if (leaveKitchen(order, restaurantStats) && order.preparingSince != 0) {
+                    double actual = minutesBetween(order.preparingSince, now);
+                    restaurantStats.kitchenMinutes.add(actual);
+                    if (order.prepMinutes > 0) {
+                        restaurantStats.prepFactor.add(clampFactor(actual / order.prepMinutes));
+                    }
+                }
+                if (status == EOrderStatus.OUT_FOR_DELIVERY) {
+                    order.dispatchedAt = now;
+                } else if (status == EOrderStatus.DELIVERED) {
+                    if (order.dispatchedAt != 0 && order.travelMinutes > 0) {
+                        restaurantStats.deliveryFactor.add(clampFactor(minutesBetween(order.dispatchedAt, now) / order.travelMinutes));
+                    }
+                    openOrders.remove(orderId);
+                }
+            }
+            case CANCELLED, REFUNDED -> {
+                leaveKitchen(order, restaurantStats);
+                openOrders.remove(orderId);
+            }
+            default -> {
+            }
+        }
+    }
+
+    private static boolean leaveKitchen(OpenOrder order, RestaurantStats restaurantStats) {
+        if (order.inKitchen.compareAndSet(true, false)) {
+            restaurantStats.kitchenQueue.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private RestaurantStats statsFor(Long restaurantId) {
+        RestaurantStats restaurantStats = stats.get(restaurantId);
+        return restaurantStats != null ? restaurantStats
+                : stats.computeIfAbsent(restaurantId, id -> new RestaurantStats(defaultPrepMinutes));
+    }
+
+    private static double minutesBetween(long startNanos, long endNanos) {
+        return (double) (endNanos - startNanos) / TimeUnit.MINUTES.toNanos(1);
+    }
+
+    private static double clampFactor(double factor) {
+        return Math.max(MIN_FACTOR, Math.min(MAX_FACTOR, factor));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Estimated total minutes, with the unscaled preparation and travel parts kept to calibrate against.
+     */
+    public record Estimate(int totalMinutes, double prepMinutes, double travelMinutes) {
+    }
+
+    private static final class RestaurantStats {
+        private final AtomicInteger kitchenQueue = new AtomicInteger();
+        // Observed minutes from PREPARING to READY
+        private final MovingAverage kitchenMinutes;
+        // Observed over estimated minutes for preparation and for delivery
+        private final MovingAverage prepFactor = new MovingAverage(1.0);
+        private final MovingAverage deliveryFactor = new MovingAverage(1.0);
+
+        private RestaurantStats(double kitchenMinutes) {
+            this.kitchenMinutes = new MovingAverage(kitchenMinutes);
+        }
+    }
+
+    private static final class OpenOrder {
+        private final Long restaurantId;
+        private final double prepMinutes;
+        private final double travelMinutes;
+        private final long placedAt;
+        private final AtomicBoolean inKitchen = new AtomicBoolean(true);
+        private volatile long preparingSince;
+        private volatile long dispatchedAt;
+
+        private OpenOrder(Long restaurantId, double prepMinutes, double travelMinutes, long placedAt) {
+            this.restaurantId = restaurantId;
+            this.prepMinutes = prepMinutes;
+            this.travelMinutes = travelMinutes;
+            this.placedAt = placedAt;
+        }
+    }
+
+    /**
+     * Exponentially weighted moving average stored as the bits of a double and updated by compare-and-set.
+     */
+    private static final class MovingAverage {
+        private final AtomicLong bits;
+
+        private MovingAverage(double initial) {
+            this.bits = new AtomicLong(Double.doubleToRawLongBits(initial));
+        }
+
+        private double get() {
+            return Double.longBitsToDouble(bits.get());
+        }
+
+        private void add(double sample) {
+            long current;
+            long next;
+            do {
+                current = bits.get();
+                double average = Double.longBitsToDouble(current);
+                next = Double.doubleToRawLongBits(average + SMOOTHING * (sample - average));
+            } while (!bits.compareAndSet(current, next));
+        }
+    }
+}
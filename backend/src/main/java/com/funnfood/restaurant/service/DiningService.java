@@ -4,6 +4,7 @@ import com.funnfood.restaurant.exception.BadRequestException;
 import com.funnfood.restaurant.exception.ResourceNotFoundException;
 import com.funnfood.restaurant.model.*;
 import com.funnfood.restaurant.payload.request.TableReservationRequest;
+import com.funnfood.restaurant.payload.response.AvailabilityGridResponse;
 import com.funnfood.restaurant.payload.response.DiningRoomResponse;
 import com.funnfood.restaurant.payload.response.DiningTableResponse;
 import com.funnfood.restaurant.payload.response.TableReservationResponse;
@@ -11,19 +12,30 @@ import com.funnfood.restaurant.repository.DiningRoomRepository;
 import com.funnfood.restaurant.repository.DiningTableRepository;
 import com.funnfood.restaurant.repository.RestaurantRepository;
 import com.funnfood.restaurant.repository.TableReservationRepository;
+import com.funnfood.restaurant.util.TokenNumberGenerator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class DiningService {
 
+    public static final int GRID_SLOT_MINUTES = 15;
+
     @Autowired
     private RestaurantRepository restaurantRepository;
 
@@ -39,6 +51,18 @@ public class DiningService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private TokenNumberGenerator tokenNumberGenerator;
+
+    @Autowired
+    private TableAvailabilityIndex tableAvailabilityIndex;
+
+    @Autowired
+    private TableBookingGuard tableBookingGuard;
+
+    @Value("${app.reservations.grid.max-days:14}")
+    private int maxGridDays;
+
     public List<DiningRoomResponse> getDiningRoomsByRestaurantId(Long restaurantId) {
         Restaurant restaurant = restaurantRepository.findById(restaurantId)
                 .orElseThrow(() -> new ResourceNotFoundException("Restaurant", "id", restaurantId));
@@ -66,11 +90,78 @@ public class DiningService {
         LocalDateTime startTime = dateTime.minusHours(1);
         LocalDateTime endTime = dateTime.plusHours(1);
 
-        return diningTableRepository.findAvailableTables(diningRoom, numberOfGuests, startTime, endTime).stream()
+        if (!tableAvailabilityIndex.covers(startTime)) {
+            return diningTableRepository.findAvailableTables(diningRoom, numberOfGuests, startTime, endTime).stream()
+                    .map(this::mapToDiningTableResponse)
+                    .collect(Collectors.toList());
+        }
+
+        return diningTableRepository.findByDiningRoom(diningRoom).stream()
+                .filter(table -> table.getCapacity() >= numberOfGuests)
+                .filter(table -> tableAvailabilityIndex.isAvailable(table.getId(), startTime, endTime))
                 .map(this::mapToDiningTableResponse)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Availability of every table of a restaurant in 15-minute slots over {@code days} days starting at {@code from}.
+     * A slot is available when a booking at its start time passes the same conflict check as
+     * {@link #getAvailableTables}: no reservation between three hours before and one hour after it.
+     * Built from one range query and a sweep that clears each reservation's blocked slots from the table's bitset.
+     */
+    @Transactional(readOnly = true)
+    public AvailabilityGridResponse getAvailabilityGrid(Long restaurantId, LocalDate from, int days, Integer guests) {
+        if (days < 1 || days > maxGridDays) {
+            throw new BadRequestException("The number of days must be between 1 and " + maxGridDays);
+        }
+        if (!restaurantRepository.existsById(restaurantId)) {
+            throw new ResourceNotFoundException("Restaurant", "id", restaurantId);
+        }
+
+        LocalDateTime start = from.atStartOfDay();
+        int slotCount = days * 24 * 60 / GRID_SLOT_MINUTES;
+        long slotSeconds = GRID_SLOT_MINUTES * 60L;
+        LocalDateTime lastSlot = start.plusMinutes((long) (slotCount - 1) * GRID_SLOT_MINUTES);
+
+        List<DiningTable> tables = diningTableRepository.findByRestaurantIdAndMinCapacity(
+                restaurantId, guests != null ? guests : 0);
+        Map<Long, BitSet> grid = new LinkedHashMap<>();
+        for (DiningTable table : tables) {
+            BitSet slots = new BitSet(slotCount);
+            slots.set(0, slotCount);
+            grid.put(table.getId(), slots);
+        }
+
+        // A reservation at r blocks bookings starting anywhere in [r - 1h, r + 1h + reservation duration]
+        int blockedAfterHours = 1 + TableAvailabilityIndex.RESERVATION_DURATION_HOURS;
+        List<Object[]> reservations = tableReservationRepository.findActiveSlotsByRestaurant(
+                restaurantId, start.minusHours(blockedAfterHours), lastSlot.plusHours(1));
+        for (Object[] row : reservations) {
+            BitSet slots = grid.get((Long) row[0]);
+            if (slots == null) {
+                continue;
+            }
+            LocalDateTime reservedAt = (LocalDateTime) row[1];
+            long blockedFrom = Duration.between(start, reservedAt.minusHours(1)).getSeconds();
+            long blockedTo = Duration.between(start, reservedAt.plusHours(blockedAfterHours)).getSeconds();
+            int firstSlot = (int) Math.max(0, -Math.floorDiv(-blockedFrom, slotSeconds));
+            int lastSlotIndex = (int) Math.min(slotCount - 1, Math.floorDiv(blockedTo, slotSeconds));
+            if (firstSlot <= lastSlotIndex) {
+                slots.clear(firstSlot, lastSlotIndex + 1);
+            }
+        }
+
+        int bytes = (slotCount + 7) / 8;
+        List<AvailabilityGridResponse.TableSlots> rows = new ArrayList<>(tables.size());
+        for (DiningTable table : tables) {
+            byte[] bits = Arrays.copyOf(grid.get(table.getId()).toByteArray(), bytes);
+            rows.add(new AvailabilityGridResponse.TableSlots(table.getId(), table.getTableNumber(), table.getCapacity(),
+                    table.getDiningRoom().getId(), Base64.getEncoder().encodeToString(bits)));
+        }
+
+        return new AvailabilityGridResponse(restaurantId, start, GRID_SLOT_MINUTES, slotCount, rows);
+    }
+
     @Transactional
     public TableReservationResponse reserveTable(User user, TableReservationRequest request) {
         // Validate reservation time (6 hours in advance for current date, up to 1 month for future dates)
@@ -106,18 +197,28 @@ public class DiningService {
                 .orElseThrow(() -> new ResourceNotFoundException("Restaurant", "id", restaurantId));
         diningRoom.setRestaurant(restaurant);
 
+        // Check for conflicting reservations, holding the table until this booking commits
+        LocalDateTime startTime = request.getReservationDateTime().minusHours(1);
+        LocalDateTime endTime = request.getReservationDateTime().plusHours(1);
+        tableBookingGuard.lockTable(table.getId());
+
+        if (tableBookingGuard.hasConflict(table, startTime, endTime, null)) {
+            throw new BadRequestException("Table is already reserved at this time");
+        }
+
         // Create and save the reservation
         TableReservation reservation = new TableReservation();
         reservation.setDiningTable(table);
         reservation.setUser(user);
         reservation.setReservationDateTime(request.getReservationDateTime());
         reservation.setNumberOfGuests(request.getNumberOfGuests());
-        reservation.setTokenNumber(generateReservationToken());
+        reservation.setTokenNumber(tokenNumberGenerator.nextReservationToken());
         reservation.setStatus("CONFIRMED");
         reservation.setSpecialRequests(request.getSpecialRequests());
         reservation.setCreatedAt(LocalDateTime.now());
 
         TableReservation savedReservation = tableReservationRepository.save(reservation);
+        tableAvailabilityIndex.reservationSaved(savedReservation);
 
         // Send confirmation email
         sendReservationConfirmationEmail(user, savedReservation, restaurant);
@@ -160,6 +261,7 @@ public class DiningService {
 
         reservation.setStatus("CANCELLED");
         TableReservation updatedReservation = tableReservationRepository.save(reservation);
+        tableAvailabilityIndex.reservationSaved(updatedReservation);
 
         return mapToTableReservationResponse(updatedReservation);
     }
@@ -180,19 +282,6 @@ public class DiningService {
         }
     }
 
-    private String generateReservationToken() {
-        // Generate a unique 6-character alphanumeric token
-        String characters = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-        StringBuilder token = new StringBuilder();
-        Random random = new Random();
-
-        for (int i = 0; i < 6; i++) {
-            token.append(characters.charAt(random.nextInt(characters.length())));
-        }
-
-        return "RES-" + token.toString();
-    }
-
     private void sendReservationConfirmationEmail(User user, TableReservation reservation, Restaurant restaurant) {
         String name = user.getUsername();
         String restaurantName = restaurant.getName();
@@ -0,0 +1,247 @@
+package com.funnfood.restaurant.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.funnfood.restaurant.model.EmailOutbox;
+import com.funnfood.restaurant.repository.EmailOutboxRepository;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sends queued emails from the outbox table off the request path.
+ * <p>
+ * A poll claims a batch of due rows, splits it into one chunk per worker and each worker sends its chunk
+ * over a single SMTP connection. Failed sends are retried with exponential backoff until
+ * {@code app.email.outbox.max-attempts} is reached, after which the row is marked FAILED.
+ */
+@Service
+public class EmailOutboxDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    private static final TypeReference<Map<String, Object>> VARIABLES_TYPE = new TypeReference<>() {};
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private JavaMailSender emailSender;
+
+    @Autowired
+    private EmailTemplateRenderer emailTemplateRenderer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("emailOutboxPoller")
+    private ThreadPoolTaskExecutor poller;
+
+    @Autowired
+    @Qualifier("emailSendExecutor")
+    private ThreadPoolTaskExecutor sendExecutor;
+
+    @Value("${app.email.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.email.outbox.workers:4}")
+    private int workers;
+
+    @Value("${app.email.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.email.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.email.outbox.backoff-initial-ms:30000}")
+    private long initialBackoffMs;
+
+    @Value("${app.email.outbox.backoff-max-ms:3600000}")
+    private long maxBackoffMs;
+
+    @Value("${app.email.outbox.lease-ms:300000}")
+    private long leaseMs;
+
+    @Value("${app.email.outbox.retention-days:7}")
+    private int retentionDays;
+
+    private final ReentrantLock dispatchLock = new ReentrantLock();
+    private final AtomicBoolean rerun = new AtomicBoolean();
+
+    /**
+     * Ask for a dispatch pass soon. Never blocks the caller.
+     */
+    public void wakeUp() {
+        if (enabled) {
+            poller.execute(this::dispatchDue);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.email.outbox.poll-interval-ms:5000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    @Scheduled(cron = "${app.email.outbox.cleanup-cron:0 30 3 * * *}")
+    public void deleteSentEmails() {
+        int deleted = emailOutboxRepository.deleteSentBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (deleted > 0) {
+            logger.info("Deleted {} sent emails from the outbox", deleted);
+        }
+    }
+
+    /**
+     * Send every due email. Concurrent calls collapse into one extra pass of the running dispatcher.
+     */
+    public void dispatchDue() {
+        if (!dispatchLock.tryLock()) {
+            rerun.set(true);
+            return;
+        }
+        try {
+            do {
+                rerun.set(false);
+                while (dispatchBatch() == batchSize) {
+                    // A full batch means more rows are probably waiting
+                }
+            } while (rerun.get());
+        } catch (RuntimeException e) {
+            logger.error("Email outbox dispatch failed", e);
+        } finally {
+            dispatchLock.unlock();
+        }
+    }
+
+    private int dispatchBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> dueIds = emailOutboxRepository.findDueIds(now, PageRequest.of(0, batchSize));
+        if (dueIds.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime leaseUntil = now.plusNanos(leaseMs * 1_000_000);
+        List<Long> claimed = new ArrayList<>(dueIds.size());
+        for (Long id : dueIds) {
+            if (emailOutboxRepository.claim(id, now, leaseUntil) == 1) {
+                claimed.add(id);
+            }
+        }
+
+        List<EmailOutbox> emails = emailOutboxRepository.findAllById(claimed);
+        int chunkSize = Math.max(1, (emails.size() + workers - 1) / workers);
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < emails.size(); from += chunkSize) {
+            List<EmailOutbox> chunk = emails.subList(from, Math.min(from + chunkSize, emails.size()));
+            chunks.add(CompletableFuture.runAsync(() -> sendChunk(chunk), sendExecutor));
+        }
+        CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).join();
+
+        return dueIds.size();
+    }
+
+    /**
+     * Send a chunk over one SMTP connection and record the outcome of every email in it.
+     */
+    void sendChunk(List<EmailOutbox> chunk) {
+        Map<MimeMessage, EmailOutbox> messages = new IdentityHashMap<>();
+        for (EmailOutbox email : chunk) {
+            try {
+                messages.put(buildMessage(email), email);
+            } catch (MessagingException | RuntimeException e) {
+                recordFailure(email, e);
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        Map<Object, Exception> failures = new IdentityHashMap<>();
+        try {
+            emailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            failures.putAll(e.getFailedMessages());
+            if (failures.isEmpty()) {
+                messages.keySet().forEach(message -> failures.put(message, e));
+            }
+        } catch (MailException e) {
+            messages.keySet().forEach(message -> failures.put(message, e));
+        }
+
+        List<Long> sent = new ArrayList<>();
+        messages.forEach((message, email) -> {
+            Exception failure = failures.get(message);
+            if (failure == null) {
+                sent.add(email.getId());
+            } else {
+                recordFailure(email, failure);
+            }
+        });
+        if (!sent.isEmpty()) {
+            emailOutboxRepository.markSent(sent, LocalDateTime.now());
+        }
+    }
+
+    private MimeMessage buildMessage(EmailOutbox email) throws MessagingException {
+        MimeMessage message = emailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+
+        helper.setTo(email.getRecipient());
+        helper.setSubject(email.getSubject());
+
+        String htmlContent = emailTemplateRenderer.render(email.getTemplate(), readVariables(email.getVariables()));
+        helper.setText(htmlContent, true);
+        return message;
+    }
+
+    private Map<String, Object> readVariables(String json) throws MessagingException {
+        try {
+            return objectMapper.readValue(json, VARIABLES_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new MessagingException("Stored email variables are not valid JSON", e);
+        }
+    }
+
+    private void recordFailure(EmailOutbox email, Exception error) {
+        int attempts = email.getAttempts() + 1;
+        String message = error.getMessage() == null ? error.getClass().getSimpleName() : error.getMessage();
+        if (message.length() > 1000) {
+            message = message.substring(0, 1000);
+        }
+
+        if (attempts >= maxAttempts) {
+            logger.error("Giving up on email {} to {} after {} attempts: {}",
+                    email.getId(), email.getRecipient(), attempts, message);
+            emailOutboxRepository.markAttemptFailed(email.getId(), EmailOutbox.STATUS_FAILED, attempts,
+                    LocalDateTime.now(), message);
+            return;
+        }
+
+        long backoffMs = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempts - 1, 20));
+        logger.warn("Failed to send email {} (attempt {}), retrying in {} ms: {}",
+                email.getId(), attempts, backoffMs, message);
+        emailOutboxRepository.markAttemptFailed(email.getId(), EmailOutbox.STATUS_PENDING, attempts,
+                LocalDateTime.now().plusNanos(backoffMs * 1_000_000), message);
+    }
+}
@@ -1,13 +1,14 @@
 package com.funnfood.restaurant.service;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.funnfood.restaurant.model.EmailOutbox;
+import com.funnfood.restaurant.repository.EmailOutboxRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.context.Context;
-import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -16,62 +17,63 @@ import java.util.Map;
 public class EmailService {
 
     @Autowired
-    private JavaMailSender emailSender;
+    private EmailOutboxRepository emailOutboxRepository;
 
     @Autowired
-    private SpringTemplateEngine templateEngine;
+    private EmailOutboxDispatcher emailOutboxDispatcher;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Queue a reservation confirmation. The email is sent in the background after the
+     * surrounding transaction commits, and is dropped together with it on rollback.
+     */
+    @Transactional
     public void sendReservationConfirmation(
             String to, String name, String restaurant,
             String date, String time, int guests, String token) {
 
-        try {
-            MimeMessage message = emailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setTo(to);
-            helper.setSubject("Your Reservation Confirmation");
-
-            Context context = new Context();
-            Map<String, Object> variables = new HashMap<>();
-            variables.put("name", name);
-            variables.put("restaurant", restaurant);
-            variables.put("date", date);
-            variables.put("time", time);
-            variables.put("guests", guests);
-            variables.put("token", token);
-            context.setVariables(variables);
-
-            String htmlContent = templateEngine.process("reservation-confirmation", context);
-            helper.setText(htmlContent, true);
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("name", name);
+        variables.put("restaurant", restaurant);
+        variables.put("date", date);
+        variables.put("time", time);
+        variables.put("guests", guests);
+        variables.put("token", token);
 
-            emailSender.send(message);
-        } catch (MessagingException e) {
-            // Log the error but don't throw exception to prevent reservation process from failing
-            System.err.println("Failed to send email: " + e.getMessage());
-        }
+        enqueue(to, "Your Reservation Confirmation", EmailTemplateRenderer.RESERVATION_CONFIRMATION, variables);
     }
 
+    /**
+     * Queue an email verification message, sent in the background after commit.
+     */
+    @Transactional
     public void sendVerificationEmail(String to, String name, String verificationUrl) {
-        try {
-            MimeMessage message = emailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("name", name);
+        variables.put("verificationUrl", verificationUrl);
 
-            helper.setTo(to);
-            helper.setSubject("Fun N Food Restaurant - Email Verification");
+        enqueue(to, "Fun N Food Restaurant - Email Verification", EmailTemplateRenderer.EMAIL_VERIFICATION, variables);
+    }
 
-            Context context = new Context();
-            Map<String, Object> variables = new HashMap<>();
-            variables.put("name", name);
-            variables.put("verificationUrl", verificationUrl);
-            context.setVariables(variables);
+    private void enqueue(String to, String subject, String template, Map<String, Object> variables) {
+        emailOutboxRepository.save(new EmailOutbox(to, subject, template, writeVariables(variables)));
 
-            String htmlContent = templateEngine.process("email-verification", context);
-            helper.setText(htmlContent, true);
+        // Wake the dispatcher only once the outbox row is visible to it
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                emailOutboxDispatcher.wakeUp();
+            }
+        });
+    }
 
-            emailSender.send(message);
-        } catch (MessagingException e) {
-            System.err.println("Failed to send verification email: " + e.getMessage());
+    private String writeVariables(Map<String, Object> variables) {
+        try {
+            return objectMapper.writeValueAsString(variables);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Email variables are not serializable", e);
         }
     }
 }
@@ -0,0 +1,85 @@
+package com.funnfood.restaurant.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders the email templates with a dedicated, always-caching Thymeleaf engine.
+ * <p>
+ * The web engine may run with {@code spring.thymeleaf.cache=false} for development, which would make
+ * every email re-read and re-parse its HTML. Here the templates are parsed once at startup, expressions
+ * are compiled by the SpEL compiler and each thread reuses its own context and output buffer.
+ */
+@Component
+public class EmailTemplateRenderer {
+    private static final Logger logger = LoggerFactory.getLogger(EmailTemplateRenderer.class);
+
+    public static final String RESERVATION_CONFIRMATION = "reservation-confirmation";
+    public static final String EMAIL_VERIFICATION = "email-verification";
+
+    private static final List<String> TEMPLATES = List.of(RESERVATION_CONFIRMATION, EMAIL_VERIFICATION);
+
+    // Buffers that grew past this are dropped instead of being kept per thread
+    private static final int MAX_RETAINED_BUFFER = 256 * 1024;
+
+    private final SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+
+    private final ThreadLocal<StringWriter> buffers = ThreadLocal.withInitial(() -> new StringWriter(16 * 1024));
+    private final ThreadLocal<Context> contexts = ThreadLocal.withInitial(Context::new);
+
+    public EmailTemplateRenderer() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        resolver.setCacheable(true);
+        templateEngine.setTemplateResolver(resolver);
+        // Compile template expressions to bytecode instead of interpreting them on every render
+        templateEngine.setEnableSpringELCompiler(true);
+    }
+
+    /**
+     * Parse every email template once so the first emails after startup do not pay for it.
+     */
+    @PostConstruct
+    public void precompile() {
+        for (String template : TEMPLATES) {
+            templateEngine.process(template, new Context(), Writer.nullWriter());
+        }
+        logger.info("Precompiled {} email templates", TEMPLATES.size());
+    }
+
+    public String render(String template, Map<String, Object> variables) {
+        Context context = contexts.get();
+        StringWriter buffer = buffers.get();
+        try {
+            context.setVariables(variables);
+            templateEngine.process(template, context, buffer);
+            return buffer.toString();
+        } finally {
+            context.clearVariables();
+            if (buffer.getBuffer().capacity() > MAX_RETAINED_BUFFER) {
+                buffers.remove();
+            } else {
+                buffer.getBuffer().setLength(0);
+            }
+        }
+    }
+
+    SpringTemplateEngine templateEngine() {
+        return templateEngine;
+    }
+}
@@ -0,0 +1,197 @@
+package com.funnfood.restaurant.service;
+
+import com.funnfood.restaurant.exception.BadRequestException;
+import com.funnfood.restaurant.exception.IdempotencyConflictException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Results of requests sent with an {@code Idempotency-Key} header, kept for {@code app.idempotency.ttl-ms}.
+ * <p>
+ * The first request with a key runs; a retry with the same key and request gets the stored result back without
+ * running again, and a concurrent duplicate waits for the first one instead of running alongside it. Reusing a
+ * key for a different request is a conflict. Failures are not stored, so a failed request can be retried with
+ * the same key. Once the store is full, the entries closest to expiry are evicted first.
+ */
+@Component
+public class IdempotencyStore {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final long ttlMillis;
+    private final int maxSize;
+    private final long waitTimeoutMillis;
+    private final LongSupplier clock;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder replays = new LongAdder();
+
+    @Autowired
+    public IdempotencyStore(@Value("${app.idempotency.ttl-ms:86400000}") long ttlMillis,
+                            @Value("${app.idempotency.max-size:100000}") int maxSize,
+                            @Value("${app.idempotency.wait-timeout-ms:10000}") long waitTimeoutMillis) {
+        this(ttlMillis, maxSize, waitTimeoutMillis, System::currentTimeMillis);
+    }
+
+    IdempotencyStore(long ttlMillis, int maxSize, long waitTimeoutMillis, LongSupplier clock) {
+        this.ttlMillis = ttlMillis;
+        this.maxSize = maxSize;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Run the action once per key. The key should already be scoped to the caller and endpoint;
+     * the fingerprint identifies the request body so a reused key with different content is rejected.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Result<T> execute(String key, String fingerprint, Supplier<T> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException(KEY_HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        Entry entry = new Entry(fingerprint);
+        Entry existing = entries.putIfAbsent(key, entry);
+        while (existing != null && existing.isExpired(clock.getAsLong())) {
+            entries.remove(key, existing);
+            existing = entries.putIfAbsent(key, entry);
+        }
+
+        if (existing == null) {
+            return new Result<>(run(key, entry, action), false);
+        }
+
+        if (!existing.fingerprint.equals(fingerprint)) {
+            throw new IdempotencyConflictException("This idempotency key was already used for a different request");
+        }
+        replays.increment();
+        return new Result<>((T) await(existing), true);
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = clock.getAsLong();
+        int before = entries.size();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        int removed = before - entries.size();
+        if (removed > 0) {
+            logger.debug("Purged {} expired idempotency keys", removed);
+        }
+    }
+
+    public long getExecutionCount() {
+        return executions.sum();
+    }
+
+    public long getReplayCount() {
+        return replays.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private <T> T run(String key, Entry entry, Supplier<T> action) {
+        executions.increment();
+        T value;
+        try {
+            value = action.get();
+        } catch (RuntimeException e) {
+            entries.remove(key, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+
+        entry.expiresAtMillis = clock.getAsLong() + ttlMillis;
+        entry.result.complete(value);
+        if (entries.size() > maxSize) {
+            evictOverflow();
+        }
+        return value;
+    }
+
+    private Object await(Entry entry) {
+        try {
+            return entry.result.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // The duplicate fails the same way as the request it waited for
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException("A request with this idempotency key is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException("A request with this idempotency key is still being processed");
+        }
+    }
+
+    /**
+     * Remove expired entries and then the completed tenth of the store closest to expiry,
+     * so a full store is not re-scanned on every insert.
+     */
+    private synchronized void evictOverflow() {
+        if (entries.size() <= maxSize) {
+            return;
+        }
+
+        purgeExpired();
+        int excess = entries.size() - maxSize;
+        if (excess <= 0) {
+            return;
+        }
+
+        int toRemove = Math.max(excess, maxSize / 10);
+        List<Map.Entry<String, Entry>> snapshot = new ArrayList<>(entries.entrySet());
+        snapshot.removeIf(e -> !e.getValue().result.isDone());
+        snapshot.sort(Comparator.comparingLong(e -> e.getValue().expiresAtMillis));
+        for (int i = 0; i < toRemove && i < snapshot.size(); i++) {
+            entries.remove(snapshot.get(i).getKey(), snapshot.get(i).getValue());
+        }
+    }
+
+    /**
+     * The stored or freshly computed value, and whether it was replayed.
+     */
+    public record Result<T>(T value, boolean replayed) {
+    }
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        // In-flight entries never expire
+        private volatile long expiresAtMillis = Long.MAX_VALUE;
+
+        private Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.funnfood.restaurant.service;
+
+import com.funnfood.restaurant.payload.response.MenuCategoryResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of the fully built menu catalog (categories with their available items).
+ * <p>
+ * Every menu write calls {@link #invalidate()}, which drops the catalog when the write's transaction commits.
+ * Each load remembers the generation it started in and is only installed if no invalidation happened meanwhile,
+ * so a load that read the database before a write committed can never be served after it.
+ */
+@Component
+public class MenuCatalogCache {
+
+    @Value("${app.menu.cache.enabled:true}")
+    private boolean enabled;
+
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicReference<Catalog> catalog = new AtomicReference<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder discardedLoads = new LongAdder();
+
+    public Catalog get(Supplier<List<MenuCategoryResponse>> loader) {
+        Catalog cached = catalog.get();
+        if (enabled && cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        long startedIn = generation.get();
+        Catalog loaded = new Catalog(startedIn, loader.get());
+        if (!enabled || !install(loaded)) {
+            discardedLoads.increment();
+        }
+        return loaded;
+    }
+
+    /**
+     * Drop the catalog after the current transaction commits, or right away outside of one.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict();
+                }
+            });
+        } else {
+            evict();
+        }
+    }
+
+    /**
+     * Counter bumped by every committed menu write.
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        Catalog cached = catalog.get();
+        stats.put("enabled", enabled);
+        stats.put("cached", cached != null);
+        stats.put("categories", cached != null ? cached.getCategories().size() : 0);
+        stats.put("generation", generation.get());
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("invalidations", invalidations.sum());
+        stats.put("discardedLoads", discardedLoads.sum());
+        return stats;
+    }
+
+    private synchronized boolean install(Catalog loaded) {
+        if (generation.get() != loaded.getGeneration()) {
+            return false;
+        }
+        catalog.set(loaded);
+        return true;
+    }
+
+    private synchronized void evict() {
+        generation.incrementAndGet();
+        catalog.set(null);
+        invalidations.increment();
+    }
+
+    public static class Catalog {
+        private final long generation;
+        private final List<MenuCategoryResponse> categories;
+        private final Map<Long, MenuCategoryResponse> categoriesById;
+
+        Catalog(long generation, List<MenuCategoryResponse> categories) {
+            this.generation = generation;
+            this.categories = List.copyOf(categories);
+            Map<Long, MenuCategoryResponse> byId = new LinkedHashMap<>();
+            for (MenuCategoryResponse category : categories) {
+                byId.put(category.getId(), category);
+            }
+            this.categoriesById = byId;
+        }
+
+        public long getGeneration() {
+            return generation;
+        }
+
+        public List<MenuCategoryResponse> getCategories() {
+            return categories;
+        }
+
+        public MenuCategoryResponse getCategory(Long id) {
+            return categoriesById.get(id);
+        }
+    }
+}
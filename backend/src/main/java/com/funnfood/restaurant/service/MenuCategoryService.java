@@ -21,6 +21,12 @@ public class MenuCategoryService {
     @Autowired
     private MenuCategoryRepository menuCategoryRepository;
 
+    @Autowired
+    private MenuCatalogCache menuCatalogCache;
+
+    @Autowired
+    private MenuSearchIndex menuSearchIndex;
+
     /**
      * Get all menu categories
      */
@@ -60,7 +66,9 @@ public class MenuCategoryService {
      */
     @Transactional
     public MenuCategory createCategory(MenuCategory menuCategory) {
-        return menuCategoryRepository.save(menuCategory);
+        MenuCategory savedCategory = menuCategoryRepository.save(menuCategory);
+        menuCatalogCache.invalidate();
+        return savedCategory;
     }
 
     /**
@@ -74,7 +82,10 @@ public class MenuCategoryService {
         menuCategory.setDescription(categoryDetails.getDescription());
         menuCategory.setImageUrl(categoryDetails.getImageUrl()); // Also update imageUrl
 
-        return menuCategoryRepository.save(menuCategory);
+        MenuCategory updatedCategory = menuCategoryRepository.save(menuCategory);
+        menuCatalogCache.invalidate();
+        menuSearchIndex.categorySaved(updatedCategory.getId(), updatedCategory.getName());
+        return updatedCategory;
     }
 
     /**
@@ -84,6 +95,8 @@ public class MenuCategoryService {
     public void deleteCategory(Long id) {
         MenuCategory category = getCategoryById(id);
         menuCategoryRepository.delete(category);
+        menuCatalogCache.invalidate();
+        menuSearchIndex.categoryDeleted(id);
     }
 
     /**
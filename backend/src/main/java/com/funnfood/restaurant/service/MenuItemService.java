@@ -1,11 +1,14 @@
 package com.funnfood.restaurant.service;
 
+import com.funnfood.restaurant.exception.BadRequestException;
 import com.funnfood.restaurant.exception.ResourceNotFoundException;
 import com.funnfood.restaurant.model.MenuCategory;
 import com.funnfood.restaurant.model.MenuItem;
+import com.funnfood.restaurant.payload.response.MenuItemResponse;
 import com.funnfood.restaurant.repository.MenuCategoryRepository;
 import com.funnfood.restaurant.repository.MenuItemRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,6 +22,15 @@ public class MenuItemService {
     @Autowired
     private MenuCategoryRepository menuCategoryRepository;
 
+    @Autowired
+    private MenuCatalogCache menuCatalogCache;
+
+    @Autowired
+    private MenuSearchIndex menuSearchIndex;
+
+    @Value("${app.menu.search.max-results:50}")
+    private int maxSearchResults;
+
     @Transactional(readOnly = true)
     public List<MenuItem> getAllMenuItems() {
         return menuItemRepository.findAll();
@@ -47,13 +59,35 @@ public class MenuItemService {
         return menuItemRepository.findByIsVegetarian(true);
     }
 
+    /**
+     * Search menu items by name, description and category, best match first
+     */
+    @Transactional(readOnly = true)
+    public List<MenuItemResponse> searchMenuItems(String query, MenuSearchIndex.Filter filter, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("Search query must not be blank");
+        }
+        if (filter.minPrice() != null && filter.maxPrice() != null && filter.minPrice().compareTo(filter.maxPrice()) > 0) {
+            throw new BadRequestException("minPrice must not be greater than maxPrice");
+        }
+
+        int cappedLimit = Math.max(1, Math.min(limit, maxSearchResults));
+        if (menuSearchIndex.isReady()) {
+            return menuSearchIndex.search(query, filter, cappedLimit);
+        }
+        return menuSearchIndex.scan(menuItemRepository.findAllWithCategory(), query, filter, cappedLimit);
+    }
+
     @Transactional
     public MenuItem createMenuItem(MenuItem menuItem, Long categoryId) {
         MenuCategory category = menuCategoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("MenuCategory", "id", categoryId));
 
         menuItem.setCategory(category);
-        return menuItemRepository.save(menuItem);
+        MenuItem savedItem = menuItemRepository.save(menuItem);
+        menuCatalogCache.invalidate();
+        menuSearchIndex.itemSaved(savedItem);
+        return savedItem;
     }
 
     @Transactional
@@ -75,19 +109,27 @@ public class MenuItemService {
             menuItem.setCategory(category);
         }
 
-        return menuItemRepository.save(menuItem);
+        MenuItem updatedItem = menuItemRepository.save(menuItem);
+        menuCatalogCache.invalidate();
+        menuSearchIndex.itemSaved(updatedItem);
+        return updatedItem;
     }
 
     @Transactional
     public void deleteMenuItem(Long id) {
         MenuItem menuItem = getMenuItemEntity(id);
         menuItemRepository.delete(menuItem);
+        menuCatalogCache.invalidate();
+        menuSearchIndex.itemDeleted(id);
     }
 
     @Transactional
     public MenuItem updateAvailability(Long id, boolean isAvailable) {
         MenuItem menuItem = getMenuItemEntity(id);
         menuItem.setAvailable(isAvailable);
-        return menuItemRepository.save(menuItem);
+        MenuItem updatedItem = menuItemRepository.save(menuItem);
+        menuCatalogCache.invalidate();
+        menuSearchIndex.itemSaved(updatedItem);
+        return updatedItem;
     }
 }
@@ -0,0 +1,65 @@
+package com.funnfood.restaurant.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.funnfood.restaurant.util.SerializedPayload;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Pre-serialized JSON (and gzip) of the public menu views, versioned by the {@link MenuCatalogCache} generation.
+ * <p>
+ * The ETag combines a per-process boot id, the catalog generation and the view name, so it changes with every
+ * menu write and never repeats across restarts. A payload built while a write committed carries the older
+ * generation and is rebuilt on the next request.
+ */
+@Component
+public class MenuPayloadCache {
+    public static final String CATEGORIES_VIEW = "categories";
+    public static final String MENU_ITEMS_VIEW = "menu-items";
+
+    @Autowired
+    private MenuCatalogCache menuCatalogCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Map<String, Versioned> payloads = new ConcurrentHashMap<>();
+
+    /**
+     * The current payload of a view, serializing the body from the loader if the menu changed since it was built.
+     */
+    public SerializedPayload get(String view, Supplier<?> loader) {
+        long generation = menuCatalogCache.getGeneration();
+        Versioned cached = payloads.get(view);
+        if (cached != null && cached.generation() == generation) {
+            return cached.payload();
+        }
+
+        SerializedPayload payload = new SerializedPayload(serialize(loader.get()), etag(view, generation));
+        payloads.merge(view, new Versioned(generation, payload),
+                (existing, built) -> existing.generation() >= built.generation() ? existing : built);
+        return payload;
+    }
+
+    private String etag(String view, long generation) {
+        return "\"" + bootId + "-" + generation + "-" + view + "\"";
+    }
+
+    private byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Menu payload is not serializable", e);
+        }
+    }
+
+    private record Versioned(long generation, SerializedPayload payload) {
+    }
+}
@@ -0,0 +1,598 @@
+package com.funnfood.restaurant.service;
+
+import com.funnfood.restaurant.model.MenuItem;
+import com.funnfood.restaurant.payload.response.MenuItemResponse;
+import com.funnfood.restaurant.repository.MenuItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over menu item names, descriptions and category names.
+ * <p>
+ * Every query term matches index terms that start with it, so the last word of a typeahead query finds
+ * partial words. A term found in the name weighs more than one found in the category, which weighs more
+ * than one found in the description; prefix matches score less than whole words. All query terms must match.
+ * <p>
+ * Items are numbered with dense slots and each term maps to immutable arrays of slots and weights, so a query
+ * scores candidates in primitive arrays instead of boxed maps. Writes are serialized, applied after commit and
+ * replace the posting arrays they touch; readers never block. Slots of deleted items are not reused until the
+ * next full load. Until the index has loaded, callers rank a database read with {@link #scan}.
+ */
+@Component
+public class MenuSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(MenuSearchIndex.class);
+
+    static final float NAME_WEIGHT = 3f;
+    static final float CATEGORY_WEIGHT = 2f;
+    static final float DESCRIPTION_WEIGHT = 1f;
+    private static final float PREFIX_FACTOR = 0.5f;
+    private static final int SHORT_PREFIX_LENGTH = 2;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    // Higher score first; on a tie the shorter, more specific name, then the older item
+    private static final Comparator<Hit> RANKING = (a, b) -> {
+        int byScore = Float.compare(b.score(), a.score());
+        if (byScore != 0) {
+            return byScore;
+        }
+        int byLength = Integer.compare(a.doc().nameLength(), b.doc().nameLength());
+        return byLength != 0 ? byLength : Long.compare(a.doc().id(), b.doc().id());
+    };
+
+    @Autowired
+    private MenuItemRepository menuItemRepository;
+
+    private final ConcurrentSkipListMap<String, Postings> postings = new ConcurrentSkipListMap<>();
+    private final Map<Long, Integer> slotsById = new ConcurrentHashMap<>();
+    private volatile AtomicReferenceArray<Doc> docs = new AtomicReferenceArray<>(1024);
+    private int slotCount;
+
+    // Merged postings of short query prefixes, replaced by every write
+    private volatile Map<String, Postings> shortPrefixes = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<MenuItem> items = menuItemRepository.findAllWithCategory();
+        List<Doc> loaded = new ArrayList<>(items.size());
+        for (MenuItem item : items) {
+            loaded.add(Doc.of(item));
+        }
+        rebuild(loaded);
+        ready = true;
+        logger.info("Loaded {} menu items into the search index", items.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * The best matches for the query that pass the filter, highest score first.
+     */
+    public List<MenuItemResponse> search(String query, Filter filter, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        AtomicReferenceArray<Doc> currentDocs = docs;
+        Map<String, Postings> currentPrefixes = shortPrefixes;
+        int capacity = currentDocs.length();
+        Scratch s = scratch.get().ensureCapacity(capacity);
+        int candidates = 0;
+        try {
+            for (int t = 0; t < terms.size(); t++) {
+                String term = terms.get(t);
+                if (term.length() <= SHORT_PREFIX_LENGTH) {
+                    candidates = match(s, t, shortPrefix(term, currentPrefixes), 1f, capacity, candidates);
+                } else {
+                    for (Map.Entry<String, Postings> entry : postings.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+                        candidates = match(s, t, entry.getValue(), matchFactor(term, entry.getKey()), capacity, candidates);
+                    }
+                }
+                for (int i = 0; i < candidates; i++) {
+                    int slot = s.candidates[i];
+                    if (s.matched[slot] == t + 1) {
+                        s.total[slot] += s.best[slot];
+                    }
+                }
+            }
+
+            PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+            for (int i = 0; i < candidates; i++) {
+                int slot = s.candidates[i];
+                if (s.matched[slot] != terms.size()) {
+                    continue;
+                }
+                if (top.size() == limit && s.total[slot] < top.peek().score()) {
+                    // Cannot make the top results, whatever the filter says
+                    continue;
+                }
+                Doc doc = currentDocs.get(slot);
+                if (doc != null && filter.test(doc)) {
+                    offer(top, new Hit(doc, s.total[slot]), limit);
+                }
+            }
+            return toResponses(top);
+        } finally {
+            for (int i = 0; i < candidates; i++) {
+                int slot = s.candidates[i];
+                s.matched[slot] = 0;
+                s.total[slot] = 0;
+            }
+        }
+    }
+
+    /**
+     * Record the slots of one posting list as matching query term t; returns the new candidate count.
+     */
+    private static int match(Scratch s, int t, Postings list, float factor, int capacity, int candidates) {
+        int[] slots = list.slots();
+        float[] weights = list.weights();
+        for (int i = 0; i < slots.length; i++) {
+            int slot = slots[i];
+            if (slot >= capacity) {
+                // Added after this search started
+                continue;
+            }
+            float weight = weights[i] * factor;
+            if (s.matched[slot] == t) {
+                // First term of this query word seen for the slot, which matched all earlier words
+                s.matched[slot] = t + 1;
+                s.best[slot] = weight;
+                if (t == 0) {
+                    s.candidates[candidates++] = slot;
+                }
+            } else if (s.matched[slot] == t + 1 && weight > s.best[slot]) {
+                s.best[slot] = weight;
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * The postings of every term starting with a short prefix merged into one list holding each slot's best
+     * prefix-adjusted weight. One or two letters expand to most of the vocabulary, so the merged list is built
+     * once and kept until the next write instead of walking every matching posting list on each keystroke.
+     */
+    private Postings shortPrefix(String prefix, Map<String, Postings> cache) {
+        Postings merged = cache.get(prefix);
+        if (merged != null) {
+            return merged;
+        }
+        Map<Integer, Float> best = new HashMap<>();
+        for (Map.Entry<String, Postings> entry : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).entrySet()) {
+            float factor = matchFactor(prefix, entry.getKey());
+            int[] slots = entry.getValue().slots();
+            float[] weights = entry.getValue().weights();
+            for (int i = 0; i < slots.length; i++) {
+                best.merge(slots[i], weights[i] * factor, Math::max);
+            }
+        }
+        PostingsBuilder builder = new PostingsBuilder();
+        best.forEach(builder::add);
+        merged = builder.build();
+        // Goes into the map this search started with; a write meanwhile has already replaced it
+        cache.put(prefix, merged);
+        return merged;
+    }
+
+    /**
+     * Rank the given items the way {@link #search} would, without the index.
+     */
+    public List<MenuItemResponse> scan(Collection<MenuItem> items, String query, Filter filter, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        for (MenuItem item : items) {
+            Doc doc = Doc.of(item);
+            if (!filter.test(doc)) {
+                continue;
+            }
+            float score = score(doc, terms);
+            if (score > 0) {
+                offer(top, new Hit(doc, score), limit);
+            }
+        }
+        return toResponses(top);
+    }
+
+    /**
+     * Reflect a saved menu item in the index once the surrounding transaction commits.
+     */
+    public void itemSaved(MenuItem item) {
+        Doc doc = Doc.of(item);
+        afterCommit(() -> put(doc));
+    }
+
+    public void itemDeleted(Long id) {
+        afterCommit(() -> remove(id));
+    }
+
+    /**
+     * Re-index the items of a renamed category once the surrounding transaction commits.
+     */
+    public void categorySaved(Long categoryId, String categoryName) {
+        afterCommit(() -> {
+            for (Doc doc : docsInCategory(categoryId)) {
+                put(doc.withCategoryName(categoryName));
+            }
+        });
+    }
+
+    /**
+     * Drop the items of a deleted category, which are removed with it, once the surrounding transaction commits.
+     */
+    public void categoryDeleted(Long categoryId) {
+        afterCommit(() -> {
+            for (Doc doc : docsInCategory(categoryId)) {
+                remove(doc.id());
+            }
+        });
+    }
+
+    public int size() {
+        return slotsById.size();
+    }
+
+    /**
+     * Replace the whole index, building each posting list once instead of copying it per item.
+     */
+    synchronized void rebuild(List<Doc> loaded) {
+        Map<String, PostingsBuilder> builders = new HashMap<>();
+        AtomicReferenceArray<Doc> newDocs = new AtomicReferenceArray<>(Math.max(1024, loaded.size() * 2));
+        Map<Long, Integer> newSlots = new HashMap<>();
+        for (Doc doc : loaded) {
+            int slot = newSlots.size();
+            if (newSlots.putIfAbsent(doc.id(), slot) != null) {
+                continue;
+            }
+            newDocs.set(slot, doc);
+            for (Map.Entry<String, Float> term : doc.terms().entrySet()) {
+                builders.computeIfAbsent(term.getKey(), key -> new PostingsBuilder()).add(slot, term.getValue());
+            }
+        }
+
+        postings.clear();
+        slotsById.clear();
+        docs = newDocs;
+        builders.forEach((term, builder) -> postings.put(term, builder.build()));
+        slotsById.putAll(newSlots);
+        slotCount = newSlots.size();
+        shortPrefixes = new ConcurrentHashMap<>();
+    }
+
+    synchronized void put(Doc doc) {
+        Integer slot = slotsById.get(doc.id());
+        if (slot == null) {
+            slot = slotCount++;
+            if (slot >= docs.length()) {
+                AtomicReferenceArray<Doc> grown = new AtomicReferenceArray<>(docs.length() * 2);
+                for (int i = 0; i < slot; i++) {
+                    grown.set(i, docs.get(i));
+                }
+                docs = grown;
+            }
+        }
+        Doc previous = docs.get(slot);
+        docs.set(slot, doc);
+        slotsById.put(doc.id(), slot);
+
+        if (previous != null) {
+            for (String term : previous.terms().keySet()) {
+                if (!doc.terms().containsKey(term)) {
+                    removePosting(term, slot);
+                }
+            }
+        }
+        for (Map.Entry<String, Float> term : doc.terms().entrySet()) {
+            int s = slot;
+            postings.compute(term.getKey(), (key, existing) ->
+                    existing == null ? new Postings(new int[]{s}, new float[]{term.getValue()}) : existing.with(s, term.getValue()));
+        }
+        shortPrefixes = new ConcurrentHashMap<>();
+    }
+
+    synchronized void remove(Long id) {
+        Integer slot = slotsById.remove(id);
+        if (slot == null) {
+            return;
+        }
+        Doc previous = docs.get(slot);
+        docs.set(slot, null);
+        if (previous != null) {
+            for (String term : previous.terms().keySet()) {
+                removePosting(term, slot);
+            }
+        }
+        shortPrefixes = new ConcurrentHashMap<>();
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        String normalized = isAscii(text) ? text : DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        Set<String> terms = new LinkedHashSet<>();
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                terms.add(normalized.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7f) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void removePosting(String term, int slot) {
+        postings.computeIfPresent(term, (key, existing) -> existing.without(slot));
+    }
+
+    private List<Doc> docsInCategory(Long categoryId) {
+        List<Doc> matches = new ArrayList<>();
+        AtomicReferenceArray<Doc> currentDocs = docs;
+        for (int i = 0; i < currentDocs.length(); i++) {
+            Doc doc = currentDocs.get(i);
+            if (doc != null && categoryId.equals(doc.categoryId())) {
+                matches.add(doc);
+            }
+        }
+        return matches;
+    }
+
+    private static float score(Doc doc, List<String> terms) {
+        float total = 0;
+        for (String term : terms) {
+            float best = 0;
+            for (Map.Entry<String, Float> entry : doc.terms().entrySet()) {
+                if (entry.getKey().startsWith(term)) {
+                    best = Math.max(best, entry.getValue() * matchFactor(term, entry.getKey()));
+                }
+            }
+            if (best == 0) {
+                return 0;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private static float matchFactor(String queryTerm, String indexTerm) {
+        if (queryTerm.length() == indexTerm.length()) {
+            return 1f;
+        }
+        // Between PREFIX_FACTOR and 1, growing as the prefix covers more of the word
+        return PREFIX_FACTOR + (1f - PREFIX_FACTOR) * queryTerm.length() / indexTerm.length();
+    }
+
+    private static void offer(PriorityQueue<Hit> top, Hit hit, int limit) {
+        if (top.size() == limit && RANKING.compare(hit, top.peek()) >= 0) {
+            return;
+        }
+        top.offer(hit);
+        if (top.size() > limit) {
+            top.poll();
+        }
+    }
+
+    private static List<MenuItemResponse> toResponses(PriorityQueue<Hit> top) {
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(RANKING);
+        List<MenuItemResponse> responses = new ArrayList<>(hits.size());
+        for (Hit hit : hits) {
+            responses.add(hit.doc().toResponse());
+        }
+        return responses;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Search filters; null fields do not filter.
+     */
+    public record Filter(Boolean vegetarian, Boolean available, BigDecimal minPrice, BigDecimal maxPrice) {
+
+        public static final Filter NONE = new Filter(null, null, null, null);
+
+        boolean test(Doc doc) {
+            return (vegetarian == null || vegetarian == doc.vegetarian())
+                    && (available == null || available == doc.available())
+                    && (minPrice == null || (doc.price() != null && doc.price().compareTo(minPrice) >= 0))
+                    && (maxPrice == null || (doc.price() != null && doc.price().compareTo(maxPrice) <= 0));
+        }
+    }
+
+    record Doc(Long id, String name, String description, BigDecimal price, boolean vegetarian, boolean available,
+               String imageUrl, Integer servesPeople, Integer preparationTimeMinutes,
+               Long categoryId, String categoryName, Map<String, Float> terms) {
+
+        static Doc of(MenuItem item) {
+            Long categoryId = item.getCategory() != null ? item.getCategory().getId() : null;
+            String categoryName = item.getCategory() != null ? item.getCategory().getName() : null;
+            return new Doc(item.getId(), item.getName(), item.getDescription(), item.getPrice(), item.isVegetarian(),
+                    item.isAvailable(), item.getImageUrl(), item.getServesPeople(), item.getPreparationTimeMinutes(),
+                    categoryId, categoryName, terms(item.getName(), item.getDescription(), categoryName));
+        }
+
+        Doc withCategoryName(String newCategoryName) {
+            return new Doc(id, name, description, price, vegetarian, available, imageUrl, servesPeople,
+                    preparationTimeMinutes, categoryId, newCategoryName, terms(name, description, newCategoryName));
+        }
+
+        int nameLength() {
+            return name != null ? name.length() : 0;
+        }
+
+        MenuItemResponse toResponse() {
+            MenuItemResponse response = new MenuItemResponse();
+            response.setId(id);
+            response.setName(name);
+            response.setDescription(description);
+            response.setPrice(price);
+            response.setVegetarian(vegetarian);
+            response.setAvailable(available);
+            response.setImageUrl(imageUrl);
+            if (servesPeople != null) {
+                response.setServesPeople(servesPeople);
+            }
+            if (preparationTimeMinutes != null) {
+                response.setPreparationTimeMinutes(preparationTimeMinutes);
+            }
+            response.setCategoryId(categoryId);
+            response.setCategoryName(categoryName);
+            return response;
+        }
+
+        private static Map<String, Float> terms(String name, String description, String categoryName) {
+            Map<String, Float> terms = new HashMap<>();
+            for (String term : tokenize(name)) {
+                terms.merge(term, NAME_WEIGHT, Float::sum);
+            }
+            for (String term : tokenize(categoryName)) {
+                terms.merge(term, CATEGORY_WEIGHT, Float::sum);
+            }
+            for (String term : tokenize(description)) {
+                terms.merge(term, DESCRIPTION_WEIGHT, Float::sum);
+            }
+            return terms;
+        }
+    }
+
+    private record Hit(Doc doc, float score) {
+    }
+
+    /**
+     * Slots holding a term and the term's weight in each, never modified once published.
+     */
+    private record Postings(int[] slots, float[] weights) {
+
+        Postings with(int slot, float weight) {
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i] == slot) {
+                    float[] newWeights = weights.clone();
+                    newWeights[i] = weight;
+                    return new Postings(slots, newWeights);
+                }
+            }
+            int[] newSlots = Arrays.copyOf(slots, slots.length + 1);
+            float[] newWeights = Arrays.copyOf(weights, weights.length + 1);
+            newSlots[slots.length] = slot;
+            newWeights[weights.length] = weight;
+            return new Postings(newSlots, newWeights);
+        }
+
+        Postings without(int slot) {
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i] == slot) {
+                    if (slots.length == 1) {
+                        return null;
+                    }
+                    int[] newSlots = new int[slots.length - 1];
+                    float[] newWeights = new float[weights.length - 1];
+                    System.arraycopy(slots, 0, newSlots, 0, i);
+                    System.arraycopy(slots, i + 1, newSlots, i, slots.length - i - 1);
+                    System.arraycopy(weights, 0, newWeights, 0, i);
+                    System.arraycopy(weights, i + 1, newWeights, i, weights.length - i - 1);
+                    return new Postings(newSlots, newWeights);
+                }
+            }
+            return this;
+        }
+    }
+
+    private static final class PostingsBuilder {
+        private int[] slots = new int[4];
+        private float[] weights = new float[4];
+        private int size;
+
+        void add(int slot, float weight) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            slots[size] = slot;
+            weights[size] = weight;
+            size++;
+        }
+
+        Postings build() {
+            return new Postings(Arrays.copyOf(slots, size), Arrays.copyOf(weights, size));
+        }
+    }
+
+    /**
+     * Per-thread scoring arrays indexed by slot; matched and total are left zeroed after every search.
+     */
+    private static final class Scratch {
+        private int[] matched = new int[0];
+        private float[] best = new float[0];
+        private float[] total = new float[0];
+        private int[] candidates = new int[0];
+
+        Scratch ensureCapacity(int capacity) {
+            if (matched.length < capacity) {
+                matched = new int[capacity];
+                best = new float[capacity];
+                total = new float[capacity];
+                candidates = new int[capacity];
+            }
+            return this;
+        }
+    }
+}
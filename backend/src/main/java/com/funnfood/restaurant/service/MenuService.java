@@ -12,6 +12,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,18 +23,31 @@ public class MenuService {
     @Autowired
     private MenuItemRepository menuItemRepository;
 
+    @Autowired
+    private MenuCatalogCache menuCatalogCache;
+
+    @Autowired
+    private MenuSearchIndex menuSearchIndex;
+
+    /**
+     * Get all categories with their available items, served from the catalog cache
+     */
     @Transactional(readOnly = true)
     public List<MenuCategoryResponse> getAllCategories() {
-        return menuCategoryRepository.findAll().stream()
-                .map(this::mapToMenuCategoryResponse)
-                .collect(Collectors.toList());
+        return menuCatalogCache.get(this::loadCatalog).getCategories();
     }
 
     @Transactional(readOnly = true)
     public MenuCategoryResponse getCategoryById(Long id) {
-        MenuCategory category = menuCategoryRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("MenuCategory", "id", id));
-        return mapToMenuCategoryResponse(category);
+        MenuCategoryResponse category = menuCatalogCache.get(this::loadCatalog).getCategory(id);
+        if (category == null) {
+            throw new ResourceNotFoundException("MenuCategory", "id", id);
+        }
+        return category;
+    }
+
+    public Map<String, Object> getCatalogCacheStats() {
+        return menuCatalogCache.getStats();
     }
 
     @Transactional(readOnly = true)
@@ -69,6 +83,7 @@ public class MenuService {
     @Transactional
     public MenuCategoryResponse createCategory(MenuCategory category) {
         MenuCategory savedCategory = menuCategoryRepository.save(category);
+        menuCatalogCache.invalidate();
         return mapToMenuCategoryResponse(savedCategory);
     }
 
@@ -78,9 +93,17 @@ public class MenuService {
                 .orElseThrow(() -> new ResourceNotFoundException("MenuCategory", "id", categoryId));
         menuItem.setCategory(category);
         MenuItem savedItem = menuItemRepository.save(menuItem);
+        menuCatalogCache.invalidate();
+        menuSearchIndex.itemSaved(savedItem);
         return mapToMenuItemResponse(savedItem);
     }
 
+    private List<MenuCategoryResponse> loadCatalog() {
+        return menuCategoryRepository.findAllWithItems().stream()
+                .map(this::mapToMenuCategoryResponse)
+                .collect(Collectors.toList());
+    }
+
     private MenuCategoryResponse mapToMenuCategoryResponse(MenuCategory category) {
         MenuCategoryResponse response = new MenuCategoryResponse();
         response.setId(category.getId());
@@ -0,0 +1,291 @@
+package com.funnfood.restaurant.service;
+
+import com.funnfood.restaurant.model.Order;
+import com.funnfood.restaurant.payload.response.OrderFeedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process fan-out of order changes to the live feeds of each restaurant.
+ * <p>
+ * Events are published after their transaction commits and numbered from one sequence, which starts from the
+ * boot time so that ids handed out before a restart are always lower than the current run's. Each restaurant keeps
+ * its last {@code app.orders.feed.history-size} events, so a client reconnecting with the id of the last event it
+ * saw gets what it missed. Every subscriber has its own buffer of {@code app.orders.feed.buffer-size} messages,
+ * written out by the feed executor; publishing never waits on a connection. A subscriber whose buffer fills up
+ * is disconnected and catches up from the history when it reconnects. When the history no longer reaches back
+ * far enough, or the id is from before a restart, the client gets a {@code resync} event and should reload
+ * the order list once.
+ */
+@Component
+public class OrderEventBus {
+    private static final Logger logger = LoggerFactory.getLogger(OrderEventBus.class);
+
+    public static final String RESYNC_EVENT = "resync";
+
+    private static final Message HEARTBEAT = new Message(0, null, null);
+
+    // Room for a thousand events per millisecond of uptime; ids stay below 2^53, so JavaScript reads them exactly
+    private static final long IDS_PER_MILLI = 1000;
+
+    private final int historySize;
+    private final int bufferSize;
+    private final Executor executor;
+
+    private final long firstId;
+    private final AtomicLong sequence;
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder overflows = new LongAdder();
+
+    @Autowired
+    public OrderEventBus(@Value("${app.orders.feed.history-size:500}") int historySize,
+                         @Value("${app.orders.feed.buffer-size:256}") int bufferSize,
+                         @Qualifier("orderFeedExecutor") Executor executor) {
+        this(historySize, bufferSize, executor, System.currentTimeMillis());
+    }
+
+    OrderEventBus(int historySize, int bufferSize, Executor executor, long bootMillis) {
+        this.historySize = historySize;
+        this.bufferSize = bufferSize;
+        this.executor = executor;
+        this.firstId = bootMillis * IDS_PER_MILLI;
+        this.sequence = new AtomicLong(firstId);
+    }
+
+    /**
+     * Publish a new order to its restaurant's feed once the surrounding transaction commits.
+     */
+    public void orderCreated(Order order) {
+        publish(toEvent(order, OrderFeedEvent.ORDER_CREATED));
+    }
+
+    public void statusChanged(Order order) {
+        publish(toEvent(order, OrderFeedEvent.ORDER_STATUS_CHANGED));
+    }
+
+    /**
+     * Subscribe to a restaurant's feed, first replaying the events after lastEventId if one is given.
+     */
+    public Subscription subscribe(Long restaurantId, Long lastEventId, Sink sink) {
+        Channel channel = channels.computeIfAbsent(restaurantId, id -> new Channel());
+        Subscription subscription = new Subscription(channel, sink);
+        synchronized (channel) {
+            if (lastEventId != null) {
+                List<Message> missed = channel.since(lastEventId);
+                boolean otherRun = lastEventId <= firstId || lastEventId > sequence.get();
+                if (otherRun || missed == null || missed.size() > bufferSize) {
+                    subscription.offer(new Message(0, RESYNC_EVENT, "Reload the order list; the feed cannot replay from " + lastEventId));
+                } else {
+                    missed.forEach(subscription::offer);
+                }
+            }
+            channel.subscribers.add(subscription);
+        }
+        return subscription;
+    }
+
+    /**
+     * Keep idle connections open through proxies that close silent ones.
+     */
+    @Scheduled(fixedDelayString = "${app.orders.feed.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Channel channel : channels.values()) {
+            for (Subscription subscription : channel.subscribers) {
+                subscription.offer(HEARTBEAT);
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return channels.values().stream().mapToInt(channel -> channel.subscribers.size()).sum();
+    }
+
+    public long getPublishedCount() {
+        return published.sum();
+    }
+
+    public long getOverflowCount() {
+        return overflows.sum();
+    }
+
+    private void publish(OrderFeedEvent event) {
+        if (event.getRestaurantId() == null) {
+            return;
+        }
+        afterCommit(() -> dispatch(event));
+    }
+
+    private void dispatch(OrderFeedEvent event) {
+        Channel channel = channels.computeIfAbsent(event.getRestaurantId(), id -> new Channel());
+        // Numbering, history and buffers are updated together so every subscriber sees one order
+        synchronized (channel) {
+            Message message = new Message(sequence.incrementAndGet(), event.getEventType(), event);
+            channel.append(message, historySize);
+            for (Subscription subscription : channel.subscribers) {
+                subscription.offer(message);
+            }
+        }
+        published.increment();
+    }
+
+    private static OrderFeedEvent toEvent(Order order, String eventType) {
+        OrderFeedEvent event = new OrderFeedEvent();
+        event.setEventType(eventType);
+        event.setOrderId(order.getId());
+        event.setRestaurantId(order.getRestaurant() != null ? order.getRestaurant().getId() : null);
+        event.setTokenNumber(order.getTokenNumber());
+        event.setStatus(order.getStatus());
+        event.setTotalAmount(order.getTotalAmount());
+        event.setEstimatedDeliveryTime(order.getEstimatedDeliveryTime());
+        event.setOccurredAt(LocalDateTime.now());
+        return event;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Where a subscriber's messages are written, e.g. an SSE connection. A message with id 0 and no name is a
+     * heartbeat; other messages with id 0 cannot be resumed from.
+     */
+    public interface Sink {
+        void send(Message message) throws IOException;
+
+        void close();
+    }
+
+    public record Message(long id, String name, Object data) {
+        public boolean isHeartbeat() {
+            return id == 0 && name == null;
+        }
+    }
+
+    private static final class Channel {
+        private final Set<Subscription> subscribers = ConcurrentHashMap.newKeySet();
+        private final Deque<Message> history = new ArrayDeque<>();
+        // Id of the newest event dropped from the history
+        private long evictedUpTo;
+
+        private void append(Message message, int historySize) {
+            history.addLast(message);
+            while (history.size() > historySize) {
+                evictedUpTo = history.removeFirst().id();
+            }
+        }
+
+        /**
+         * Events after the id, or null if some of them are no longer in the history.
+         */
+        private List<Message> since(long lastEventId) {
+            if (lastEventId < evictedUpTo) {
+                return null;
+            }
+            List<Message> missed = new ArrayList<>();
+            for (Message message : history) {
+                if (message.id() > lastEventId) {
+                    missed.add(message);
+                }
+            }
+            return missed;
+        }
+    }
+
+    /**
+     * A subscriber with its own bounded buffer. At most one send task per subscriber is queued on the executor.
+     */
+    public final class Subscription {
+        private final Channel channel;
+        private final Sink sink;
+        private final BlockingQueue<Message> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscription(Channel channel, Sink sink) {
+            this.channel = channel;
+            this.sink = sink;
+        }
+
+        /**
+         * Stop receiving events; safe to call more than once.
+         */
+        public void cancel() {
+            if (closed.compareAndSet(false, true)) {
+                channel.subscribers.remove(this);
+                buffer.clear();
+                sink.close();
+            }
+        }
+
+        private void offer(Message message) {
+            if (closed.get()) {
+                return;
+            }
+            if (!buffer.offer(message)) {
+                if (message.isHeartbeat()) {
+                    return;
+                }
+                // Too slow to keep up; the client resumes from the history when it reconnects
+                overflows.increment();
+                logger.debug("Disconnecting a slow order feed subscriber after {} buffered events", bufferSize);
+                cancel();
+                return;
+            }
+            if (sending.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Message message;
+                while (!closed.get() && (message = buffer.poll()) != null) {
+                    sink.send(message);
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.debug("Order feed subscriber went away: {}", e.getMessage());
+                cancel();
+            } finally {
+                sending.set(false);
+            }
+            // Catch messages offered after the last poll but before the flag was cleared
+            if (!closed.get() && !buffer.isEmpty() && sending.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+    }
+}
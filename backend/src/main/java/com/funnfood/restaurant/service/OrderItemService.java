@@ -26,6 +26,9 @@ public class OrderItemService {
     @Autowired
     private MenuItemRepository menuItemRepository;
 
+    @Autowired
+    private OrderPricingEngine orderPricingEngine;
+
     /**
      * Get all order items
      */
@@ -139,7 +142,7 @@ public class OrderItemService {
         orderItem.setOrder(order);
         orderItem.setMenuItem(menuItem);
         orderItem.setQuantity(quantity);
-
+        orderPricingEngine.snapshotPrice(orderItem);
 
         return orderItemRepository.save(orderItem);
     }
@@ -152,7 +155,7 @@ public class OrderItemService {
         OrderItem orderItem = getItemById(id);
 
         orderItem.setQuantity(quantity);
-
+        orderPricingEngine.snapshotPrice(orderItem);
 
         return orderItemRepository.save(orderItem);
     }
@@ -172,15 +175,6 @@ public class OrderItemService {
     public BigDecimal calculateOrderTotal(Long orderId) {
         List<OrderItem> orderItems = getOrderItemsByOrder(orderId);
 
-        BigDecimal total = BigDecimal.ZERO;
-        for (OrderItem item : orderItems) {
-            // If the OrderItem model doesn't have subtotal field directly,
-            // calculate it here from price and quantity
-            MenuItem menuItem = item.getMenuItem();
-            BigDecimal itemTotal = menuItem.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
-            total = total.add(itemTotal);
-        }
-
-        return total;
+        return OrderPricingEngine.fromCents(orderPricingEngine.subtotalCents(orderItems));
     }
 }
@@ -0,0 +1,156 @@
+package com.funnfood.restaurant.service;
+
+import com.funnfood.restaurant.exception.BadRequestException;
+import com.funnfood.restaurant.model.Order;
+import com.funnfood.restaurant.model.OrderItem;
+import com.funnfood.restaurant.model.Restaurant;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collection;
+
+/**
+ * Order money arithmetic in long minor units (cents).
+ * <p>
+ * Each line is priced from the unit price snapshotted, rounded to the cent, when it was added to the order,
+ * so every line is an exact number of cents, the subtotal is a plain sum and later menu price changes do not
+ * reach orders already placed. Tax is the subtotal times the restaurant's rate, rounded half-up to the cent, which gives the same
+ * amounts as {@code subtotal.multiply(rate).setScale(2, HALF_UP)}. The delivery fee comes from the restaurant's
+ * distance bands in the {@link PricingRuleTable}. Amounts are converted to {@link BigDecimal} only when
+ * written to the order. Adding or removing a line adjusts the stored subtotal instead of re-pricing the cart.
+ */
+@Component
+public class OrderPricingEngine {
+
+    private final PricingRuleTable pricingRuleTable;
+
+    public OrderPricingEngine(PricingRuleTable pricingRuleTable) {
+        this.pricingRuleTable = pricingRuleTable;
+    }
+
+    /**
+     * Price a new order and write subtotal, tax, delivery fee and total to it. Without delivery coordinates
+     * the restaurant's flat fee applies.
+     */
+    public void price(Order order, Collection<OrderItem> items, Restaurant restaurant, Double latitude, Double longitude) {
+        items.forEach(this::snapshotPrice);
+        long subtotal = subtotalCents(items);
+        long deliveryFee = deliveryFeeCents(restaurant, latitude, longitude);
+        if (deliveryFee == PricingRuleTable.NOT_DELIVERABLE) {
+            throw new BadRequestException("The delivery address is outside the delivery area of " + restaurant.getName());
+        }
+        apply(order, pricingRuleTable.ruleFor(restaurant.getId()), subtotal, deliveryFee);
+        order.setDeliveryFee(fromCents(deliveryFee));
+    }
+
+    /**
+     * Update the totals of an order whose items already include the added line.
+     */
+    public void lineAdded(Order order, OrderItem item) {
+        snapshotPrice(item);
+        long subtotal = order.getSubtotal() != null
+                ? Math.addExact(toCents(order.getSubtotal()), lineCents(item))
+                : subtotalCents(order.getOrderItems());
+        apply(order, ruleFor(order), subtotal, deliveryFeeCents(order));
+    }
+
+    /**
+     * Update the totals of an order whose items no longer include the removed line.
+     */
+    public void lineRemoved(Order order, OrderItem item) {
+        long subtotal = order.getSubtotal() != null
+                ? Math.subtractExact(toCents(order.getSubtotal()), lineCents(item))
+                : subtotalCents(order.getOrderItems());
+        apply(order, ruleFor(order), subtotal, deliveryFeeCents(order));
+    }
+
+    /**
+     * Delivery fee from the restaurant to the point, the flat fee if the point is unknown,
+     * or {@link PricingRuleTable#NOT_DELIVERABLE}.
+     */
+    public long deliveryFeeCents(Restaurant restaurant, Double latitude, Double longitude) {
+        PricingRuleTable.CompiledRule rule = pricingRuleTable.ruleFor(restaurant.getId());
+        if (latitude == null || longitude == null) {
+            return rule.flatFeeCents();
+        }
+        double distanceKm = RestaurantGeoIndex.distanceKm(restaurant.getLatitude(), restaurant.getLongitude(), latitude, longitude);
+        return deliveryFeeCents(rule, distanceKm, restaurant.getDeliveryRadiusKm());
+    }
+
+    /**
+     * Delivery fee for a distance, honouring the restaurant's delivery radius when one is set.
+     */
+    static long deliveryFeeCents(PricingRuleTable.CompiledRule rule, double distanceKm, double deliveryRadiusKm) {
+        if (deliveryRadiusKm > 0 && distanceKm > deliveryRadiusKm) {
+            return PricingRuleTable.NOT_DELIVERABLE;
+        }
+        return rule.deliveryFeeCents(distanceKm);
+    }
+
+    public long subtotalCents(Collection<OrderItem> items) {
+        long subtotal = 0;
+        for (OrderItem item : items) {
+            subtotal = Math.addExact(subtotal, lineCents(item));
+        }
+        return subtotal;
+    }
+
+    /**
+     * Fix the line's unit price at the current menu price, unless the line already has one.
+     */
+    public void snapshotPrice(OrderItem item) {
+        if (item.getUnitPrice() == null) {
+            item.setUnitPrice(roundToCents(item.getMenuItem().getPrice()));
+        }
+    }
+
+    public long lineCents(OrderItem item) {
+        // Lines stored before unit prices were snapshotted fall back to the menu price
+        BigDecimal unitPrice = item.getUnitPrice() != null ? item.getUnitPrice() : roundToCents(item.getMenuItem().getPrice());
+        return Math.multiplyExact(toCents(unitPrice), item.getQuantity());
+    }
+
+    static BigDecimal roundToCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    static long toCents(BigDecimal amount) {
+        try {
+            return amount.movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount " + amount + " is not a whole number of cents", e);
+        }
+    }
+
+    static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Round the quotient half away from zero, like {@link java.math.RoundingMode#HALF_UP}.
+     */
+    static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (Math.abs(remainder) * 2 >= divisor) {
+            quotient += Long.signum(dividend);
+        }
+        return quotient;
+    }
+
+    private PricingRuleTable.CompiledRule ruleFor(Order order) {
+        return pricingRuleTable.ruleFor(order.getRestaurant() != null ? order.getRestaurant().getId() : null);
+    }
+
+    private void apply(Order order, PricingRuleTable.CompiledRule rule, long subtotal, long deliveryFee) {
+        long tax = rule.taxCents(subtotal);
+        order.setSubtotal(fromCents(subtotal));
+        order.setTax(fromCents(tax));
+        order.setTotalAmount(fromCents(Math.addExact(Math.addExact(subtotal, tax), deliveryFee)));
+    }
+
+    private long deliveryFeeCents(Order order) {
+        return order.getDeliveryFee() != null ? toCents(order.getDeliveryFee()) : 0;
+    }
+}
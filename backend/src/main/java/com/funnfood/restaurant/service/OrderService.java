@@ -1,6 +1,7 @@
 package com.funnfood.restaurant.service;
 
 import com.funnfood.restaurant.exception.ResourceNotFoundException;
+import com.funnfood.restaurant.model.EOrderStatus;
 import com.funnfood.restaurant.model.MenuItem;
 import com.funnfood.restaurant.model.Order;
 import com.funnfood.restaurant.model.OrderItem;
@@ -11,17 +12,26 @@ import com.funnfood.restaurant.repository.OrderItemRepository;
 import com.funnfood.restaurant.repository.OrderRepository;
 import com.funnfood.restaurant.repository.RestaurantRepository;
 import com.funnfood.restaurant.repository.UserRepository;
+import com.funnfood.restaurant.util.OrderCursor;
+import com.funnfood.restaurant.util.TokenNumberGenerator;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Random;
 import java.util.Set;
-import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class OrderService {
@@ -40,12 +50,123 @@ public class OrderService {
     @Autowired
     private MenuItemRepository menuItemRepository;
 
+    @Autowired
+    private TokenNumberGenerator tokenNumberGenerator;
+
+    @Autowired
+    private OrderPricingEngine orderPricingEngine;
+
+    @Autowired
+    private DeliveryEtaEstimator deliveryEtaEstimator;
+
+    @Autowired
+    private OrderEventBus orderEventBus;
+
+    @Autowired
+    private OrderStatsAggregator orderStatsAggregator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.orders.status-update.max-attempts:3}")
+    private int maxStatusUpdateAttempts;
+
+    @Value("${app.orders.page-size.default:20}")
+    private int defaultPageSize;
+
+    @Value("${app.orders.page-size.max:100}")
+    private int maxPageSize;
+
+    @Value("${app.orders.export.chunk-size:500}")
+    private int exportChunkSize;
+
     /**
      * Get all orders in the system
      */
     @Transactional(readOnly = true)
     public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+        return orderRepository.findAllWithItems();
+    }
+
+    /**
+     * Clamp a requested page size to the configured maximum
+     */
+    public int resolvePageSize(Integer requestedSize) {
+        if (requestedSize == null || requestedSize < 1) {
+            return defaultPageSize;
+        }
+        return Math.min(requestedSize, maxPageSize);
+    }
+
+    /**
+     * Get one keyset page of orders, newest first, optionally filtered by restaurant or status.
+     * Fetches up to limit rows starting after the given cursor (null for the first page).
+     */
+    @Transactional(readOnly = true)
+    public List<Order> getOrdersPage(Long restaurantId, String status, String cursor, int limit) {
+        Pageable pageable = PageRequest.ofSize(limit);
+        OrderCursor after = cursor != null && !cursor.isEmpty() ? OrderCursor.decode(cursor) : null;
+
+        List<Order> orders;
+        if (restaurantId != null) {
+            orders = after == null
+                    ? orderRepository.findFirstPageByRestaurant(restaurantId, pageable)
+                    : orderRepository.findPageByRestaurantAfter(restaurantId, after.getOrderDate(), after.getId(), pageable);
+        } else if (status != null) {
+            orders = after == null
+                    ? orderRepository.findFirstPageByStatus(status, pageable)
+                    : orderRepository.findPageByStatusAfter(status, after.getOrderDate(), after.getId(), pageable);
+        } else {
+            orders = after == null
+                    ? orderRepository.findFirstPage(pageable)
+                    : orderRepository.findPageAfter(after.getOrderDate(), after.getId(), pageable);
+        }
+
+        // Load the items of the whole page in one more query
+        if (!orders.isEmpty()) {
+            orderRepository.findWithItemsByIdIn(orders.stream().map(Order::getId).toList());
+        }
+        return orders;
+    }
+
+    /**
+     * Stream every matching order to the consumer, oldest first, without holding the full set in memory.
+     * Orders are handed over in chunks whose items are loaded in one query; the persistence context is
+     * cleared after each chunk.
+     */
+    @Transactional(readOnly = true)
+    public void exportOrders(Long restaurantId, String status, Consumer<Order> consumer) {
+        Stream<Order> orders;
+        if (restaurantId != null && status != null) {
+            orders = orderRepository.streamByRestaurantAndStatus(restaurantId, status);
+        } else if (restaurantId != null) {
+            orders = orderRepository.streamByRestaurant(restaurantId);
+        } else if (status != null) {
+            orders = orderRepository.streamByStatus(status);
+        } else {
+            orders = orderRepository.streamAll();
+        }
+
+        List<Order> chunk = new ArrayList<>(exportChunkSize);
+        try (orders) {
+            orders.forEach(order -> {
+                chunk.add(order);
+                if (chunk.size() == exportChunkSize) {
+                    exportChunk(chunk, consumer);
+                }
+            });
+        }
+        exportChunk(chunk, consumer);
+    }
+
+    private void exportChunk(List<Order> chunk, Consumer<Order> consumer) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        orderRepository.findWithItemsByIdIn(chunk.stream().map(Order::getId).toList());
+        chunk.forEach(consumer);
+        chunk.clear();
+        entityManager.clear();
     }
 
     /**
@@ -110,11 +231,8 @@ public class OrderService {
      */
     @Transactional(readOnly = true)
     public Order getOrderByTokenNumber(String tokenNumber) {
-        List<Order> orders = orderRepository.findByTokenNumber(tokenNumber);
-        if (orders.isEmpty()) {
-            throw new ResourceNotFoundException("Order", "tokenNumber", tokenNumber);
-        }
-        return orders.get(0);
+        return orderRepository.findByTokenNumber(tokenNumber)
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "tokenNumber", tokenNumber));
     }
 
     /**
@@ -124,7 +242,8 @@ public class OrderService {
     public Order createOrder(Long userId, Long restaurantId, Set<OrderItem> orderItems,
                              String deliveryAddress, String deliveryCity,
                              String deliveryState, String deliveryZipCode,
-                             String contactPhone, String specialInstructions) {
+                             String contactPhone, String specialInstructions,
+                             Double deliveryLatitude, Double deliveryLongitude) {
 
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
@@ -136,8 +255,8 @@ public class OrderService {
         Order order = new Order();
         order.setUser(user);
         order.setRestaurant(restaurant);
-        order.setTokenNumber(generateTokenNumber());
-        order.setStatus("PENDING");
+        order.setTokenNumber(tokenNumberGenerator.nextOrderToken());
+        order.setStatus(EOrderStatus.PENDING.name());
         order.setOrderDate(LocalDateTime.now());
         order.setDeliveryAddress(deliveryAddress);
         order.setDeliveryCity(deliveryCity);
@@ -145,31 +264,26 @@ public class OrderService {
         order.setDeliveryZipCode(deliveryZipCode);
         order.setContactPhone(contactPhone);
         order.setSpecialInstructions(specialInstructions);
-        order.setEstimatedDeliveryTime(calculateEstimatedDeliveryTime());
 
         // Calculate financial values
-        BigDecimal subtotal = calculateSubtotal(orderItems);
-        BigDecimal tax = calculateTax(subtotal);
-        BigDecimal deliveryFee = calculateDeliveryFee(deliveryAddress, restaurant);
-        BigDecimal totalAmount = subtotal.add(tax).add(deliveryFee);
-
-        order.setSubtotal(subtotal);
-        order.setTax(tax);
-        order.setDeliveryFee(deliveryFee);
-        order.setTotalAmount(totalAmount);
+        orderPricingEngine.price(order, orderItems, restaurant, deliveryLatitude, deliveryLongitude);
+        DeliveryEtaEstimator.Estimate estimate =
+                deliveryEtaEstimator.estimate(restaurant, orderItems, deliveryLatitude, deliveryLongitude);
+        order.setEstimatedDeliveryTime(estimate.totalMinutes());
         order.setPaymentStatus("PENDING");
 
-        // Save order first to get ID
-        Order savedOrder = orderRepository.save(order);
-
-        // Save order items and associate with order
-        Set<OrderItem> savedOrderItems = new HashSet<>();
-        for (OrderItem item : orderItems) {
-            item.setOrder(savedOrder);
-            savedOrderItems.add(orderItemRepository.save(item));
+        // Associate items with the order and persist everything through the cascade,
+        // so the item inserts are flushed as one JDBC batch
+        Set<OrderItem> savedOrderItems = new HashSet<>(orderItems);
+        for (OrderItem item : savedOrderItems) {
+            item.setOrder(order);
         }
+        order.setOrderItems(savedOrderItems);
 
-        savedOrder.setOrderItems(savedOrderItems);
+        Order savedOrder = orderRepository.save(order);
+        deliveryEtaEstimator.orderPlaced(savedOrder.getId(), restaurantId, estimate);
+        orderEventBus.orderCreated(savedOrder);
+        orderStatsAggregator.orderCreated(savedOrder);
         return savedOrder;
     }
 
@@ -178,9 +292,44 @@ public class OrderService {
      */
     @Transactional
     public Order updateOrderStatus(Long orderId, String status) {
-        Order order = getOrderById(orderId);
-        order.setStatus(status);
-        return orderRepository.save(order);
+        transitionStatus(orderId, EOrderStatus.from(status));
+        return getOrderById(orderId);
+    }
+
+    /**
+     * Atomically move an order to the target status if the transition is legal.
+     * Loads the order and uses a conditional UPDATE from exactly its loaded status instead of
+     * read-modify-save, so the previous status is known; retries when the status changed in between.
+     * Returns false if the order already had the target status.
+     */
+    @Transactional(noRollbackFor = IllegalStateException.class)
+    public boolean transitionStatus(Long orderId, EOrderStatus target) {
+        for (int attempt = 0; attempt < maxStatusUpdateAttempts; attempt++) {
+            // updateStatusIfIn clears the persistence context, so a retry loads the row again
+            Order order = orderRepository.findById(orderId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+            String current = order.getStatus();
+            if (target.name().equals(current)) {
+                return false;
+            }
+            EOrderStatus previous = EOrderStatus.from(current);
+            if (!previous.canTransitionTo(target)) {
+                throw new IllegalStateException("Cannot change order status from " + current + " to " + target);
+            }
+
+            if (orderRepository.updateStatusIfIn(orderId, target.name(), Set.of(current)) == 1) {
+                // The loaded copy is detached now; bring it in line with the row instead of reading it back
+                order.setStatus(target.name());
+                order.setVersion(order.getVersion() != null ? order.getVersion() + 1 : null);
+                deliveryEtaEstimator.statusChanged(orderId, target);
+                orderEventBus.statusChanged(order);
+                orderStatsAggregator.statusChanged(order, previous);
+                return true;
+            }
+        }
+
+        throw new OptimisticLockingFailureException(
+                "Order " + orderId + " was modified concurrently, status update to " + target + " was not applied");
     }
 
     /**
@@ -199,59 +348,19 @@ public class OrderService {
      */
     @Transactional
     public Order cancelOrder(Long orderId) {
-        Order order = getOrderById(orderId);
-
-        // Only allow cancellation of pending or confirmed orders
-        if (order.getStatus().equals("PENDING") || order.getStatus().equals("CONFIRMED")) {
-            order.setStatus("CANCELLED");
-            return orderRepository.save(order);
-        } else {
-            throw new IllegalStateException("Cannot cancel an order that is already " + order.getStatus());
+        // Only pending or confirmed orders can be cancelled
+        boolean cancelled;
+        try {
+            cancelled = transitionStatus(orderId, EOrderStatus.CANCELLED);
+        } catch (IllegalStateException e) {
+            cancelled = false;
         }
-    }
-
-    /**
-     * Generate a unique token number for the order
-     */
-    private String generateTokenNumber() {
-        return "ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-    }
 
-    /**
-     * Calculate subtotal based on order items
-     */
-    private BigDecimal calculateSubtotal(Set<OrderItem> orderItems) {
-        BigDecimal subtotal = BigDecimal.ZERO;
-        for (OrderItem item : orderItems) {
-            MenuItem menuItem = item.getMenuItem();
-            BigDecimal itemPrice = menuItem.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
-            subtotal = subtotal.add(itemPrice);
+        Order order = getOrderById(orderId);
+        if (!cancelled) {
+            throw new IllegalStateException("Cannot cancel an order that is already " + order.getStatus());
         }
-        return subtotal;
-    }
-
-    /**
-     * Calculate tax amount (typically a percentage of subtotal)
-     */
-    private BigDecimal calculateTax(BigDecimal subtotal) {
-        // Assuming 8% tax rate
-        return subtotal.multiply(new BigDecimal("0.08")).setScale(2, BigDecimal.ROUND_HALF_UP);
-    }
-
-    /**
-     * Calculate delivery fee based on distance and restaurant
-     */
-    private BigDecimal calculateDeliveryFee(String deliveryAddress, Restaurant restaurant) {
-        // Simple implementation - could be enhanced with distance calculation
-        return new BigDecimal("5.99");
-    }
-
-    /**
-     * Calculate estimated delivery time in minutes
-     */
-    private int calculateEstimatedDeliveryTime() {
-        // Simple implementation - returns between 30-60 minutes
-        return 30 + new Random().nextInt(31);
+        return order;
     }
 
     /**
@@ -262,7 +371,7 @@ public class OrderService {
         Order order = getOrderById(orderId);
 
         // Can only add items to pending orders
-        if (!order.getStatus().equals("PENDING")) {
+        if (!EOrderStatus.PENDING.name().equals(order.getStatus())) {
             throw new IllegalStateException("Cannot modify an order that is not pending");
         }
 
@@ -270,20 +379,15 @@ public class OrderService {
         OrderItem savedItem = orderItemRepository.save(orderItem);
 
         // Update order totals
+        BigDecimal previousTotal = order.getTotalAmount();
         Set<OrderItem> updatedItems = order.getOrderItems();
         updatedItems.add(savedItem);
         order.setOrderItems(updatedItems);
+        orderPricingEngine.lineAdded(order, savedItem);
 
-        BigDecimal newSubtotal = calculateSubtotal(updatedItems);
-        BigDecimal newTax = calculateTax(newSubtotal);
-        BigDecimal deliveryFee = order.getDeliveryFee();
-        BigDecimal newTotal = newSubtotal.add(newTax).add(deliveryFee);
-
-        order.setSubtotal(newSubtotal);
-        order.setTax(newTax);
-        order.setTotalAmount(newTotal);
-
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        orderStatsAggregator.amountChanged(savedOrder, previousTotal);
+        return savedOrder;
     }
 
     /**
@@ -294,7 +398,7 @@ public class OrderService {
         Order order = getOrderById(orderId);
 
         // Can only remove items from pending orders
-        if (!order.getStatus().equals("PENDING")) {
+        if (!EOrderStatus.PENDING.name().equals(order.getStatus())) {
             throw new IllegalStateException("Cannot modify an order that is not pending");
         }
 
@@ -305,22 +409,17 @@ public class OrderService {
             throw new IllegalArgumentException("Item does not belong to the specified order");
         }
 
-        // Remove the item
+        // Remove the item and update totals
+        BigDecimal previousTotal = order.getTotalAmount();
         Set<OrderItem> updatedItems = order.getOrderItems();
-        updatedItems.remove(itemToRemove);
+        if (updatedItems.remove(itemToRemove)) {
+            orderPricingEngine.lineRemoved(order, itemToRemove);
+        }
         order.setOrderItems(updatedItems);
 
-        // Update totals
-        BigDecimal newSubtotal = calculateSubtotal(updatedItems);
-        BigDecimal newTax = calculateTax(newSubtotal);
-        BigDecimal deliveryFee = order.getDeliveryFee();
-        BigDecimal newTotal = newSubtotal.add(newTax).add(deliveryFee);
-
-        order.setSubtotal(newSubtotal);
-        order.setTax(newTax);
-        order.setTotalAmount(newTotal);
-
         orderItemRepository.delete(itemToRemove);
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        orderStatsAggregator.amountChanged(savedOrder, previousTotal);
+        return savedOrder;
     }
 }
@@ -0,0 +1,435 @@
+package com.funnfood.restaurant.service;
+
+import com.funnfood.restaurant.model.EOrderStatus;
+import com.funnfood.restaurant.model.Order;
+import com.funnfood.restaurant.model.OrderDailyStats;
+import com.funnfood.restaurant.payload.response.OrderStatsResponse;
+import com.funnfood.restaurant.repository.OrderDailyStatsRepository;
+import com.funnfood.restaurant.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Dashboard aggregates per restaurant: the number and total amount of the orders placed on each day, by status.
+ * <p>
+ * Every order change moves its count and amount between statuses in memory once its transaction commits, so
+ * reading a day's stats is a fixed number of array reads instead of a scan of the orders. The last
+ * {@code app.orders.stats.days-in-memory} days are held; older days are read from the order_daily_stats table.
+ * Changed days are written to that table every {@code app.orders.stats.flush-interval-ms}.
+ * <p>
+ * Changes not yet written when the application stops are lost, so startup recounts the days held in memory
+ * from the orders, and {@link #rebuild()} recounts every day nightly or on demand. Order changes committed while
+ * a recount runs may be counted twice or missed until the next one.
+ */
+@Component
+public class OrderStatsAggregator {
+    private static final Logger logger = LoggerFactory.getLogger(OrderStatsAggregator.class);
+
+    // Orders whose amount counts as revenue: paid for, or taken on by the kitchen
+    public static final Set<EOrderStatus> REVENUE_STATUSES = EnumSet.of(
+            EOrderStatus.PAID, EOrderStatus.PREPARING, EOrderStatus.READY,
+            EOrderStatus.OUT_FOR_DELIVERY, EOrderStatus.DELIVERED);
+
+    private static final EOrderStatus[] STATUSES = EOrderStatus.values();
+    private static final int REBUILD_CHUNK_SIZE = 500;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderDailyStatsRepository orderDailyStatsRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.orders.stats.days-in-memory:7}")
+    private int daysInMemory;
+
+    private final Map<Key, Day> days = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void load() {
+        LocalDate from = horizon();
+        Map<Key, Day> counted = new HashMap<>();
+        for (Object[] row : orderRepository.countByRestaurantDayAndStatus(from.atStartOfDay())) {
+            count(counted, row);
+        }
+        replace(counted, from);
+        ready = true;
+        // The recounted days differ from the table wherever changes were lost, so write them all
+        flush();
+        logger.info("Counted orders of {} restaurant days into the order stats", counted.size());
+    }
+
+    /**
+     * Count a new order once the surrounding transaction commits.
+     */
+    public void orderCreated(Order order) {
+        EOrderStatus status = statusOf(order.getStatus());
+        move(order, null, 0, status, cents(order.getTotalAmount()));
+    }
+
+    /**
+     * Move an order's count and amount from its previous status to its current one.
+     */
+    public void statusChanged(Order order, EOrderStatus previous) {
+        long amount = cents(order.getTotalAmount());
+        move(order, previous, amount, statusOf(order.getStatus()), amount);
+    }
+
+    /**
+     * Reflect a change to an order's total, e.g. an item added to a pending order.
+     */
+    public void amountChanged(Order order, BigDecimal previousTotal) {
+        EOrderStatus status = statusOf(order.getStatus());
+        move(order, status, cents(previousTotal), status, cents(order.getTotalAmount()));
+    }
+
+    /**
+     * Stats of the orders a restaurant received on the given day. Days held in memory are answered without
+     * touching the database.
+     */
+    public OrderStatsResponse getStats(Long restaurantId, LocalDate date) {
+        Day day = days.get(new Key(restaurantId, date));
+        Snapshot snapshot;
+        if (day != null) {
+            snapshot = day.snapshot();
+        } else if (ready && !date.isBefore(horizon())) {
+            // Every day in the window was counted at startup, so a missing day has no orders
+            snapshot = new Day().snapshot();
+        } else {
+            snapshot = fromRows(orderDailyStatsRepository.findByRestaurantIdAndStatsDate(restaurantId, date)).snapshot();
+        }
+        return toResponse(restaurantId, date, snapshot);
+    }
+
+    /**
+     * Write the days changed since the last flush to the summary table and drop clean days that left the window.
+     */
+    @Scheduled(fixedDelayString = "${app.orders.stats.flush-interval-ms:5000}")
+    @Transactional
+    public void flush() {
+        LocalDate from = horizon();
+        days.forEach((key, day) -> {
+            if (key.date().isBefore(from)) {
+                day.retireIfClean(() -> days.remove(key, day));
+            }
+        });
+
+        Map<Key, Day> changed = new HashMap<>();
+        Map<Key, Snapshot> snapshots = new HashMap<>();
+        days.forEach((key, day) -> {
+            Snapshot snapshot = day.snapshot();
+            if (snapshot.version() != day.flushedVersion()) {
+                changed.put(key, day);
+                snapshots.put(key, snapshot);
+            }
+        });
+        if (snapshots.isEmpty()) {
+            return;
+        }
+
+        write(snapshots);
+        // Only mark days written once they are committed; a failed flush is retried next time
+        afterCommit(() -> changed.forEach((key, day) -> day.flushed(snapshots.get(key).version())));
+    }
+
+    /**
+     * Recount every restaurant day from the orders and replace the summary table with the result.
+     * For recovering from lost or wrong aggregates; returns the number of rows written.
+     */
+    @Scheduled(cron = "${app.orders.stats.rebuild-cron:0 45 4 * * *}")
+    @Transactional
+    public int rebuild() {
+        LocalDate from = horizon();
+        LocalDateTime now = LocalDateTime.now();
+        Map<Key, Day> counted = new HashMap<>();
+        List<Object[]> rows = orderRepository.countByRestaurantDayAndStatus(null);
+
+        orderDailyStatsRepository.deleteAllInBatch();
+        List<OrderDailyStats> chunk = new ArrayList<>(REBUILD_CHUNK_SIZE);
+        for (Object[] row : rows) {
+            EOrderStatus status = statusOf((String) row[2]);
+            if (status == null) {
+                continue;
+            }
+            OrderDailyStats stats = new OrderDailyStats((Long) row[0], (LocalDate) row[1], status.name());
+            stats.setOrderCount(((Number) row[3]).longValue());
+            stats.setTotalAmount(OrderPricingEngine.fromCents(cents((BigDecimal) row[4])));
+            stats.setUpdatedAt(now);
+            chunk.add(stats);
+            if (chunk.size() == REBUILD_CHUNK_SIZE) {
+                saveChunk(chunk);
+            }
+            if (!stats.getStatsDate().isBefore(from)) {
+                count(counted, row);
+            }
+        }
+        saveChunk(chunk);
+
+        afterCommit(() -> {
+            // Written in this transaction, so the recounted days start out clean
+            counted.values().forEach(day -> day.flushed(day.snapshot().version()));
+            replace(counted, null);
+        });
+        logger.info("Rebuilt order stats from {} restaurant, day and status groups", rows.size());
+        return rows.size();
+    }
+
+    private void move(Order order, EOrderStatus from, long fromCents, EOrderStatus to, long toCents) {
+        if (to == null || order.getRestaurant() == null || order.getOrderDate() == null) {
+            return;
+        }
+        // Read now; the entity may change before the transaction commits
+        Key key = new Key(order.getRestaurant().getId(), order.getOrderDate().toLocalDate());
+        afterCommit(() -> update(key, day -> day.move(from, fromCents, to, toCents)));
+    }
+
+    private void update(Key key, Consumer<Day> change) {
+        while (true) {
+            Day day = days.computeIfAbsent(key, this::loadDay);
+            synchronized (day) {
+                if (!day.retired) {
+                    change.accept(day);
+                    return;
+                }
+            }
+        }
+    }
+
+    private Day loadDay(Key key) {
+        if (ready && !key.date().isBefore(horizon())) {
+            return new Day();
+        }
+        return fromRows(orderDailyStatsRepository.findByRestaurantIdAndStatsDate(key.restaurantId(), key.date()));
+    }
+
+    /**
+     * Retire the held days from the given date on (all of them for null) and hold the counted days instead.
+     */
+    private void replace(Map<Key, Day> counted, LocalDate from) {
+        LocalDate window = horizon();
+        days.forEach((key, day) -> {
+            if (from == null || !key.date().isBefore(from)) {
+                day.retire(() -> days.remove(key, day));
+            }
+        });
+        counted.forEach((key, day) -> {
+            if (!key.date().isBefore(window)) {
+                days.put(key, day);
+            }
+        });
+    }
+
+    private void write(Map<Key, Snapshot> snapshots) {
+        Set<Long> restaurantIds = new HashSet<>();
+        Set<LocalDate> dates = new HashSet<>();
+        snapshots.keySet().forEach(key -> {
+            restaurantIds.add(key.restaurantId());
+            dates.add(key.date());
+        });
+
+        Map<Key, Map<String, OrderDailyStats>> existing = new HashMap<>();
+        for (OrderDailyStats row : orderDailyStatsRepository.findByRestaurantIdInAndStatsDateIn(restaurantIds, dates)) {
+            existing.computeIfAbsent(new Key(row.getRestaurantId(), row.getStatsDate()), key -> new HashMap<>())
+                    .put(row.getStatus(), row);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderDailyStats> inserts = new ArrayList<>();
+        snapshots.forEach((key, snapshot) -> {
+            Map<String, OrderDailyStats> rows = existing.getOrDefault(key, Map.of());
+            for (EOrderStatus status : STATUSES) {
+                int i = status.ordinal();
+                OrderDailyStats row = rows.get(status.name());
+                if (row == null) {
+                    if (snapshot.counts()[i] == 0 && snapshot.cents()[i] == 0) {
+                        continue;
+                    }
+                    row = new OrderDailyStats(key.restaurantId(), key.date(), status.name());
+                    inserts.add(row);
+                } else if (row.getOrderCount() == snapshot.counts()[i]
+                        && OrderPricingEngine.toCents(row.getTotalAmount()) == snapshot.cents()[i]) {
+                    continue;
+                }
+                // Rows already loaded are managed and written at commit
+                row.setOrderCount(snapshot.counts()[i]);
+                row.setTotalAmount(OrderPricingEngine.fromCents(snapshot.cents()[i]));
+                row.setUpdatedAt(now);
+            }
+        });
+        orderDailyStatsRepository.saveAll(inserts);
+    }
+
+    private void saveChunk(List<OrderDailyStats> chunk) {
+        orderDailyStatsRepository.saveAll(chunk);
+        orderDailyStatsRepository.flush();
+        entityManager.clear();
+        chunk.clear();
+    }
+
+    private static void count(Map<Key, Day> counted, Object[] row) {
+        EOrderStatus status = statusOf((String) row[2]);
+        if (status == null) {
+            return;
+        }
+        counted.computeIfAbsent(new Key((Long) row[0], (LocalDate) row[1]), key -> new Day())
+                .add(status, ((Number) row[3]).longValue(), cents((BigDecimal) row[4]));
+    }
+
+    private static Day fromRows(List<OrderDailyStats> rows) {
+        Day day = new Day();
+        for (OrderDailyStats row : rows) {
+            EOrderStatus status = statusOf(row.getStatus());
+            if (status != null) {
+                day.add(status, row.getOrderCount(), cents(row.getTotalAmount()));
+            }
+        }
+        day.flushed(day.snapshot().version());
+        return day;
+    }
+
+    private static OrderStatsResponse toResponse(Long restaurantId, LocalDate date, Snapshot snapshot) {
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        long total = 0;
+        long revenueOrders = 0;
+        long revenueCents = 0;
+        for (EOrderStatus status : STATUSES) {
+            long count = snapshot.counts()[status.ordinal()];
+            byStatus.put(status.name(), count);
+            total += count;
+            if (REVENUE_STATUSES.contains(status)) {
+                revenueOrders += count;
+                revenueCents += snapshot.cents()[status.ordinal()];
+            }
+        }
+
+        OrderStatsResponse response = new OrderStatsResponse();
+        response.setRestaurantId(restaurantId);
+        response.setDate(date);
+        response.setTotalOrders(total);
+        response.setOrdersByStatus(byStatus);
+        response.setRevenueOrders(revenueOrders);
+        response.setRevenue(OrderPricingEngine.fromCents(revenueCents));
+        response.setAverageTicket(revenueOrders == 0 ? OrderPricingEngine.fromCents(0)
+                : BigDecimal.valueOf(revenueCents).divide(BigDecimal.valueOf(revenueOrders * 100), 2, RoundingMode.HALF_UP));
+        return response;
+    }
+
+    private LocalDate horizon() {
+        return LocalDate.now().minusDays(Math.max(daysInMemory, 1) - 1);
+    }
+
+    // Orders with a status outside the lifecycle are left out of the stats
+    private static EOrderStatus statusOf(String status) {
+        try {
+            return EOrderStatus.from(status);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount == null ? 0 : OrderPricingEngine.toCents(amount.setScale(2, RoundingMode.HALF_UP));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record Key(Long restaurantId, LocalDate date) {
+    }
+
+    private record Snapshot(long version, long[] counts, long[] cents) {
+    }
+
+    /**
+     * Counts and amounts of one restaurant day, indexed by status ordinal. The version counts changes, so a flush
+     * can tell whether the day changed since it was last written.
+     */
+    private static final class Day {
+        private final long[] counts = new long[STATUSES.length];
+        private final long[] cents = new long[STATUSES.length];
+        private long version;
+        private long flushedVersion;
+        // Set once the day is no longer in the map; changes then go to its replacement
+        private boolean retired;
+
+        private synchronized void add(EOrderStatus status, long count, long amount) {
+            counts[status.ordinal()] += count;
+            cents[status.ordinal()] += amount;
+            version++;
+        }
+
+        private synchronized void move(EOrderStatus from, long fromCents, EOrderStatus to, long toCents) {
+            if (from != null) {
+                counts[from.ordinal()]--;
+                cents[from.ordinal()] -= fromCents;
+            }
+            counts[to.ordinal()]++;
+            cents[to.ordinal()] += toCents;
+            version++;
+        }
+
+        private synchronized Snapshot snapshot() {
+            return new Snapshot(version, counts.clone(), cents.clone());
+        }
+
+        private synchronized long flushedVersion() {
+            return flushedVersion;
+        }
+
+        private synchronized void flushed(long writtenVersion) {
+            flushedVersion = Math.max(flushedVersion, writtenVersion);
+        }
+
+        private synchronized void retire(Runnable remove) {
+            retired = true;
+            remove.run();
+        }
+
+        private synchronized void retireIfClean(Runnable remove) {
+            if (version == flushedVersion) {
+                retire(remove);
+            }
+        }
+    }
+}
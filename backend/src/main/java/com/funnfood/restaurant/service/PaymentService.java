@@ -1,12 +1,16 @@
 package com.funnfood.restaurant.service;
 
 import com.funnfood.restaurant.exception.ResourceNotFoundException;
+import com.funnfood.restaurant.model.EOrderStatus;
 import com.funnfood.restaurant.model.Order;
 import com.funnfood.restaurant.model.Payment;
 import com.funnfood.restaurant.payload.request.StripePaymentRequest;
+import com.funnfood.restaurant.payload.response.PaymentStatusResponse;
 import com.funnfood.restaurant.payload.response.StripePaymentResponse;
 import com.funnfood.restaurant.repository.OrderRepository;
 import com.funnfood.restaurant.repository.PaymentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -18,18 +22,20 @@ import java.util.List;
 
 @Service
 public class PaymentService {
+    private static final Logger logger = LoggerFactory.getLogger(PaymentService.class);
+
     @Autowired
     private PaymentRepository paymentRepository;
 
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private OrderService orderService;
+
     @Value("${stripe.api.key}")
     private String stripeApiKey;
 
-    @Value("${stripe.webhook.secret}")
-    private String stripeWebhookSecret;
-
     @Transactional(readOnly = true)
     public List<Payment> getAllPayments() {
         return paymentRepository.findAll();
@@ -43,11 +49,30 @@ public class PaymentService {
 
     @Transactional(readOnly = true)
     public Payment getPaymentByOrder(Long orderId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+        return paymentRepository.findByOrderId(orderId)
+                .orElseThrow(() -> missingPayment(orderId));
+    }
 
-        return paymentRepository.findByOrder(order)
-                .orElseThrow(() -> new ResourceNotFoundException("Payment", "orderId", orderId));
+    /**
+     * Payment and order status for the payment status screen, loaded in one statement
+     */
+    @Transactional(readOnly = true)
+    public PaymentStatusResponse getPaymentStatusByOrder(Long orderId) {
+        Payment payment = paymentRepository.findWithOrderByOrderId(orderId)
+                .orElseThrow(() -> missingPayment(orderId));
+        Order order = payment.getOrder();
+
+        PaymentStatusResponse response = new PaymentStatusResponse();
+        response.setPaymentId(payment.getId());
+        response.setOrderId(order.getId());
+        response.setTokenNumber(order.getTokenNumber());
+        response.setAmount(payment.getAmount());
+        response.setPaymentMethod(payment.getPaymentMethod());
+        response.setPaymentStatus(payment.getStatus());
+        response.setOrderStatus(order.getStatus());
+        response.setPaymentDate(payment.getPaymentDate());
+        response.setRefundDate(payment.getRefundDate());
+        return response;
     }
 
     @Transactional
@@ -63,11 +88,12 @@ public class PaymentService {
         payment.setStatus("COMPLETED");
         payment.setPaymentDate(LocalDateTime.now());
 
+        Payment savedPayment = paymentRepository.save(payment);
+
         // Update order status to PAID
-        order.setStatus("PAID");
-        orderRepository.save(order);
+        updateOrderStatus(order.getId(), EOrderStatus.PAID);
 
-        return paymentRepository.save(payment);
+        return savedPayment;
     }
 
     @Transactional
@@ -77,12 +103,12 @@ public class PaymentService {
         payment.setRefundReason(refundReason);
         payment.setRefundDate(LocalDateTime.now());
 
+        Payment savedPayment = paymentRepository.save(payment);
+
         // Update order status to REFUNDED
-        Order order = payment.getOrder();
-        order.setStatus("REFUNDED");
-        orderRepository.save(order);
+        updateOrderStatus(payment.getOrder().getId(), EOrderStatus.REFUNDED);
 
-        return paymentRepository.save(payment);
+        return savedPayment;
     }
 
     @Transactional
@@ -107,8 +133,7 @@ public class PaymentService {
         payment.setStatus("PENDING");
         payment.setPaymentDate(LocalDateTime.now());
 
-        try{
-        paymentRepository.save(payment);
+        try {
             paymentRepository.save(payment);
         } catch (DataIntegrityViolationException e) {
             throw new RuntimeException("A payment already exists for this order.");
@@ -119,13 +144,6 @@ public class PaymentService {
 
     }
 
-    @Transactional
-    public void handleStripeWebhook(String payload, String signatureHeader) {
-        // In a real implementation, this would validate the Stripe signature and process events
-        // Here we'll just log that we received a webhook
-        System.out.println("Received Stripe webhook: " + payload.substring(0, Math.min(100, payload.length())) + "...");
-    }
-
     @Transactional
     public void updatePaymentStatus(String paymentIntentId, String status) {
         // Find payment by transactionId (paymentIntentId)
@@ -133,16 +151,30 @@ public class PaymentService {
                 .orElseThrow(() -> new ResourceNotFoundException("Payment", "transactionId", paymentIntentId));
 
         payment.setStatus(status);
-
-
+        paymentRepository.save(payment);
 
         // If payment is successful, update order status
         if ("COMPLETED".equals(status) || "succeeded".equals(status)) {
-            Order order = payment.getOrder();
-            order.setStatus("PAID");
-            orderRepository.save(order);
+            updateOrderStatus(payment.getOrder().getId(), EOrderStatus.PAID);
         }
+    }
 
-        paymentRepository.save(payment);
+    // The order is only checked on a miss, to tell a missing order from an unpaid one
+    private ResourceNotFoundException missingPayment(Long orderId) {
+        return orderRepository.existsById(orderId)
+                ? new ResourceNotFoundException("Payment", "orderId", orderId)
+                : new ResourceNotFoundException("Order", "id", orderId);
+    }
+
+    /**
+     * Apply a payment-driven status change through the order state machine.
+     * An order that has already moved past the target state keeps its status; the payment itself is still recorded.
+     */
+    private void updateOrderStatus(Long orderId, EOrderStatus target) {
+        try {
+            orderService.transitionStatus(orderId, target);
+        } catch (IllegalStateException e) {
+            logger.warn("Order {} status not changed by payment: {}", orderId, e.getMessage());
+        }
     }
 }
@@ -0,0 +1,157 @@
+package com.funnfood.restaurant.service;
+
+import com.funnfood.restaurant.exception.BadRequestException;
+import com.funnfood.restaurant.exception.ResourceNotFoundException;
+import com.funnfood.restaurant.model.DeliveryFeeBand;
+import com.funnfood.restaurant.model.PricingRule;
+import com.funnfood.restaurant.model.Restaurant;
+import com.funnfood.restaurant.payload.request.PricingRuleRequest;
+import com.funnfood.restaurant.payload.response.DeliveryQuoteResponse;
+import com.funnfood.restaurant.payload.response.PricingRuleResponse;
+import com.funnfood.restaurant.repository.PricingRuleRepository;
+import com.funnfood.restaurant.repository.RestaurantRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class PricingRuleService {
+    @Autowired
+    private PricingRuleRepository pricingRuleRepository;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private PricingRuleTable pricingRuleTable;
+
+    @Autowired
+    private RestaurantGeoIndex restaurantGeoIndex;
+
+    /**
+     * Get the pricing rule of a restaurant, or the defaults if it has none
+     */
+    @Transactional(readOnly = true)
+    public PricingRuleResponse getRule(Long restaurantId) {
+        if (!restaurantRepository.existsById(restaurantId)) {
+            throw new ResourceNotFoundException("Restaurant", "id", restaurantId);
+        }
+        return pricingRuleRepository.findByRestaurantId(restaurantId)
+                .map(this::mapToResponse)
+                .orElseGet(() -> defaultResponse(restaurantId));
+    }
+
+    /**
+     * Create or replace the pricing rule of a restaurant
+     */
+    @Transactional
+    public PricingRuleResponse saveRule(Long restaurantId, PricingRuleRequest request) {
+        Restaurant restaurant = restaurantRepository.findById(restaurantId)
+                .orElseThrow(() -> new ResourceNotFoundException("Restaurant", "id", restaurantId));
+
+        List<DeliveryFeeBand> bands = new ArrayList<>();
+        for (PricingRuleRequest.FeeBand band : request.getFeeBands()) {
+            bands.add(new DeliveryFeeBand(band.getMaxDistanceKm(), band.getFee()));
+        }
+        bands.sort(Comparator.comparingDouble(DeliveryFeeBand::getMaxDistanceKm));
+        for (int i = 1; i < bands.size(); i++) {
+            if (bands.get(i).getMaxDistanceKm() == bands.get(i - 1).getMaxDistanceKm()) {
+                throw new BadRequestException("Two fee bands end at " + bands.get(i).getMaxDistanceKm() + " km");
+            }
+        }
+
+        PricingRule rule = pricingRuleRepository.findByRestaurantId(restaurantId).orElseGet(PricingRule::new);
+        rule.setRestaurant(restaurant);
+        rule.setTaxRate(request.getTaxRate());
+        rule.getFeeBands().clear();
+        rule.getFeeBands().addAll(bands);
+        rule.setUpdatedAt(LocalDateTime.now());
+
+        PricingRule savedRule = pricingRuleRepository.save(rule);
+        pricingRuleTable.ruleSaved(savedRule);
+        return mapToResponse(savedRule);
+    }
+
+    /**
+     * Delete the pricing rule of a restaurant so the defaults apply again
+     */
+    @Transactional
+    public void deleteRule(Long restaurantId) {
+        PricingRule rule = pricingRuleRepository.findByRestaurantId(restaurantId)
+                .orElseThrow(() -> new ResourceNotFoundException("PricingRule", "restaurantId", restaurantId));
+        pricingRuleRepository.delete(rule);
+        pricingRuleTable.ruleDeleted(restaurantId);
+    }
+
+    /**
+     * Delivery fee, and tax if a subtotal is given, for delivering to a point. Served from the compiled
+     * rule table and the restaurant geo index, so typing an address does not hit the database.
+     */
+    public DeliveryQuoteResponse quote(Long restaurantId, double latitude, double longitude, BigDecimal subtotal) {
+        RestaurantGeoIndex.Location location = restaurantGeoIndex.isReady() ? restaurantGeoIndex.location(restaurantId) : null;
+        if (location == null) {
+            Restaurant restaurant = restaurantRepository.findById(restaurantId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Restaurant", "id", restaurantId));
+            location = new RestaurantGeoIndex.Location(restaurant.getLatitude(), restaurant.getLongitude(),
+                    restaurant.getDeliveryRadiusKm());
+        }
+
+        PricingRuleTable.CompiledRule rule = pricingRuleTable.ruleFor(restaurantId);
+        double distanceKm = RestaurantGeoIndex.distanceKm(location.latitude(), location.longitude(), latitude, longitude);
+        long feeCents = OrderPricingEngine.deliveryFeeCents(rule, distanceKm, location.radiusKm());
+
+        DeliveryQuoteResponse response = new DeliveryQuoteResponse();
+        response.setRestaurantId(restaurantId);
+        response.setDistanceKm(distanceKm);
+        response.setTaxRate(BigDecimal.valueOf(rule.taxBasisPoints(), 4));
+        response.setDeliverable(feeCents != PricingRuleTable.NOT_DELIVERABLE);
+        if (response.isDeliverable()) {
+            response.setDeliveryFee(OrderPricingEngine.fromCents(feeCents));
+        }
+        if (subtotal != null) {
+            long subtotalCents;
+            try {
+                subtotalCents = OrderPricingEngine.toCents(subtotal);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Subtotal must be a whole number of cents");
+            }
+            long taxCents = rule.taxCents(subtotalCents);
+            response.setTax(OrderPricingEngine.fromCents(taxCents));
+            if (response.isDeliverable()) {
+                response.setTotal(OrderPricingEngine.fromCents(subtotalCents + taxCents + feeCents));
+            }
+        }
+        return response;
+    }
+
+    private PricingRuleResponse mapToResponse(PricingRule rule) {
+        PricingRuleResponse response = new PricingRuleResponse();
+        response.setRestaurantId(rule.getRestaurant().getId());
+        response.setTaxRate(rule.getTaxRate());
+        response.setFeeBands(rule.getFeeBands().stream()
+                .map(band -> new PricingRuleResponse.FeeBand(band.getMaxDistanceKm(), band.getFee()))
+                .collect(Collectors.toList()));
+        response.setFlatDeliveryFee(OrderPricingEngine.fromCents(pricingRuleTable.compile(rule).flatFeeCents()));
+        response.setDefaultRule(false);
+        response.setUpdatedAt(rule.getUpdatedAt());
+        return response;
+    }
+
+    private PricingRuleResponse defaultResponse(Long restaurantId) {
+        PricingRuleResponse response = new PricingRuleResponse();
+        response.setRestaurantId(restaurantId);
+        response.setTaxRate(pricingRuleTable.getDefaultTaxRate());
+        response.setFeeBands(Collections.emptyList());
+        response.setFlatDeliveryFee(pricingRuleTable.getDefaultDeliveryFee());
+        response.setDefaultRule(true);
+        return response;
+    }
+}
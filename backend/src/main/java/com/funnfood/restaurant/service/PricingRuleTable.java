@@ -0,0 +1,189 @@
+package com.funnfood.restaurant.service;
+
+import com.funnfood.restaurant.model.DeliveryFeeBand;
+import com.funnfood.restaurant.model.PricingRule;
+import com.funnfood.restaurant.repository.PricingRuleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pricing rules of every restaurant, compiled to primitive arrays for quoting without allocation.
+ * <p>
+ * The table is an immutable map replaced as a whole on every rule change, after the change commits; rule writes
+ * are rare next to quotes, so readers never lock. Restaurants without a rule get the configured defaults:
+ * {@code app.pricing.default-tax-rate} and a flat {@code app.pricing.default-delivery-fee}.
+ */
+@Component
+public class PricingRuleTable {
+    private static final Logger logger = LoggerFactory.getLogger(PricingRuleTable.class);
+
+    public static final long NOT_DELIVERABLE = -1;
+
+    @Autowired
+    private PricingRuleRepository pricingRuleRepository;
+
+    private final BigDecimal defaultTaxRate;
+    private final BigDecimal defaultDeliveryFee;
+    private final CompiledRule defaultRule;
+
+    private volatile Map<Long, CompiledRule> rules = Collections.emptyMap();
+
+    public PricingRuleTable(@Value("${app.pricing.default-tax-rate:0.08}") BigDecimal defaultTaxRate,
+                            @Value("${app.pricing.default-delivery-fee:5.99}") BigDecimal defaultDeliveryFee) {
+        this.defaultTaxRate = defaultTaxRate;
+        this.defaultDeliveryFee = defaultDeliveryFee;
+        this.defaultRule = new CompiledRule(toBasisPoints(defaultTaxRate), new double[0], new long[0],
+                OrderPricingEngine.toCents(defaultDeliveryFee));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        Map<Long, CompiledRule> loaded = new HashMap<>();
+        for (PricingRule rule : pricingRuleRepository.findAllWithBands()) {
+            loaded.put(rule.getRestaurant().getId(), compile(rule));
+        }
+        rules = Collections.unmodifiableMap(loaded);
+        logger.info("Loaded {} restaurant pricing rules", loaded.size());
+    }
+
+    /**
+     * The rule of the restaurant, or the defaults if it has none.
+     */
+    public CompiledRule ruleFor(Long restaurantId) {
+        CompiledRule rule = restaurantId != null ? rules.get(restaurantId) : null;
+        return rule != null ? rule : defaultRule;
+    }
+
+    public boolean hasRule(Long restaurantId) {
+        return rules.containsKey(restaurantId);
+    }
+
+    public BigDecimal getDefaultTaxRate() {
+        return defaultTaxRate;
+    }
+
+    public BigDecimal getDefaultDeliveryFee() {
+        return defaultDeliveryFee;
+    }
+
+    /**
+     * Recompile a saved rule once the surrounding transaction commits.
+     */
+    public void ruleSaved(PricingRule rule) {
+        Long restaurantId = rule.getRestaurant().getId();
+        CompiledRule compiled = compile(rule);
+        afterCommit(() -> replace(restaurantId, compiled));
+    }
+
+    public void ruleDeleted(Long restaurantId) {
+        afterCommit(() -> replace(restaurantId, null));
+    }
+
+    synchronized void replace(Long restaurantId, CompiledRule compiled) {
+        Map<Long, CompiledRule> next = new HashMap<>(rules);
+        if (compiled != null) {
+            next.put(restaurantId, compiled);
+        } else {
+            next.remove(restaurantId);
+        }
+        rules = Collections.unmodifiableMap(next);
+    }
+
+    CompiledRule compile(PricingRule rule) {
+        List<DeliveryFeeBand> bands = rule.getFeeBands().stream()
+                .sorted((a, b) -> Double.compare(a.getMaxDistanceKm(), b.getMaxDistanceKm()))
+                .toList();
+        double[] limits = new double[bands.size()];
+        long[] fees = new long[bands.size()];
+        for (int i = 0; i < bands.size(); i++) {
+            limits[i] = bands.get(i).getMaxDistanceKm();
+            fees[i] = OrderPricingEngine.toCents(bands.get(i).getFee());
+        }
+        // Without a known distance, charge the widest band
+        long flatFee = fees.length > 0 ? fees[fees.length - 1] : defaultRule.flatFeeCents();
+        return new CompiledRule(toBasisPoints(rule.getTaxRate()), limits, fees, flatFee);
+    }
+
+    static long toBasisPoints(BigDecimal rate) {
+        try {
+            return rate.movePointRight(4).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Tax rate " + rate + " has more than four decimal places", e);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Tax rate in basis points and delivery fee bands as parallel arrays sorted by distance.
+     */
+    public static final class CompiledRule {
+        private static final long BASIS_POINTS = 10_000;
+
+        private final long taxBasisPoints;
+        private final double[] bandLimitsKm;
+        private final long[] bandFeesCents;
+        private final long flatFeeCents;
+
+        CompiledRule(long taxBasisPoints, double[] bandLimitsKm, long[] bandFeesCents, long flatFeeCents) {
+            this.taxBasisPoints = taxBasisPoints;
+            this.bandLimitsKm = bandLimitsKm;
+            this.bandFeesCents = bandFeesCents;
+            this.flatFeeCents = flatFeeCents;
+        }
+
+        public long taxCents(long subtotalCents) {
+            return OrderPricingEngine.divideHalfUp(Math.multiplyExact(subtotalCents, taxBasisPoints), BASIS_POINTS);
+        }
+
+        /**
+         * Fee of the first band reaching the distance, or {@link #NOT_DELIVERABLE} beyond the last band.
+         */
+        public long deliveryFeeCents(double distanceKm) {
+            if (bandLimitsKm.length == 0) {
+                return flatFeeCents;
+            }
+            for (int i = 0; i < bandLimitsKm.length; i++) {
+                if (distanceKm <= bandLimitsKm[i]) {
+                    return bandFeesCents[i];
+                }
+            }
+            return NOT_DELIVERABLE;
+        }
+
+        /**
+         * Fee when the delivery distance is unknown.
+         */
+        public long flatFeeCents() {
+            return flatFeeCents;
+        }
+
+        public long taxBasisPoints() {
+            return taxBasisPoints;
+        }
+    }
+}
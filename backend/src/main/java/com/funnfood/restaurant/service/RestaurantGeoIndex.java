@@ -0,0 +1,217 @@
+package com.funnfood.restaurant.service;
+
+import com.funnfood.restaurant.model.Restaurant;
+import com.funnfood.restaurant.repository.RestaurantRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory grid of restaurant coordinates for nearby searches.
+ * <p>
+ * Restaurants are bucketed into cells of {@code app.restaurants.geo.cell-degrees} degrees. A search only visits
+ * the cells inside the bounding box of the largest delivery radius around the customer, and computes the exact
+ * haversine distance for the restaurants found there. Until the index has loaded, callers fall back to the database.
+ * Boxes are not wrapped around the antimeridian.
+ */
+@Component
+public class RestaurantGeoIndex {
+    private static final Logger logger = LoggerFactory.getLogger(RestaurantGeoIndex.class);
+
+    static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180.0;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    private final double cellDegrees;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Entry>> cells = new ConcurrentHashMap<>();
+
+    // Only ever grows between rebuilds, which keeps the bounding box conservative
+    private volatile double maxRadiusKm;
+    private volatile boolean ready;
+
+    public RestaurantGeoIndex(@Value("${app.restaurants.geo.cell-degrees:0.1}") double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        entries.clear();
+        cells.clear();
+        maxRadiusKm = 0;
+        List<Object[]> rows = restaurantRepository.findAllLocations();
+        for (Object[] row : rows) {
+            put((Long) row[0], (Double) row[1], (Double) row[2], (Double) row[3], (String) row[4]);
+        }
+        ready = true;
+        logger.info("Loaded {} restaurants into the geo index", rows.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Restaurants in the city whose delivery radius covers the point, nearest first.
+     */
+    public List<Hit> findNearby(String city, double latitude, double longitude) {
+        double radiusKm = maxRadiusKm;
+        double latDelta = radiusKm / KM_PER_DEGREE;
+        double cosLat = Math.cos(Math.toRadians(Math.min(89.0, Math.abs(latitude) + latDelta)));
+        double lonDelta = Math.min(180.0, radiusKm / (KM_PER_DEGREE * cosLat));
+
+        long minRow = cellIndex(latitude - latDelta);
+        long maxRow = cellIndex(latitude + latDelta);
+        long minCol = cellIndex(longitude - lonDelta);
+        long maxCol = cellIndex(longitude + lonDelta);
+
+        List<Hit> hits = new ArrayList<>();
+        if ((maxRow - minRow + 1) * (maxCol - minCol + 1) > cells.size()) {
+            // Box covers more cells than exist, so scanning the occupied ones is cheaper
+            for (Set<Entry> cell : cells.values()) {
+                collect(cell, city, latitude, longitude, hits);
+            }
+        } else {
+            for (long row = minRow; row <= maxRow; row++) {
+                for (long col = minCol; col <= maxCol; col++) {
+                    Set<Entry> cell = cells.get(cellKey(row, col));
+                    if (cell != null) {
+                        collect(cell, city, latitude, longitude, hits);
+                    }
+                }
+            }
+        }
+
+        hits.sort(Comparator.comparingDouble(Hit::distanceKm));
+        return hits;
+    }
+
+    /**
+     * Reflect a saved restaurant in the index once the surrounding transaction commits.
+     */
+    public void restaurantSaved(Restaurant restaurant) {
+        Long id = restaurant.getId();
+        double latitude = restaurant.getLatitude();
+        double longitude = restaurant.getLongitude();
+        double radiusKm = restaurant.getDeliveryRadiusKm();
+        String city = restaurant.getCity();
+        afterCommit(() -> put(id, latitude, longitude, radiusKm, city));
+    }
+
+    public void restaurantDeleted(Long id) {
+        afterCommit(() -> remove(id));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Coordinates and delivery radius of an indexed restaurant, or null.
+     */
+    public Location location(Long id) {
+        Entry entry = entries.get(id);
+        return entry != null ? new Location(entry.latitude(), entry.longitude(), entry.radiusKm()) : null;
+    }
+
+    static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    void put(Long id, double latitude, double longitude, double radiusKm, String city) {
+        Entry entry = new Entry(id, latitude, longitude, radiusKm, city);
+        entries.compute(id, (key, previous) -> {
+            if (previous != null) {
+                removeFromCell(previous);
+            }
+            cells.compute(cellKey(cellIndex(latitude), cellIndex(longitude)), (k, cell) -> {
+                Set<Entry> target = cell != null ? cell : ConcurrentHashMap.newKeySet();
+                target.add(entry);
+                return target;
+            });
+            return entry;
+        });
+        if (radiusKm > maxRadiusKm) {
+            synchronized (this) {
+                maxRadiusKm = Math.max(maxRadiusKm, radiusKm);
+            }
+        }
+    }
+
+    void remove(Long id) {
+        entries.computeIfPresent(id, (key, previous) -> {
+            removeFromCell(previous);
+            return null;
+        });
+    }
+
+    private void collect(Set<Entry> cell, String city, double latitude, double longitude, List<Hit> hits) {
+        for (Entry entry : cell) {
+            if (!entry.city().equals(city)) {
+                continue;
+            }
+            double distance = distanceKm(latitude, longitude, entry.latitude(), entry.longitude());
+            if (distance <= entry.radiusKm()) {
+                hits.add(new Hit(entry.id(), distance));
+            }
+        }
+    }
+
+    private void removeFromCell(Entry entry) {
+        long key = cellKey(cellIndex(entry.latitude()), cellIndex(entry.longitude()));
+        cells.computeIfPresent(key, (k, cell) -> {
+            cell.remove(entry);
+            return cell.isEmpty() ? null : cell;
+        });
+    }
+
+    private long cellIndex(double degrees) {
+        return (long) Math.floor(degrees / cellDegrees);
+    }
+
+    private static long cellKey(long row, long col) {
+        return (row << 32) ^ (col & 0xffffffffL);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record Entry(Long id, double latitude, double longitude, double radiusKm, String city) {
+    }
+
+    public record Hit(Long restaurantId, double distanceKm) {
+    }
+
+    public record Location(double latitude, double longitude, double radiusKm) {
+    }
+}
@@ -5,13 +5,18 @@ import com.funnfood.restaurant.model.Restaurant;
 import com.funnfood.restaurant.model.User;
 import com.funnfood.restaurant.payload.request.RestaurantRequest;
 import com.funnfood.restaurant.payload.response.RestaurantResponse;
+import com.funnfood.restaurant.repository.PricingRuleRepository;
 import com.funnfood.restaurant.repository.RestaurantRepository;
 import com.funnfood.restaurant.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,6 +27,15 @@ public class RestaurantService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private RestaurantGeoIndex restaurantGeoIndex;
+
+    @Autowired
+    private PricingRuleRepository pricingRuleRepository;
+
+    @Autowired
+    private PricingRuleTable pricingRuleTable;
+
     @Transactional(readOnly = true)
     public List<RestaurantResponse> getAllRestaurants() {
         return restaurantRepository.findAll().stream()
@@ -50,11 +64,38 @@ public class RestaurantService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Restaurants in the city that deliver to the given point, nearest first, with their distance in km.
+     */
     @Transactional(readOnly = true)
     public List<RestaurantResponse> getNearbyRestaurants(String city, double latitude, double longitude) {
-        return restaurantRepository.findNearbyRestaurants(city, latitude, longitude).stream()
-                .map(this::mapToRestaurantResponse)
-                .collect(Collectors.toList());
+        if (!restaurantGeoIndex.isReady()) {
+            return restaurantRepository.findNearbyRestaurants(city, latitude, longitude).stream()
+                    .map(restaurant -> {
+                        RestaurantResponse response = mapToRestaurantResponse(restaurant);
+                        response.setDistanceKm(RestaurantGeoIndex.distanceKm(latitude, longitude,
+                                restaurant.getLatitude(), restaurant.getLongitude()));
+                        return response;
+                    })
+                    .sorted(Comparator.comparingDouble(RestaurantResponse::getDistanceKm))
+                    .collect(Collectors.toList());
+        }
+
+        List<RestaurantGeoIndex.Hit> hits = restaurantGeoIndex.findNearby(city, latitude, longitude);
+        Map<Long, Restaurant> restaurants = restaurantRepository.findAllById(
+                        hits.stream().map(RestaurantGeoIndex.Hit::restaurantId).toList()).stream()
+                .collect(Collectors.toMap(Restaurant::getId, Function.identity()));
+
+        List<RestaurantResponse> responses = new ArrayList<>(hits.size());
+        for (RestaurantGeoIndex.Hit hit : hits) {
+            Restaurant restaurant = restaurants.get(hit.restaurantId());
+            if (restaurant != null) {
+                RestaurantResponse response = mapToRestaurantResponse(restaurant);
+                response.setDistanceKm(hit.distanceKm());
+                responses.add(response);
+            }
+        }
+        return responses;
     }
 
     @Transactional
@@ -62,6 +103,7 @@ public class RestaurantService {
         Restaurant restaurant = new Restaurant();
         mapRestaurantRequestToEntity(restaurantRequest, restaurant);
         Restaurant savedRestaurant = restaurantRepository.save(restaurant);
+        restaurantGeoIndex.restaurantSaved(savedRestaurant);
         return mapToRestaurantResponse(savedRestaurant);
     }
 
@@ -72,6 +114,7 @@ public class RestaurantService {
 
         mapRestaurantRequestToEntity(restaurantRequest, restaurant);
         Restaurant updatedRestaurant = restaurantRepository.save(restaurant);
+        restaurantGeoIndex.restaurantSaved(updatedRestaurant);
         return mapToRestaurantResponse(updatedRestaurant);
     }
 
@@ -79,7 +122,12 @@ public class RestaurantService {
     public void deleteRestaurant(Long id) {
         Restaurant restaurant = restaurantRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Restaurant", "id", id));
+        pricingRuleRepository.findByRestaurantId(id).ifPresent(rule -> {
+            pricingRuleRepository.delete(rule);
+            pricingRuleTable.ruleDeleted(id);
+        });
         restaurantRepository.delete(restaurant);
+        restaurantGeoIndex.restaurantDeleted(id);
     }
 
     private void mapRestaurantRequestToEntity(RestaurantRequest request, Restaurant restaurant) {
@@ -4,6 +4,7 @@ import com.funnfood.restaurant.exception.ResourceNotFoundException;
 import com.funnfood.restaurant.model.ERole;
 import com.funnfood.restaurant.model.Role;
 import com.funnfood.restaurant.repository.RoleRepository;
+import com.funnfood.restaurant.security.jwt.JwtTokenCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,6 +17,9 @@ public class RoleService {
     @Autowired
     private RoleRepository roleRepository;
 
+    @Autowired
+    private JwtTokenCache jwtTokenCache;
+
     @Transactional(readOnly = true)
     public List<Role> getAllRoles() {
         return roleRepository.findAll();
@@ -42,12 +46,16 @@ public class RoleService {
     public Role updateRole(Long id, Role roleDetails) {
         Role role = getRoleById(id);
         role.setName(roleDetails.getName());
-        return roleRepository.save(role);
+        Role savedRole = roleRepository.save(role);
+        // Cached principals carry the old role names, so drop all of them
+        jwtTokenCache.invalidateAll();
+        return savedRole;
     }
 
     @Transactional
     public void deleteRole(Long id) {
         Role role = getRoleById(id);
         roleRepository.delete(role);
+        jwtTokenCache.invalidateAll();
     }
 }
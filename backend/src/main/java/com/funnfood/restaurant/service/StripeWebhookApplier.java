@@ -0,0 +1,160 @@
+package com.funnfood.restaurant.service;
+
+import com.funnfood.restaurant.model.EOrderStatus;
+import com.funnfood.restaurant.model.Payment;
+import com.funnfood.restaurant.model.StripeWebhookEvent;
+import com.funnfood.restaurant.repository.PaymentRepository;
+import com.funnfood.restaurant.repository.StripeWebhookEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies batches of Stripe webhook events to payments and orders.
+ */
+@Service
+public class StripeWebhookApplier {
+    private static final Logger logger = LoggerFactory.getLogger(StripeWebhookApplier.class);
+
+    // Payment status and, where the order moves too, order status for each event type we act on
+    private static final Map<String, String> PAYMENT_STATUSES = Map.of(
+            "payment_intent.succeeded", "COMPLETED",
+            "payment_intent.payment_failed", "FAILED",
+            "payment_intent.canceled", "CANCELLED",
+            "charge.refunded", "REFUNDED");
+    // Payment statuses each of those may replace. Stripe does not deliver events in order, so e.g. a failure
+    // notice for an earlier attempt can arrive after the success and must not undo it
+    private static final Map<String, Set<String>> PAYMENT_SOURCES = Map.of(
+            "COMPLETED", Set.of("PENDING", "FAILED"),
+            "FAILED", Set.of("PENDING"),
+            "CANCELLED", Set.of("PENDING", "FAILED"),
+            "REFUNDED", Set.of("COMPLETED"));
+    private static final Map<String, EOrderStatus> ORDER_STATUSES = Map.of(
+            "payment_intent.succeeded", EOrderStatus.PAID,
+            "charge.refunded", EOrderStatus.REFUNDED);
+
+    @Autowired
+    private StripeWebhookEventRepository stripeWebhookEventRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    /**
+     * Apply the events in order within one transaction: payments and the event log are written first,
+     * then the order transitions. Events already applied are skipped unless they are replays.
+     */
+    @Transactional
+    public void applyBatch(List<StripeWebhookIngestor.ReceivedEvent> events) {
+        Map<String, StripeWebhookEvent> stored = new HashMap<>();
+        for (StripeWebhookEvent event : stripeWebhookEventRepository.findByEventIdIn(
+                events.stream().map(StripeWebhookIngestor.ReceivedEvent::eventId).toList())) {
+            stored.put(event.getEventId(), event);
+        }
+
+        Map<String, Payment> payments = paymentRepository.findByStripePaymentIntentIdIn(events.stream()
+                        .map(StripeWebhookIngestor.ReceivedEvent::paymentIntentId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Payment::getStripePaymentIntentId, Function.identity(), (a, b) -> a));
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, StripeWebhookEvent> rows = new LinkedHashMap<>();
+        List<Map.Entry<Long, EOrderStatus>> transitions = new ArrayList<>();
+        for (StripeWebhookIngestor.ReceivedEvent event : events) {
+            StripeWebhookEvent row = rows.containsKey(event.eventId()) ? rows.get(event.eventId()) : stored.get(event.eventId());
+            if (row != null && !event.replay() && !StripeWebhookEvent.STATUS_FAILED.equals(row.getStatus())) {
+                continue;
+            }
+            if (row == null) {
+                row = newRow(event);
+            }
+            rows.put(event.eventId(), row);
+            row.setAppliedAt(now);
+            row.setLastError(null);
+
+            String paymentStatus = PAYMENT_STATUSES.get(event.type());
+            if (paymentStatus == null) {
+                row.setStatus(StripeWebhookEvent.STATUS_IGNORED);
+                continue;
+            }
+
+            Payment payment = event.paymentIntentId() != null ? payments.get(event.paymentIntentId()) : null;
+            if (payment == null) {
+                // Can arrive before the payment is recorded; replay the FAILED events once it is
+                row.setStatus(StripeWebhookEvent.STATUS_FAILED);
+                row.setLastError("No payment for payment intent " + event.paymentIntentId());
+                continue;
+            }
+
+            String currentStatus = payment.getStatus() != null ? payment.getStatus() : "PENDING";
+            if (!currentStatus.equals(paymentStatus) && !PAYMENT_SOURCES.get(paymentStatus).contains(currentStatus)) {
+                row.setStatus(StripeWebhookEvent.STATUS_IGNORED);
+                row.setLastError("Payment is already " + currentStatus);
+                continue;
+            }
+
+            payment.setStatus(paymentStatus);
+            if ("REFUNDED".equals(paymentStatus) && payment.getRefundDate() == null) {
+                payment.setRefundDate(now);
+            }
+            EOrderStatus orderStatus = ORDER_STATUSES.get(event.type());
+            if (orderStatus != null) {
+                transitions.add(Map.entry(payment.getOrder().getId(), orderStatus));
+            }
+            row.setStatus(StripeWebhookEvent.STATUS_APPLIED);
+        }
+
+        // Status updates clear the persistence context, so everything else is flushed before them
+        stripeWebhookEventRepository.saveAll(rows.values());
+        stripeWebhookEventRepository.flush();
+
+        for (Map.Entry<Long, EOrderStatus> transition : transitions) {
+            try {
+                orderService.transitionStatus(transition.getKey(), transition.getValue());
+            } catch (IllegalStateException e) {
+                logger.warn("Order {} status not changed by Stripe event: {}", transition.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Store an event that could not be applied as FAILED, so it can be found and replayed.
+     */
+    @Transactional
+    public void recordFailure(StripeWebhookIngestor.ReceivedEvent event, Exception error) {
+        StripeWebhookEvent row = stripeWebhookEventRepository.findByEventIdIn(List.of(event.eventId())).stream()
+                .findFirst()
+                .orElseGet(() -> newRow(event));
+        String message = error.getMessage() == null ? error.getClass().getSimpleName() : error.getMessage();
+        row.setStatus(StripeWebhookEvent.STATUS_FAILED);
+        row.setLastError(message.length() > 1000 ? message.substring(0, 1000) : message);
+        stripeWebhookEventRepository.save(row);
+    }
+
+    private static StripeWebhookEvent newRow(StripeWebhookIngestor.ReceivedEvent event) {
+        StripeWebhookEvent row = new StripeWebhookEvent();
+        row.setEventId(event.eventId());
+        row.setType(event.type());
+        row.setPaymentIntentId(event.paymentIntentId());
+        row.setPayload(event.payload());
+        row.setReceivedAt(event.receivedAt());
+        return row;
+    }
+}
@@ -0,0 +1,263 @@
+package com.funnfood.restaurant.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.funnfood.restaurant.exception.BadRequestException;
+import com.funnfood.restaurant.model.StripeWebhookEvent;
+import com.funnfood.restaurant.repository.StripeWebhookEventRepository;
+import com.stripe.exception.SignatureVerificationException;
+import com.stripe.net.Webhook;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Receives Stripe webhooks and applies them off the request path.
+ * <p>
+ * A webhook is verified, parsed and acknowledged as soon as it is on a bounded in-process queue; when the queue
+ * is full it is refused so Stripe retries later. Event ids seen within {@code app.stripe.webhook.dedupe-window}
+ * events are dropped as redeliveries, and the stored event log catches older ones. A single worker drains the
+ * queue in batches of up to {@code app.stripe.webhook.batch-size}, each applied in one transaction by the
+ * {@link StripeWebhookApplier}. If a batch fails its events are retried one by one so a bad event only fails
+ * itself. Events still queued when the application stops are drained before shutdown, but a crash loses them.
+ */
+@Service
+public class StripeWebhookIngestor {
+    private static final Logger logger = LoggerFactory.getLogger(StripeWebhookIngestor.class);
+
+    public enum Outcome { ACCEPTED, DUPLICATE, REJECTED }
+
+    @Autowired
+    private StripeWebhookApplier stripeWebhookApplier;
+
+    @Autowired
+    private StripeWebhookEventRepository stripeWebhookEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("stripeWebhookWorker")
+    private ThreadPoolTaskExecutor worker;
+
+    @Value("${stripe.webhook.secret}")
+    private String webhookSecret;
+
+    @Value("${app.stripe.webhook.tolerance-seconds:300}")
+    private long toleranceSeconds;
+
+    @Value("${app.stripe.webhook.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.stripe.webhook.dedupe-window:100000}")
+    private int dedupeWindow;
+
+    private final BlockingQueue<ReceivedEvent> queue;
+
+    private final Set<String> recentEventIds = ConcurrentHashMap.newKeySet();
+    private final Queue<String> recentOrder = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private volatile boolean running;
+
+    public StripeWebhookIngestor(@Value("${app.stripe.webhook.queue-capacity:10000}") int queueCapacity) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        worker.execute(this::drain);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * Verify a webhook and queue it. Throws BadRequestException for a bad signature or payload.
+     */
+    public Outcome receive(String payload, String signatureHeader) {
+        try {
+            Webhook.Signature.verifyHeader(payload, signatureHeader, webhookSecret, toleranceSeconds);
+        } catch (SignatureVerificationException e) {
+            throw new BadRequestException("Invalid Stripe signature");
+        }
+
+        ReceivedEvent event = parse(payload);
+        if (!recentEventIds.add(event.eventId())) {
+            duplicates.increment();
+            return Outcome.DUPLICATE;
+        }
+
+        inFlight.incrementAndGet();
+        if (!queue.offer(event)) {
+            inFlight.decrementAndGet();
+            recentEventIds.remove(event.eventId());
+            rejected.increment();
+            return Outcome.REJECTED;
+        }
+
+        remember(event.eventId());
+        accepted.increment();
+        return Outcome.ACCEPTED;
+    }
+
+    /**
+     * Queue stored events received in [from, to) again, optionally only those with the given status.
+     * Replayed events are applied even if they were applied before; applying an event twice is harmless.
+     */
+    public int replay(LocalDateTime from, LocalDateTime to, String status) {
+        List<StripeWebhookEvent> stored = stripeWebhookEventRepository.findForReplay(from, to, status);
+        for (StripeWebhookEvent event : stored) {
+            inFlight.incrementAndGet();
+            try {
+                queue.put(new ReceivedEvent(event.getEventId(), event.getType(), event.getPaymentIntentId(),
+                        event.getPayload(), event.getReceivedAt(), true));
+            } catch (InterruptedException e) {
+                inFlight.decrementAndGet();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while replaying Stripe events", e);
+            }
+        }
+        logger.info("Replaying {} Stripe events received between {} and {}", stored.size(), from, to);
+        return stored.size();
+    }
+
+    /**
+     * Events queued or being applied.
+     */
+    public int getPendingCount() {
+        return inFlight.get();
+    }
+
+    public long getAcceptedCount() {
+        return accepted.sum();
+    }
+
+    public long getDuplicateCount() {
+        return duplicates.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    private ReceivedEvent parse(String payload) {
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(payload);
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Stripe event is not valid JSON");
+        }
+
+        String eventId = root.path("id").asText(null);
+        String type = root.path("type").asText(null);
+        if (eventId == null || type == null) {
+            throw new BadRequestException("Stripe event has no id or type");
+        }
+
+        // Charge events point at their payment intent; payment intent events are the intent
+        JsonNode object = root.path("data").path("object");
+        String paymentIntentId = type.startsWith("charge.")
+                ? object.path("payment_intent").asText(null)
+                : object.path("id").asText(null);
+        return new ReceivedEvent(eventId, type, paymentIntentId, payload, LocalDateTime.now(), false);
+    }
+
+    private void remember(String eventId) {
+        recentOrder.add(eventId);
+        while (recentEventIds.size() > dedupeWindow) {
+            String oldest = recentOrder.poll();
+            if (oldest == null) {
+                break;
+            }
+            recentEventIds.remove(oldest);
+        }
+    }
+
+    private void drain() {
+        List<ReceivedEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                ReceivedEvent first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                apply(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                inFlight.addAndGet(-batch.size());
+                batch.clear();
+            }
+        }
+        logger.info("Stripe webhook worker stopped with {} events pending", queue.size());
+    }
+
+    private void apply(List<ReceivedEvent> batch) {
+        try {
+            stripeWebhookApplier.applyBatch(batch);
+            return;
+        } catch (RuntimeException e) {
+            logger.warn("Applying a batch of {} Stripe events failed, retrying them one by one: {}", batch.size(), e.getMessage());
+        }
+
+        for (ReceivedEvent event : batch) {
+            try {
+                stripeWebhookApplier.applyBatch(List.of(event));
+            } catch (RuntimeException e) {
+                failed.increment();
+                // A redelivery from Stripe should get another chance
+                recentEventIds.remove(event.eventId());
+                logger.error("Stripe event {} ({}) could not be applied", event.eventId(), event.type(), e);
+                try {
+                    stripeWebhookApplier.recordFailure(event, e);
+                } catch (RuntimeException recordError) {
+                    logger.error("Could not record the failure of Stripe event {}", event.eventId(), recordError);
+                }
+            }
+        }
+    }
+
+    /**
+     * A verified event waiting to be applied.
+     */
+    public record ReceivedEvent(String eventId, String type, String paymentIntentId, String payload,
+                                LocalDateTime receivedAt, boolean replay) {
+    }
+}
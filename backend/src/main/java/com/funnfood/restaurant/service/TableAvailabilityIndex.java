@@ -0,0 +1,180 @@
+package com.funnfood.restaurant.service;
+
+import com.funnfood.restaurant.model.TableReservation;
+import com.funnfood.restaurant.repository.TableReservationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory index of the non-cancelled reservations of every table, kept in time order.
+ * <p>
+ * Every reservation blocks its table for {@link #RESERVATION_DURATION_HOURS} hours, so a reservation overlaps
+ * the window [start, end] exactly when it begins within [start - 2h, end]. With a fixed duration that makes an
+ * interval tree unnecessary: a range lookup on a sorted set per table answers the question in O(log n).
+ * <p>
+ * Reservations older than the history horizon are not held. Questions about that period are answered
+ * by the database, as are all questions until the index has finished loading.
+ */
+@Component
+public class TableAvailabilityIndex {
+    private static final Logger logger = LoggerFactory.getLogger(TableAvailabilityIndex.class);
+
+    public static final int RESERVATION_DURATION_HOURS = 2;
+
+    private static final Comparator<Slot> SLOT_ORDER = Comparator
+            .comparing(Slot::start)
+            .thenComparingLong(Slot::reservationId);
+
+    @Autowired
+    private TableReservationRepository tableReservationRepository;
+
+    @Value("${app.reservations.availability.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.reservations.availability.history-days:1}")
+    private int historyDays;
+
+    private final Map<Long, NavigableSet<Slot>> slotsByTable = new ConcurrentHashMap<>();
+    private final Map<Long, Slot> slotsByReservation = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime horizon;
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime from = LocalDateTime.now().minusDays(historyDays);
+        horizon = from;
+        List<Object[]> rows = tableReservationRepository.findActiveSlotsFrom(from.minusHours(RESERVATION_DURATION_HOURS));
+        for (Object[] row : rows) {
+            put((Long) row[0], (Long) row[1], (LocalDateTime) row[2]);
+        }
+        ready = true;
+        logger.info("Loaded {} reservations into the table availability index", rows.size());
+    }
+
+    /**
+     * Whether this index can answer for the given window, or the caller should ask the database.
+     */
+    public boolean covers(LocalDateTime startTime) {
+        return ready && !startTime.minusHours(RESERVATION_DURATION_HOURS).isBefore(horizon);
+    }
+
+    /**
+     * Whether the table has no reservation overlapping [startTime, endTime], bounds inclusive.
+     * Only meaningful when {@link #covers(LocalDateTime)} is true.
+     */
+    public boolean isAvailable(Long tableId, LocalDateTime startTime, LocalDateTime endTime) {
+        NavigableSet<Slot> slots = slotsByTable.get(tableId);
+        if (slots == null) {
+            return true;
+        }
+        Slot from = new Slot(tableId, Long.MIN_VALUE, startTime.minusHours(RESERVATION_DURATION_HOURS));
+        Slot to = new Slot(tableId, Long.MAX_VALUE, endTime);
+        return slots.subSet(from, true, to, true).isEmpty();
+    }
+
+    /**
+     * Reflect a saved reservation in the index once the surrounding transaction commits.
+     */
+    public void reservationSaved(TableReservation reservation) {
+        if (!enabled) {
+            return;
+        }
+        Long reservationId = reservation.getId();
+        Long tableId = reservation.getDiningTable() != null ? reservation.getDiningTable().getId() : null;
+        LocalDateTime start = reservation.getReservationDateTime();
+        boolean active = tableId != null && !"CANCELLED".equals(reservation.getStatus());
+
+        Runnable apply = () -> {
+            if (active) {
+                put(reservationId, tableId, start);
+            } else {
+                remove(reservationId);
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    /**
+     * Drop reservations that fell behind the history horizon.
+     */
+    @Scheduled(cron = "${app.reservations.availability.prune-cron:0 15 4 * * *}")
+    public void prune() {
+        if (!ready) {
+            return;
+        }
+        LocalDateTime newHorizon = LocalDateTime.now().minusDays(historyDays);
+        horizon = newHorizon;
+        LocalDateTime cutoff = newHorizon.minusHours(RESERVATION_DURATION_HOURS);
+        slotsByReservation.values().removeIf(slot -> {
+            if (slot.start().isBefore(cutoff)) {
+                NavigableSet<Slot> slots = slotsByTable.get(slot.tableId());
+                if (slots != null) {
+                    slots.remove(slot);
+                }
+                return true;
+            }
+            return false;
+        });
+    }
+
+    public int size() {
+        return slotsByReservation.size();
+    }
+
+    private void put(Long reservationId, Long tableId, LocalDateTime start) {
+        Slot slot = new Slot(tableId, reservationId, start);
+        slotsByReservation.compute(reservationId, (id, previous) -> {
+            if (previous != null) {
+                NavigableSet<Slot> previousSlots = slotsByTable.get(previous.tableId());
+                if (previousSlots != null) {
+                    previousSlots.remove(previous);
+                }
+            }
+            slotsByTable.computeIfAbsent(tableId, key -> new ConcurrentSkipListSet<>(SLOT_ORDER)).add(slot);
+            return slot;
+        });
+    }
+
+    private void remove(Long reservationId) {
+        slotsByReservation.computeIfPresent(reservationId, (id, previous) -> {
+            NavigableSet<Slot> slots = slotsByTable.get(previous.tableId());
+            if (slots != null) {
+                slots.remove(previous);
+            }
+            return null;
+        });
+    }
+
+    private record Slot(Long tableId, long reservationId, LocalDateTime start) {
+    }
+}
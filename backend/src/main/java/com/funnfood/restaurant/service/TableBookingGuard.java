@@ -0,0 +1,92 @@
+package com.funnfood.restaurant.service;
+
+import com.funnfood.restaurant.model.DiningTable;
+import com.funnfood.restaurant.model.TableReservation;
+import com.funnfood.restaurant.repository.TableReservationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes bookings per table so the conflict check and the insert of a reservation cannot interleave
+ * with another booking for the same table.
+ * <p>
+ * Tables map onto a fixed set of lock stripes, so bookings for different tables run in parallel unless
+ * they happen to share a stripe. A lock taken inside a transaction is held until that transaction completes,
+ * which is after the new reservation is committed and visible in the {@link TableAvailabilityIndex}.
+ * The locks are per JVM; running several instances needs a database-level claim instead.
+ */
+@Component
+public class TableBookingGuard {
+
+    @Autowired
+    private TableReservationRepository tableReservationRepository;
+
+    @Autowired
+    private TableAvailabilityIndex tableAvailabilityIndex;
+
+    @Value("${app.reservations.lock-timeout-ms:10000}")
+    private long lockTimeoutMs;
+
+    private final ReentrantLock[] stripes;
+
+    public TableBookingGuard(@Value("${app.reservations.lock-stripes:256}") int stripeCount) {
+        stripes = new ReentrantLock[Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Lock the table for the rest of the current transaction.
+     */
+    public void lockTable(Long tableId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Table bookings must run inside a transaction");
+        }
+
+        ReentrantLock lock = stripeFor(tableId);
+        try {
+            if (!lock.tryLock(lockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new CannotAcquireLockException("Table " + tableId + " is busy, please retry");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CannotAcquireLockException("Interrupted while waiting for table " + tableId, e);
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Whether a non-cancelled reservation other than the excluded one overlaps the booking window
+     * [startTime, endTime]. Call with the table locked.
+     */
+    public boolean hasConflict(DiningTable table, LocalDateTime startTime, LocalDateTime endTime, Long excludedReservationId) {
+        if (tableAvailabilityIndex.covers(startTime) && excludedReservationId == null) {
+            return !tableAvailabilityIndex.isAvailable(table.getId(), startTime, endTime);
+        }
+
+        List<TableReservation> conflicts = tableReservationRepository.findConflictingReservations(table, startTime, endTime);
+        return conflicts.stream().anyMatch(r -> !r.getId().equals(excludedReservationId));
+    }
+
+    private ReentrantLock stripeFor(Long tableId) {
+        int hash = tableId.hashCode();
+        hash ^= hash >>> 16;
+        return stripes[hash & (stripes.length - 1)];
+    }
+}
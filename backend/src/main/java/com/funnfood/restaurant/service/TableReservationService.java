@@ -8,13 +8,13 @@ import com.funnfood.restaurant.payload.request.TableReservationRequest;
 import com.funnfood.restaurant.repository.DiningTableRepository;
 import com.funnfood.restaurant.repository.TableReservationRepository;
 import com.funnfood.restaurant.repository.UserRepository;
+import com.funnfood.restaurant.util.TokenNumberGenerator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Random;
 
 @Service
 public class TableReservationService {
@@ -30,6 +30,15 @@ public class TableReservationService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private TokenNumberGenerator tokenNumberGenerator;
+
+    @Autowired
+    private TableAvailabilityIndex tableAvailabilityIndex;
+
+    @Autowired
+    private TableBookingGuard tableBookingGuard;
+
     /**
      * Get all reservations
      */
@@ -47,6 +56,15 @@ public class TableReservationService {
                 .orElseThrow(() -> new ResourceNotFoundException("TableReservation", "id", id));
     }
 
+    /**
+     * Get reservation by its token number
+     */
+    @Transactional(readOnly = true)
+    public TableReservation getReservationByTokenNumber(String tokenNumber) {
+        return tableReservationRepository.findByTokenNumber(tokenNumber)
+                .orElseThrow(() -> new ResourceNotFoundException("TableReservation", "tokenNumber", tokenNumber));
+    }
+
     /**
      * Get reservations by user
      */
@@ -69,13 +87,12 @@ public class TableReservationService {
             throw new IllegalArgumentException("Table capacity is less than the number of guests");
         }
 
-        // Check for conflicting reservations
+        // Check for conflicting reservations, holding the table until this booking commits
         LocalDateTime startTime = reservationRequest.getReservationDateTime().minusHours(1);
         LocalDateTime endTime = reservationRequest.getReservationDateTime().plusHours(1);
-        List<TableReservation> conflictingReservations = tableReservationRepository.findConflictingReservations(
-                table, startTime, endTime);
+        tableBookingGuard.lockTable(table.getId());
 
-        if (!conflictingReservations.isEmpty()) {
+        if (tableBookingGuard.hasConflict(table, startTime, endTime, null)) {
             throw new IllegalStateException("Table is already reserved at this time");
         }
 
@@ -86,11 +103,12 @@ public class TableReservationService {
         reservation.setReservationDateTime(reservationRequest.getReservationDateTime());
         reservation.setNumberOfGuests(reservationRequest.getNumberOfGuests());
         reservation.setSpecialRequests(reservationRequest.getSpecialRequests());
-        reservation.setTokenNumber(generateReservationToken());
+        reservation.setTokenNumber(tokenNumberGenerator.nextReservationToken());
         reservation.setStatus("CONFIRMED");
         reservation.setCreatedAt(LocalDateTime.now());
 
         TableReservation savedReservation = tableReservationRepository.save(reservation);
+        tableAvailabilityIndex.reservationSaved(savedReservation);
 
         // Send confirmation email
         sendConfirmationEmail(user, savedReservation, table);
@@ -105,7 +123,9 @@ public class TableReservationService {
     public TableReservation updateReservationStatus(Long id, String status) {
         TableReservation reservation = getReservationById(id);
         reservation.setStatus(status);
-        return tableReservationRepository.save(reservation);
+        TableReservation updatedReservation = tableReservationRepository.save(reservation);
+        tableAvailabilityIndex.reservationSaved(updatedReservation);
+        return updatedReservation;
     }
 
     /**
@@ -125,7 +145,9 @@ public class TableReservationService {
         // Send cancellation email
 
 
-        return tableReservationRepository.save(reservation);
+        TableReservation cancelledReservation = tableReservationRepository.save(reservation);
+        tableAvailabilityIndex.reservationSaved(cancelledReservation);
+        return cancelledReservation;
     }
 
     /**
@@ -153,10 +175,9 @@ public class TableReservationService {
             // Check for conflicting reservations on the new table
             LocalDateTime startTime = reservationRequest.getReservationDateTime().minusHours(1);
             LocalDateTime endTime = reservationRequest.getReservationDateTime().plusHours(1);
-            List<TableReservation> conflictingReservations = tableReservationRepository.findConflictingReservations(
-                    newTable, startTime, endTime);
+            tableBookingGuard.lockTable(newTable.getId());
 
-            if (!conflictingReservations.isEmpty()) {
+            if (tableBookingGuard.hasConflict(newTable, startTime, endTime, null)) {
                 throw new IllegalStateException("The requested table is already reserved at this time");
             }
 
@@ -166,14 +187,10 @@ public class TableReservationService {
         else if (!reservation.getReservationDateTime().equals(reservationRequest.getReservationDateTime())) {
             LocalDateTime startTime = reservationRequest.getReservationDateTime().minusHours(1);
             LocalDateTime endTime = reservationRequest.getReservationDateTime().plusHours(1);
-            List<TableReservation> conflictingReservations = tableReservationRepository.findConflictingReservations(
-                    reservation.getDiningTable(), startTime, endTime);
+            tableBookingGuard.lockTable(reservation.getDiningTable().getId());
 
-            // Filter out this reservation's ID from conflicts
-            boolean hasConflict = conflictingReservations.stream()
-                    .anyMatch(r -> !r.getId().equals(reservation.getId()));
-
-            if (hasConflict) {
+            // Ignore this reservation's own current slot
+            if (tableBookingGuard.hasConflict(reservation.getDiningTable(), startTime, endTime, reservation.getId())) {
                 throw new IllegalStateException("The requested time slot is already booked for this table");
             }
         }
@@ -184,28 +201,13 @@ public class TableReservationService {
         reservation.setSpecialRequests(reservationRequest.getSpecialRequests());
 
         TableReservation updatedReservation = tableReservationRepository.save(reservation);
+        tableAvailabilityIndex.reservationSaved(updatedReservation);
 
         // Send update confirmation email
 
         return updatedReservation;
     }
 
-    /**
-     * Generate unique reservation token
-     */
-    private String generateReservationToken() {
-        // Generate a unique 6-character alphanumeric token
-        String characters = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-        StringBuilder token = new StringBuilder();
-        Random random = new Random();
-
-        for (int i = 0; i < 6; i++) {
-            token.append(characters.charAt(random.nextInt(characters.length())));
-        }
-
-        return "RES-" + token.toString();
-    }
-
     /**
      * Send reservation confirmation email
      */
@@ -232,6 +234,10 @@ public class TableReservationService {
         LocalDateTime startTime = dateTime.minusMinutes(30);  // Buffer before reservation
         LocalDateTime endTime = dateTime.plusMinutes(duration + 30);  // Reservation + buffer
 
+        if (tableAvailabilityIndex.covers(startTime)) {
+            return tableAvailabilityIndex.isAvailable(table.getId(), startTime, endTime);
+        }
+
         List<TableReservation> conflictingReservations = tableReservationRepository.findConflictingReservations(
                 table, startTime, endTime);
 
@@ -5,6 +5,8 @@ import com.funnfood.restaurant.model.User;
 import com.funnfood.restaurant.model.VerificationToken;
 import com.funnfood.restaurant.repository.UserRepository;
 import com.funnfood.restaurant.repository.VerificationTokenRepository;
+import com.funnfood.restaurant.security.jwt.JwtTokenCache;
+import com.funnfood.restaurant.security.jwt.TokenRevocationRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -30,6 +32,12 @@ public class UserService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private JwtTokenCache jwtTokenCache;
+
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
     @Value("${app.verification-token.expiration-minutes}")
     private int tokenExpirationMinutes;
 
@@ -75,18 +83,46 @@ public class UserService {
     @Transactional
     public User updateUser(Long id, User userDetails) {
         User user = getUserById(id);
+        // Dropped once the update commits, under the name the cached tokens were issued to
+        jwtTokenCache.invalidateUser(user.getUsername());
+
+        // Tokens carry the username and email, so identity or password changes end existing sessions
+        boolean revokeSessions = !user.getUsername().equals(userDetails.getUsername())
+                || !user.getEmail().equals(userDetails.getEmail());
+
         user.setUsername(userDetails.getUsername());
         user.setEmail(userDetails.getEmail());
         if (userDetails.getPassword() != null && !userDetails.getPassword().isEmpty()) {
             user.setPassword(passwordEncoder.encode(userDetails.getPassword()));
+            revokeSessions = true;
+        }
+
+        if (revokeSessions) {
+            user.setTokenVersion(user.getTokenVersion() + 1);
+            tokenRevocationRegistry.revoke(user.getId(), user.getTokenVersion());
         }
         return userRepository.save(user);
     }
 
+    /**
+     * Invalidate every JWT issued to the user so far
+     */
+    @Transactional
+    public void revokeTokens(Long id) {
+        User user = getUserById(id);
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        userRepository.save(user);
+
+        tokenRevocationRegistry.revoke(user.getId(), user.getTokenVersion());
+        jwtTokenCache.invalidateUser(user.getUsername());
+    }
+
     @Transactional
     public void deleteUser(Long id) {
         User user = getUserById(id);
         userRepository.delete(user);
+        tokenRevocationRegistry.revoke(user.getId(), Integer.MAX_VALUE);
+        jwtTokenCache.invalidateUser(user.getUsername());
     }
 
     @Transactional
@@ -125,6 +161,7 @@ public class UserService {
         user.setEmailVerified(true);
         userRepository.save(user);
         verificationTokenRepository.delete(verificationToken);
+        jwtTokenCache.invalidateUser(user.getUsername());
 
         return true;
     }
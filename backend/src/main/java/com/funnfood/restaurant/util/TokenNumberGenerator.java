@@ -0,0 +1,76 @@
+package com.funnfood.restaurant.util;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates collision-free order and reservation tokens without a database round-trip.
+ * <p>
+ * Each token packs a 50-bit value: seconds since 2024-01-01 (32 bits), the node id (5 bits)
+ * and a per-second counter (13 bits). When more than 8192 tokens are requested within one second
+ * the generator borrows from the following second instead of waiting, so values stay strictly
+ * increasing per node. The value is then permuted with an odd multiplier modulo 2^50, which is
+ * bijective, so consecutive tokens do not look sequential, and encoded as 10 Crockford base32 characters.
+ * The unique indexes on the token columns remain the final guard, e.g. against a misconfigured node id.
+ */
+@Component
+public class TokenNumberGenerator {
+    public static final String ORDER_PREFIX = "ORD-";
+    public static final String RESERVATION_PREFIX = "RES-";
+
+    private static final long EPOCH_SECONDS = 1704067200L; // 2024-01-01T00:00:00Z
+    private static final int NODE_BITS = 5;
+    private static final int COUNTER_BITS = 13;
+    private static final int VALUE_BITS = 32 + NODE_BITS + COUNTER_BITS;
+    private static final long VALUE_MASK = (1L << VALUE_BITS) - 1;
+    private static final long MULTIPLIER = 0x2545F4914F6CDL; // odd, so invertible modulo 2^50
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int TOKEN_LENGTH = VALUE_BITS / 5;
+
+    @Value("${app.tokens.node-id:0}")
+    private int nodeId;
+
+    // Last issued (seconds << COUNTER_BITS | counter) pair
+    private final AtomicLong lastTick = new AtomicLong();
+
+    @PostConstruct
+    public void validateNodeId() {
+        if (nodeId < 0 || nodeId >= (1 << NODE_BITS)) {
+            throw new IllegalStateException("app.tokens.node-id must be between 0 and " + ((1 << NODE_BITS) - 1));
+        }
+    }
+
+    public String nextOrderToken() {
+        return ORDER_PREFIX + encode(nextValue());
+    }
+
+    public String nextReservationToken() {
+        return RESERVATION_PREFIX + encode(nextValue());
+    }
+
+    long nextValue() {
+        long nowTick = (currentSeconds() - EPOCH_SECONDS) << COUNTER_BITS;
+        long tick = lastTick.accumulateAndGet(nowTick, (last, now) -> Math.max(last + 1, now));
+
+        long seconds = tick >>> COUNTER_BITS;
+        long counter = tick & ((1L << COUNTER_BITS) - 1);
+        long value = (seconds << (NODE_BITS + COUNTER_BITS)) | ((long) nodeId << COUNTER_BITS) | counter;
+        return (value * MULTIPLIER) & VALUE_MASK;
+    }
+
+    long currentSeconds() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    static String encode(long value) {
+        char[] chars = new char[TOKEN_LENGTH];
+        for (int i = TOKEN_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,23 @@
+package com.funnfood.restaurant;
+
+import com.funnfood.restaurant.model.Restaurant;
+
+/**
+ * Unsaved entities for tests, with every required column filled in.
+ */
+public final class TestFixtures {
+
+    private TestFixtures() {
+    }
+
+    public static Restaurant restaurant(String name) {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setName(name);
+        restaurant.setAddress("1 Test Street");
+        restaurant.setCity("Testville");
+        restaurant.setState("TS");
+        restaurant.setZipCode("00000");
+        restaurant.setPhoneNumber("555-0100");
+        return restaurant;
+    }
+}
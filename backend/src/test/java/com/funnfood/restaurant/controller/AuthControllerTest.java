@@ -0,0 +1,186 @@
+package com.funnfood.restaurant.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.funnfood.restaurant.model.ERole;
+import com.funnfood.restaurant.model.User;
+import com.funnfood.restaurant.repository.RoleRepository;
+import com.funnfood.restaurant.repository.UserRepository;
+import com.funnfood.restaurant.security.jwt.JwtTokenCache;
+import com.funnfood.restaurant.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class AuthControllerTest {
+
+    private static final String PASSWORD = "token-test-password";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JwtTokenCache jwtTokenCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User customer;
+
+    @BeforeEach
+    void setUp() {
+        customer = new User("token_customer", "token_customer@example.com", passwordEncoder.encode(PASSWORD));
+        customer.setEmailVerified(true);
+        customer.setRoles(Set.of(roleRepository.findByName(ERole.ROLE_USER).orElseThrow()));
+        customer = userRepository.save(customer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteById(customer.getId());
+    }
+
+    @Test
+    public void tokenCacheStats_shouldCountRepeatedTokens() throws Exception {
+        String token = signIn();
+        JsonNode before = tokenCacheStats();
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/orders/user/" + customer.getId())
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk());
+        }
+
+        JsonNode after = tokenCacheStats();
+        // The first request verifies and caches the token, the others are served from the cache
+        assertEquals(1, after.get("misses").asLong() - before.get("misses").asLong());
+        assertEquals(2, after.get("hits").asLong() - before.get("hits").asLong());
+    }
+
+    @Test
+    public void userUpdate_shouldDropCachedTokensOnceCommitted() throws Exception {
+        String token = signIn();
+        mockMvc.perform(get("/api/orders/user/" + customer.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+        int cached = cachedTokens();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            User details = new User(customer.getUsername(), customer.getEmail(), null);
+            userService.updateUser(customer.getId(), details);
+            // Still cached until the update commits
+            assertEquals(cached, cachedTokens());
+        });
+
+        assertEquals(cached - 1, cachedTokens());
+    }
+
+    @Test
+    public void signOut_shouldRevokeEveryIssuedToken() throws Exception {
+        String first = signIn();
+        String second = signIn();
+        mockMvc.perform(get("/api/orders/user/" + customer.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + second))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/auth/signout")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + first))
+                .andExpect(status().isOk());
+
+        // Including the token that was already cached
+        for (String token : new String[]{first, second}) {
+            mockMvc.perform(get("/api/orders/user/" + customer.getId())
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isUnauthorized());
+        }
+        mockMvc.perform(get("/api/orders/user/" + customer.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + signIn()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void revokeRolledBack_shouldKeepTokensValid() throws Exception {
+        String token = signIn();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            userService.revokeTokens(customer.getId());
+            status.setRollbackOnly();
+        });
+
+        mockMvc.perform(get("/api/orders/user/" + customer.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void signOut_shouldRejectPrincipalsWithoutTokens() throws Exception {
+        mockMvc.perform(post("/api/auth/signout").with(user("oauth_user").roles("USER")))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void adminRevoke_shouldRevokeAnotherUsersTokens() throws Exception {
+        String token = signIn();
+
+        mockMvc.perform(post("/api/auth/users/" + customer.getId() + "/revoke-tokens")
+                        .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/orders/user/" + customer.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private String signIn() throws Exception {
+        String body = mockMvc.perform(post("/api/auth/signin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"token_customer\",\"password\":\"" + PASSWORD + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("accessToken").asText();
+    }
+
+    private int cachedTokens() {
+        return ((Number) jwtTokenCache.getStats().get("size")).intValue();
+    }
+
+    private JsonNode tokenCacheStats() throws Exception {
+        String body = mockMvc.perform(get("/api/auth/token-cache/stats").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
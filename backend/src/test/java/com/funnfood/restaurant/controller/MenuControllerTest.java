@@ -0,0 +1,123 @@
+package com.funnfood.restaurant.controller;
+
+import com.funnfood.restaurant.model.MenuCategory;
+import com.funnfood.restaurant.model.MenuItem;
+import com.funnfood.restaurant.repository.MenuCategoryRepository;
+import com.funnfood.restaurant.service.MenuItemService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class MenuControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MenuItemService menuItemService;
+
+    @Autowired
+    private MenuCategoryRepository menuCategoryRepository;
+
+    private MenuCategory category;
+    private MenuItem menuItem;
+
+    @BeforeEach
+    void setUp() {
+        category = new MenuCategory();
+        category.setName("Payload Test Category");
+        category = menuCategoryRepository.save(category);
+
+        menuItem = new MenuItem();
+        menuItem.setName("Payload Test Dish");
+        menuItem.setPrice(new BigDecimal("8.00"));
+        menuItem.setAvailable(true);
+        menuItem.setServesPeople(1);
+        menuItem.setPreparationTimeMinutes(10);
+        menuItem = menuItemService.createMenuItem(menuItem, category.getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        menuItemService.deleteMenuItem(menuItem.getId());
+        menuCategoryRepository.delete(category);
+    }
+
+    @Test
+    public void getAllCategories_shouldAnswerConditionalRequestsUntilMenuChanges() throws Exception {
+        MvcResult first = mockMvc.perform(get("/api/menu/categories"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(content().string(containsString("Payload Test Dish")))
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/menu/categories").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+
+        menuItemService.updateAvailability(menuItem.getId(), false);
+
+        MvcResult changed = mockMvc.perform(get("/api/menu/categories").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertNotEquals(etag, changed.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void getAllMenuItems_shouldServeGzipWhenAccepted() throws Exception {
+        MvcResult identity = mockMvc.perform(get("/api/menu-items"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn();
+        byte[] plain = identity.getResponse().getContentAsByteArray();
+        String plainEtag = identity.getResponse().getHeader(HttpHeaders.ETAG);
+
+        MvcResult gzipped = mockMvc.perform(get("/api/menu-items").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING)))
+                .andReturn();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.getResponse().getContentAsByteArray()))) {
+            byte[] inflated = in.readAllBytes();
+            assertArrayEquals(plain, inflated);
+            assertTrue(new String(inflated, StandardCharsets.UTF_8).contains("Payload Test Dish"));
+        }
+
+        // The gzip bytes get their own strong ETag; either one revalidates
+        String gzipEtag = gzipped.getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals(plainEtag.substring(0, plainEtag.length() - 1) + "-gz\"", gzipEtag);
+        for (String etag : new String[]{plainEtag, gzipEtag}) {
+            mockMvc.perform(get("/api/menu-items")
+                            .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                            .header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, gzipEtag))
+                    .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+        }
+        mockMvc.perform(get("/api/menu-items").header(HttpHeaders.IF_NONE_MATCH, gzipEtag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, plainEtag));
+    }
+}
@@ -0,0 +1,198 @@
+package com.funnfood.restaurant.controller;
+
+import com.funnfood.restaurant.TestFixtures;
+import com.funnfood.restaurant.model.MenuItem;
+import com.funnfood.restaurant.model.Order;
+import com.funnfood.restaurant.model.OrderItem;
+import com.funnfood.restaurant.model.Restaurant;
+import com.funnfood.restaurant.repository.MenuItemRepository;
+import com.funnfood.restaurant.repository.OrderRepository;
+import com.funnfood.restaurant.repository.RestaurantRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+public class OrderControllerTest {
+
+    private static final int ORDER_COUNT = 100;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    // Restaurant lookup plus the order query (page queries: page plus item fetch), with one to spare
+    private static final long MAX_STATEMENTS = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private MenuItemRepository menuItemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Restaurant restaurant;
+    private List<MenuItem> menuItems;
+
+    @BeforeEach
+    void setUp() {
+        restaurant = restaurantRepository.save(TestFixtures.restaurant("Statement Count Diner"));
+
+        menuItems = new ArrayList<>();
+        for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+            MenuItem menuItem = new MenuItem();
+            menuItem.setName("Dish " + i);
+            menuItem.setPrice(new BigDecimal("9.99"));
+            menuItems.add(menuItemRepository.save(menuItem));
+        }
+
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < ORDER_COUNT; i++) {
+            Order order = new Order();
+            order.setRestaurant(restaurant);
+            order.setTokenNumber("ORD-STAT-" + i);
+            order.setStatus("PENDING");
+            order.setOrderDate(LocalDateTime.now().minusMinutes(i));
+
+            Set<OrderItem> items = new HashSet<>();
+            for (MenuItem menuItem : menuItems) {
+                OrderItem item = new OrderItem(1, menuItem);
+                item.setOrder(order);
+                items.add(item);
+            }
+            order.setOrderItems(items);
+            orders.add(order);
+        }
+        orderRepository.saveAll(orders);
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll(orderRepository.findByRestaurant(restaurant));
+        menuItemRepository.deleteAll(menuItems);
+        restaurantRepository.delete(restaurant);
+    }
+
+    @Test
+    @WithMockUser(roles = "MANAGER")
+    public void getOrdersByRestaurant_shouldUseBoundedStatementCount() throws Exception {
+        Statistics statistics = statistics();
+
+        mockMvc.perform(get("/api/orders/restaurant/" + restaurant.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(ORDER_COUNT)))
+                .andExpect(jsonPath("$[0].restaurantName", is("Statement Count Diner")))
+                .andExpect(jsonPath("$[0].items", hasSize(ITEMS_PER_ORDER)))
+                .andExpect(jsonPath("$[0].items[0].menuItemName", startsWith("Dish ")));
+
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= MAX_STATEMENTS,
+                "Listing " + ORDER_COUNT + " orders used " + statements + " statements");
+    }
+
+    @Test
+    @WithMockUser(roles = "MANAGER")
+    public void getOrdersPageByRestaurant_shouldUseBoundedStatementCount() throws Exception {
+        Statistics statistics = statistics();
+
+        mockMvc.perform(get("/api/orders/restaurant/" + restaurant.getId() + "/page")
+                        .param("size", String.valueOf(ORDER_COUNT)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(ORDER_COUNT)))
+                .andExpect(jsonPath("$.hasMore", is(false)))
+                .andExpect(jsonPath("$.items[0].items", hasSize(ITEMS_PER_ORDER)));
+
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= MAX_STATEMENTS,
+                "Paging " + ORDER_COUNT + " orders used " + statements + " statements");
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void exportOrdersByRestaurant_shouldLoadItemsPerChunk() throws Exception {
+        Statistics statistics = statistics();
+
+        String body = mockMvc.perform(get("/api/orders/export").param("restaurantId", String.valueOf(restaurant.getId())))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(ORDER_COUNT, lines.length);
+        assertTrue(lines[0].contains("\"menuItemName\":\"Dish "), lines[0]);
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= MAX_STATEMENTS,
+                "Exporting " + ORDER_COUNT + " orders used " + statements + " statements");
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void exportOrders_shouldApplyRestaurantAndStatusTogether() throws Exception {
+        String pending = mockMvc.perform(get("/api/orders/export")
+                        .param("restaurantId", String.valueOf(restaurant.getId()))
+                        .param("status", "PENDING"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(ORDER_COUNT, pending.split("\n").length);
+
+        String delivered = mockMvc.perform(get("/api/orders/export")
+                        .param("restaurantId", String.valueOf(restaurant.getId()))
+                        .param("status", "DELIVERED"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("", delivered);
+    }
+
+    @Test
+    @WithMockUser(roles = "MANAGER")
+    public void getOrderByToken_shouldBeSingleIndexedLookup() throws Exception {
+        Statistics statistics = statistics();
+
+        mockMvc.perform(get("/api/orders/token/ORD-STAT-42"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tokenNumber", is("ORD-STAT-42")))
+                .andExpect(jsonPath("$.items", hasSize(ITEMS_PER_ORDER)));
+
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= 1, "Token lookup used " + statements + " statements");
+    }
+
+    @Test
+    @WithMockUser(roles = "MANAGER")
+    public void getOrderByToken_shouldReturnNotFoundForUnknownToken() throws Exception {
+        mockMvc.perform(get("/api/orders/token/ORD-MISSING"))
+                .andExpect(status().isNotFound());
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
@@ -0,0 +1,195 @@
+package com.funnfood.restaurant.controller;
+
+import com.funnfood.restaurant.TestFixtures;
+import com.funnfood.restaurant.model.EOrderStatus;
+import com.funnfood.restaurant.model.MenuItem;
+import com.funnfood.restaurant.model.Order;
+import com.funnfood.restaurant.model.OrderDailyStats;
+import com.funnfood.restaurant.model.OrderItem;
+import com.funnfood.restaurant.model.Restaurant;
+import com.funnfood.restaurant.model.User;
+import com.funnfood.restaurant.repository.MenuItemRepository;
+import com.funnfood.restaurant.repository.OrderDailyStatsRepository;
+import com.funnfood.restaurant.repository.OrderRepository;
+import com.funnfood.restaurant.repository.RestaurantRepository;
+import com.funnfood.restaurant.repository.UserRepository;
+import com.funnfood.restaurant.service.OrderService;
+import com.funnfood.restaurant.service.OrderStatsAggregator;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+public class OrderStatsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private MenuItemRepository menuItemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderDailyStatsRepository orderDailyStatsRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderStatsAggregator orderStatsAggregator;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Restaurant restaurant;
+    private MenuItem menuItem;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        restaurant = restaurantRepository.save(TestFixtures.restaurant("Dashboard Diner"));
+
+        menuItem = new MenuItem();
+        menuItem.setName("Dashboard Dish");
+        menuItem.setPrice(new BigDecimal("12.50"));
+        menuItem = menuItemRepository.save(menuItem);
+
+        user = new User("stats_customer", "stats_customer@example.com", "secret-password");
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Status updates bumped the order versions, so delete by id rather than with the stale entities
+        orderRepository.deleteAllById(orderRepository.findByRestaurant(restaurant).stream().map(Order::getId).toList());
+        orderDailyStatsRepository.deleteAll(
+                orderDailyStatsRepository.findByRestaurantIdAndStatsDate(restaurant.getId(), LocalDate.now()));
+        userRepository.delete(user);
+        menuItemRepository.delete(menuItem);
+        restaurantRepository.delete(restaurant);
+    }
+
+    @Test
+    @WithMockUser(roles = "MANAGER")
+    public void stats_shouldFollowOrderChangesWithoutQueries() throws Exception {
+        Order served = placeOrder();
+        Order cancelled = placeOrder();
+        placeOrder();
+        orderService.transitionStatus(served.getId(), EOrderStatus.PAID);
+        orderService.transitionStatus(served.getId(), EOrderStatus.PREPARING);
+        orderService.cancelOrder(cancelled.getId());
+
+        Statistics statistics = statistics();
+        BigDecimal ticket = served.getTotalAmount();
+        mockMvc.perform(get("/api/orders/restaurant/" + restaurant.getId() + "/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalOrders", is(3)))
+                .andExpect(jsonPath("$.ordersByStatus.PENDING", is(1)))
+                .andExpect(jsonPath("$.ordersByStatus.PREPARING", is(1)))
+                .andExpect(jsonPath("$.ordersByStatus.CANCELLED", is(1)))
+                .andExpect(jsonPath("$.ordersByStatus.PAID", is(0)))
+                .andExpect(jsonPath("$.revenueOrders", is(1)))
+                .andExpect(jsonPath("$.revenue", is(ticket.doubleValue())))
+                .andExpect(jsonPath("$.averageTicket", is(ticket.doubleValue())));
+        assertEquals(0, statistics.getPrepareStatementCount(), "stats are served from memory");
+
+        orderStatsAggregator.flush();
+        Map<String, Long> stored = orderDailyStatsRepository
+                .findByRestaurantIdAndStatsDate(restaurant.getId(), LocalDate.now()).stream()
+                .collect(Collectors.toMap(OrderDailyStats::getStatus, OrderDailyStats::getOrderCount));
+        assertEquals(1L, stored.get("PENDING"));
+        assertEquals(1L, stored.get("PREPARING"));
+        assertEquals(1L, stored.get("CANCELLED"));
+        assertEquals(0L, stored.getOrDefault("PAID", 0L));
+    }
+
+    @Test
+    @WithMockUser(roles = "MANAGER")
+    public void transitionStatus_shouldLoadAndUpdateTheOrderOnce() throws Exception {
+        Order order = placeOrder();
+
+        Statistics statistics = statistics();
+        orderService.transitionStatus(order.getId(), EOrderStatus.CONFIRMED);
+
+        // One SELECT for the current status, one conditional UPDATE, no read-back for the listeners
+        assertEquals(2, statistics.getPrepareStatementCount());
+        mockMvc.perform(get("/api/orders/restaurant/" + restaurant.getId() + "/stats"))
+                .andExpect(jsonPath("$.ordersByStatus.CONFIRMED", is(1)));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void rebuild_shouldRecountOrdersTheAggregatesMissed() throws Exception {
+        // Written straight to the table, as if the aggregates had been lost
+        orderRepository.saveAll(List.of(
+                deliveredOrder("ORD-DASH-1", "10.00"),
+                deliveredOrder("ORD-DASH-2", "21.00")));
+        mockMvc.perform(get("/api/orders/restaurant/" + restaurant.getId() + "/stats"))
+                .andExpect(jsonPath("$.totalOrders", is(0)));
+
+        mockMvc.perform(post("/api/orders/stats/rebuild"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/orders/restaurant/" + restaurant.getId() + "/stats")
+                        .param("date", LocalDate.now().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalOrders", is(2)))
+                .andExpect(jsonPath("$.ordersByStatus.DELIVERED", is(2)))
+                .andExpect(jsonPath("$.revenue", is(31.0)))
+                .andExpect(jsonPath("$.averageTicket", is(15.5)));
+    }
+
+    private Order placeOrder() {
+        OrderItem item = new OrderItem(2, menuItem);
+        return orderService.createOrder(user.getId(), restaurant.getId(), Set.of(item),
+                "1 Test Street", "Testville", "TS", "00000", "555-0100", null, null, null);
+    }
+
+    private Order deliveredOrder(String tokenNumber, String totalAmount) {
+        Order order = new Order();
+        order.setRestaurant(restaurant);
+        order.setTokenNumber(tokenNumber);
+        order.setStatus("DELIVERED");
+        order.setOrderDate(LocalDateTime.now());
+        order.setTotalAmount(new BigDecimal(totalAmount));
+        return order;
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
@@ -0,0 +1,154 @@
+package com.funnfood.restaurant.controller;
+
+import com.funnfood.restaurant.TestFixtures;
+import com.funnfood.restaurant.model.EOrderStatus;
+import com.funnfood.restaurant.model.Order;
+import com.funnfood.restaurant.model.Restaurant;
+import com.funnfood.restaurant.repository.OrderRepository;
+import com.funnfood.restaurant.repository.RestaurantRepository;
+import com.funnfood.restaurant.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.reset;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class OrderStatusTransitionTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @MockitoSpyBean
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Restaurant restaurant;
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        restaurant = restaurantRepository.save(TestFixtures.restaurant("State Machine Diner"));
+
+        order = new Order();
+        order.setRestaurant(restaurant);
+        order.setTokenNumber("ORD-STATE-1");
+        order.setStatus("PENDING");
+        order.setOrderDate(LocalDateTime.now());
+        order.setTotalAmount(new BigDecimal("18.00"));
+        order = orderRepository.save(order);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reset(orderRepository);
+        // Status updates bumped the order version, so delete by id rather than with the stale entity
+        orderRepository.deleteById(order.getId());
+        restaurantRepository.delete(restaurant);
+    }
+
+    @Test
+    @WithMockUser(roles = "MANAGER")
+    public void illegalTransition_shouldBeRejected() throws Exception {
+        mockMvc.perform(patch("/api/orders/" + order.getId() + "/status").param("status", "DELIVERED"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", is("Cannot change order status from PENDING to DELIVERED")));
+
+        mockMvc.perform(patch("/api/orders/" + order.getId() + "/status").param("status", "SHIPPED"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals("PENDING", currentStatus());
+    }
+
+    @Test
+    public void transitionToCurrentStatus_shouldReturnFalse() {
+        assertTrue(orderService.transitionStatus(order.getId(), EOrderStatus.CONFIRMED));
+        assertFalse(orderService.transitionStatus(order.getId(), EOrderStatus.CONFIRMED));
+        assertEquals("CONFIRMED", currentStatus());
+    }
+
+    @Test
+    public void lostRace_shouldRetryFromTheNewStatus() {
+        // Another writer confirms the order just before our conditional update runs
+        AtomicInteger updates = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (updates.getAndIncrement() == 0) {
+                concurrentlySetStatus("CONFIRMED");
+            }
+            return callRepository(invocation);
+        }).when(orderRepository).updateStatusIfIn(anyLong(), anyString(), anyCollection());
+
+        assertTrue(orderService.transitionStatus(order.getId(), EOrderStatus.PREPARING));
+
+        assertEquals(2, updates.get(), "first update misses, the retry applies");
+        assertEquals("PREPARING", currentStatus());
+    }
+
+    @Test
+    public void lostRace_shouldFailWhenTheNewStatusForbidsTheTransition() {
+        doAnswer(invocation -> {
+            concurrentlySetStatus("CANCELLED");
+            return callRepository(invocation);
+        }).when(orderRepository).updateStatusIfIn(anyLong(), anyString(), anyCollection());
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> orderService.transitionStatus(order.getId(), EOrderStatus.PREPARING));
+        assertEquals("Cannot change order status from CANCELLED to PREPARING", e.getMessage());
+    }
+
+    @Test
+    @WithMockUser(roles = "MANAGER")
+    public void updateThatKeepsLosing_shouldReturnConflict() throws Exception {
+        doReturn(0).when(orderRepository).updateStatusIfIn(anyLong(), anyString(), anyCollection());
+
+        mockMvc.perform(patch("/api/orders/" + order.getId() + "/status").param("status", "CONFIRMED"))
+                .andExpect(status().isConflict());
+
+        assertEquals("PENDING", currentStatus());
+    }
+
+    // The spy wraps the repository proxy, so unstubbed behaviour comes from its default answer
+    private Object callRepository(InvocationOnMock invocation) throws Throwable {
+        return mockingDetails(orderRepository).getMockCreationSettings().getDefaultAnswer().answer(invocation);
+    }
+
+    private void concurrentlySetStatus(String status) {
+        jdbcTemplate.update("UPDATE orders SET status = ?, version = version + 1 WHERE id = ?", status, order.getId());
+    }
+
+    private String currentStatus() {
+        return jdbcTemplate.queryForObject("SELECT status FROM orders WHERE id = ?", String.class, order.getId());
+    }
+}
@@ -0,0 +1,144 @@
+package com.funnfood.restaurant.controller;
+
+import com.funnfood.restaurant.TestFixtures;
+import com.funnfood.restaurant.model.Order;
+import com.funnfood.restaurant.model.Payment;
+import com.funnfood.restaurant.model.Restaurant;
+import com.funnfood.restaurant.repository.OrderRepository;
+import com.funnfood.restaurant.repository.PaymentRepository;
+import com.funnfood.restaurant.repository.RestaurantRepository;
+import com.funnfood.restaurant.service.PaymentService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+public class PaymentControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Restaurant restaurant;
+    private Order order;
+    private Payment payment;
+
+    @BeforeEach
+    void setUp() {
+        restaurant = restaurantRepository.save(TestFixtures.restaurant("Payment Lookup Diner"));
+
+        order = new Order();
+        order.setRestaurant(restaurant);
+        order.setTokenNumber("ORD-PAY-1");
+        order.setStatus("PENDING");
+        order.setOrderDate(LocalDateTime.now());
+        order.setTotalAmount(new BigDecimal("24.50"));
+        order = orderRepository.save(order);
+
+        payment = new Payment();
+        payment.setOrder(order);
+        payment.setAmount(24.50);
+        payment.setPaymentMethod("STRIPE");
+        payment.setStatus("PENDING");
+        payment.setStripePaymentIntentId("pi_lookup_1");
+        payment.setTransactionId("pi_lookup_1");
+        payment.setPaymentDate(LocalDateTime.now());
+        payment = paymentRepository.save(payment);
+    }
+
+    @AfterEach
+    void tearDown() {
+        paymentRepository.deleteById(payment.getId());
+        orderRepository.deleteById(order.getId());
+        restaurantRepository.delete(restaurant);
+    }
+
+    @Test
+    @WithMockUser
+    public void getPaymentStatus_shouldBeOneStatement() throws Exception {
+        Statistics statistics = statistics();
+
+        mockMvc.perform(get("/api/payment/order/" + order.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.paymentStatus", is("PENDING")))
+                .andExpect(jsonPath("$.orderStatus", is("PENDING")))
+                .andExpect(jsonPath("$.tokenNumber", is("ORD-PAY-1")));
+
+        long statements = statistics.getPrepareStatementCount();
+        assertEquals(1, statements, "Payment status screen used " + statements + " statements");
+    }
+
+    @Test
+    @WithMockUser
+    public void getPaymentStatus_shouldTellMissingOrderFromUnpaidOrder() throws Exception {
+        mockMvc.perform(get("/api/payment/order/" + Long.MAX_VALUE))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message", is("Order not found with id : '" + Long.MAX_VALUE + "'")));
+    }
+
+    @Test
+    public void lookups_shouldNotLoadTheOrder() {
+        Statistics statistics = statistics();
+        assertEquals(payment.getId(), paymentService.getPaymentByOrder(order.getId()).getId());
+        assertEquals(1, statistics.getPrepareStatementCount(), "lookup by order id");
+
+        statistics.clear();
+        // Select by transaction id and update the payment; a failed payment leaves the order alone
+        paymentService.updatePaymentStatus("pi_lookup_1", "FAILED");
+        assertEquals(2, statistics.getPrepareStatementCount(), "status update by transaction id");
+        assertEquals(1, statistics.getEntityLoadCount(), "only the payment is loaded");
+    }
+
+    @Test
+    public void paymentLookupColumns_shouldBeIndexed() {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_NAME = 'PAYMENTS'", String.class);
+
+        assertTrue(indexes.contains("IDX_PAYMENTS_ORDER_ID"), indexes.toString());
+        assertTrue(indexes.contains("IDX_PAYMENTS_STRIPE_PAYMENT_INTENT_ID"), indexes.toString());
+        assertTrue(indexes.contains("IDX_PAYMENTS_TRANSACTION_ID"), indexes.toString());
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
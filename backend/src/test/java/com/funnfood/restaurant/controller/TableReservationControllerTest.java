@@ -0,0 +1,107 @@
+package com.funnfood.restaurant.controller;
+
+import com.funnfood.restaurant.TestFixtures;
+import com.funnfood.restaurant.model.DiningRoom;
+import com.funnfood.restaurant.model.DiningTable;
+import com.funnfood.restaurant.model.Restaurant;
+import com.funnfood.restaurant.model.TableReservation;
+import com.funnfood.restaurant.model.User;
+import com.funnfood.restaurant.repository.DiningRoomRepository;
+import com.funnfood.restaurant.repository.DiningTableRepository;
+import com.funnfood.restaurant.repository.RestaurantRepository;
+import com.funnfood.restaurant.repository.TableReservationRepository;
+import com.funnfood.restaurant.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.is;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class TableReservationControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private DiningRoomRepository diningRoomRepository;
+
+    @Autowired
+    private DiningTableRepository diningTableRepository;
+
+    @Autowired
+    private TableReservationRepository tableReservationRepository;
+
+    private User guest;
+    private Restaurant restaurant;
+    private DiningRoom diningRoom;
+    private DiningTable table;
+    private TableReservation reservation;
+
+    @BeforeEach
+    void setUp() {
+        guest = userRepository.save(new User("token_guest", "token_guest@example.com", "secret-password"));
+
+        restaurant = restaurantRepository.save(TestFixtures.restaurant("Token Lookup Diner"));
+
+        diningRoom = new DiningRoom();
+        diningRoom.setName("Main");
+        diningRoom.setStatus("AVAILABLE");
+        diningRoom.setCapacity(10);
+        diningRoom.setRestaurant(restaurant);
+        diningRoom = diningRoomRepository.save(diningRoom);
+
+        table = new DiningTable("TK-1", 4);
+        table.setDiningRoom(diningRoom);
+        table = diningTableRepository.save(table);
+
+        reservation = new TableReservation();
+        reservation.setUser(guest);
+        reservation.setDiningTable(table);
+        reservation.setTokenNumber("RES-TOKEN-LOOKUP");
+        reservation.setReservationDateTime(LocalDateTime.now().plusDays(3));
+        reservation.setNumberOfGuests(2);
+        reservation.setStatus("CONFIRMED");
+        reservation.setCreatedAt(LocalDateTime.now());
+        reservation = tableReservationRepository.save(reservation);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tableReservationRepository.delete(reservation);
+        diningTableRepository.delete(table);
+        diningRoomRepository.delete(diningRoom);
+        restaurantRepository.delete(restaurant);
+        userRepository.delete(guest);
+    }
+
+    @Test
+    public void getReservationByToken_shouldOnlyShowTheGuestTheirOwn() throws Exception {
+        mockMvc.perform(get("/api/reservations/token/RES-TOKEN-LOOKUP").with(user("token_guest").roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(reservation.getId().intValue())));
+
+        mockMvc.perform(get("/api/reservations/token/RES-TOKEN-LOOKUP").with(user("someone_else").roles("USER")))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(get("/api/reservations/token/RES-NO-SUCH-TOKEN").with(user("token_guest").roles("USER")))
+                .andExpect(status().isNotFound());
+    }
+}
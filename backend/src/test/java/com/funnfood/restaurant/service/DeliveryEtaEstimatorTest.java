@@ -0,0 +1,142 @@
+package com.funnfood.restaurant.service;
+
+import com.funnfood.restaurant.model.EOrderStatus;
+import com.funnfood.restaurant.model.MenuItem;
+import com.funnfood.restaurant.model.OrderItem;
+import com.funnfood.restaurant.model.Restaurant;
+import com.funnfood.restaurant.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DeliveryEtaEstimatorTest {
+
+    private final AtomicLong now = new AtomicLong(1);
+    private DeliveryEtaEstimator estimator;
+    private Restaurant restaurant;
+
+    @BeforeEach
+    void setUp() {
+        // 15 min default prep, 25 min default delivery, 2 cooks, 30 km/h, 5 min pickup
+        estimator = new DeliveryEtaEstimator(15, 25, 2, 30, 5, now::get);
+
+        restaurant = new Restaurant();
+        restaurant.setId(3L);
+        restaurant.setLatitude(-1.2921);
+        restaurant.setLongitude(36.8219);
+        restaurant.setAvgDeliveryTimeMin(20);
+    }
+
+    @Test
+    public void estimate_shouldCombinePreparationAndTravel() {
+        List<OrderItem> items = List.of(item(12), item(18), item(null));
+
+        // Slowest item plus the restaurant's average delivery time
+        assertEquals(38, estimator.estimate(restaurant, items, null, null).totalMinutes());
+
+        // About 5 km away: 5 min pickup + 10 min driving
+        DeliveryEtaEstimator.Estimate estimate = estimator.estimate(restaurant, items, -1.2921, 36.8669);
+        assertEquals(18, estimate.prepMinutes());
+        assertEquals(34, estimate.totalMinutes());
+    }
+
+    @Test
+    public void estimate_shouldGrowWithTheKitchenQueue() {
+        List<OrderItem> items = List.of(item(10));
+        for (long id = 1; id <= 4; id++) {
+            estimator.orderPlaced(id, 3L, estimator.estimate(restaurant, items, null, null));
+        }
+        // Pending orders are not in the kitchen yet
+        assertEquals(0, estimator.kitchenQueue(3L));
+        for (long id = 1; id <= 4; id++) {
+            estimator.statusChanged(id, id % 2 == 0 ? EOrderStatus.CONFIRMED : EOrderStatus.PAID);
+        }
+        assertEquals(4, estimator.kitchenQueue(3L));
+        // Four open orders across two cooks at 15 minutes each
+        assertEquals(60, estimator.estimate(restaurant, items, null, null).totalMinutes());
+
+        estimator.statusChanged(1L, EOrderStatus.CANCELLED);
+        estimator.statusChanged(2L, EOrderStatus.PREPARING);
+        estimator.statusChanged(2L, EOrderStatus.READY);
+        estimator.statusChanged(2L, EOrderStatus.DELIVERED);
+        assertEquals(2, estimator.kitchenQueue(3L));
+
+        // Transitions of orders the estimator never saw are ignored
+        estimator.statusChanged(99L, EOrderStatus.READY);
+        assertEquals(2, estimator.kitchenQueue(3L));
+    }
+
+    @Test
+    public void statusChanged_shouldLearnFromSlowKitchensAndCouriers() {
+        List<OrderItem> items = List.of(item(10));
+        int before = estimator.estimate(restaurant, items, null, null).totalMinutes();
+
+        for (long id = 1; id <= 20; id++) {
+            estimator.orderPlaced(id, 3L, estimator.estimate(restaurant, items, null, null));
+            estimator.statusChanged(id, EOrderStatus.PREPARING);
+            advanceMinutes(20);
+            estimator.statusChanged(id, EOrderStatus.OUT_FOR_DELIVERY);
+            advanceMinutes(40);
+            estimator.statusChanged(id, EOrderStatus.DELIVERED);
+        }
+
+        assertEquals(0, estimator.kitchenQueue(3L));
+        // Kitchen converges towards twice the estimate and couriers towards twice the average
+        int after = estimator.estimate(restaurant, items, null, null).totalMinutes();
+        assertTrue(after > before * 1.8 && after <= before * 2, "expected about " + before * 2 + " but was " + after);
+    }
+
+    @Test
+    public void abandonedPendingOrders_shouldNeverJoinTheQueue() {
+        List<OrderItem> items = List.of(item(10));
+        estimator.orderPlaced(1L, 3L, estimator.estimate(restaurant, items, null, null));
+        estimator.orderPlaced(2L, 3L, estimator.estimate(restaurant, items, null, null));
+        estimator.statusChanged(1L, EOrderStatus.CANCELLED);
+
+        advanceMinutes(121);
+        estimator.orderPlaced(3L, 3L, estimator.estimate(restaurant, items, null, null));
+        estimator.expirePending();
+
+        // Order 2 sat in PENDING past the two hour limit and was dropped, order 3 is still pending
+        estimator.statusChanged(1L, EOrderStatus.CONFIRMED);
+        estimator.statusChanged(2L, EOrderStatus.CONFIRMED);
+        assertEquals(0, estimator.kitchenQueue(3L));
+        estimator.statusChanged(3L, EOrderStatus.CONFIRMED);
+        assertEquals(1, estimator.kitchenQueue(3L));
+    }
+
+    @Test
+    public void load_shouldHoldOrdersPendingAtStartup() {
+        OrderRepository orderRepository = mock(OrderRepository.class);
+        when(orderRepository.findOpenOrderRestaurants(DeliveryEtaEstimator.KITCHEN_STATUSES))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, 3L}));
+        when(orderRepository.findOpenOrderRestaurants(List.of(EOrderStatus.PENDING.name())))
+                .thenReturn(List.<Object[]>of(new Object[]{2L, 3L}));
+        ReflectionTestUtils.setField(estimator, "orderRepository", orderRepository);
+
+        estimator.load();
+        assertEquals(1, estimator.kitchenQueue(3L));
+
+        // Confirmed after the restart, the order that was pending joins the kitchen queue
+        estimator.statusChanged(2L, EOrderStatus.CONFIRMED);
+        assertEquals(2, estimator.kitchenQueue(3L));
+    }
+
+    private void advanceMinutes(long minutes) {
+        now.addAndGet(TimeUnit.MINUTES.toNanos(minutes));
+    }
+
+    private static OrderItem item(Integer preparationTimeMinutes) {
+        MenuItem menuItem = new MenuItem();
+        menuItem.setPreparationTimeMinutes(preparationTimeMinutes);
+        return new OrderItem(1, menuItem);
+    }
+}
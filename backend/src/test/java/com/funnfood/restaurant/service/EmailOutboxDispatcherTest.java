@@ -0,0 +1,132 @@
+package com.funnfood.restaurant.service;
+
+import com.funnfood.restaurant.model.EmailOutbox;
+import com.funnfood.restaurant.repository.EmailOutboxRepository;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(properties = "app.email.outbox.poll-interval-ms=600000")
+public class EmailOutboxDispatcherTest {
+
+    // Stands in for the SMTP server
+    @MockitoBean
+    private JavaMailSender mailSender;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private EmailOutboxDispatcher emailOutboxDispatcher;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        emailOutboxRepository.deleteAll();
+        when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage(Session.getInstance(new Properties())));
+    }
+
+    @AfterEach
+    void tearDown() {
+        emailOutboxRepository.deleteAll();
+    }
+
+    @Test
+    public void email_shouldBeSentAfterCommit() {
+        transactionTemplate.executeWithoutResult(status -> {
+            emailService.sendVerificationEmail("guest@example.com", "guest", "http://localhost/verify");
+            verify(mailSender, never()).send(any(MimeMessage[].class));
+        });
+
+        verify(mailSender, timeout(5000)).send(any(MimeMessage[].class));
+        waitForStatus(1, EmailOutbox.STATUS_SENT);
+
+        EmailOutbox email = emailOutboxRepository.findAll().get(0);
+        assertEquals("guest@example.com", email.getRecipient());
+        assertEquals(1, email.getAttempts());
+        assertNotNull(email.getSentAt());
+    }
+
+    @Test
+    public void email_shouldNotBeQueuedWhenTransactionRollsBack() {
+        transactionTemplate.executeWithoutResult(status -> {
+            emailService.sendVerificationEmail("guest@example.com", "guest", "http://localhost/verify");
+            status.setRollbackOnly();
+        });
+
+        emailOutboxDispatcher.dispatchDue();
+
+        assertTrue(emailOutboxRepository.findAll().isEmpty());
+        verify(mailSender, never()).send(any(MimeMessage[].class));
+    }
+
+    @Test
+    public void failedSend_shouldBeRescheduledWithBackoff() {
+        doThrow(new MailSendException("Connection refused")).when(mailSender).send(any(MimeMessage[].class));
+
+        emailService.sendReservationConfirmation("guest@example.com", "guest", "Diner",
+                "2030-01-01", "19:00", 2, "RES-TEST");
+
+        waitForAttempts(1, 1);
+        EmailOutbox email = emailOutboxRepository.findAll().get(0);
+        assertEquals(EmailOutbox.STATUS_PENDING, email.getStatus());
+        assertEquals("Connection refused", email.getLastError());
+        assertTrue(email.getNextAttemptAt().isAfter(LocalDateTime.now()));
+
+        // Not due yet, so another pass must not retry it
+        emailOutboxDispatcher.dispatchDue();
+        verify(mailSender, times(1)).send(any(MimeMessage[].class));
+    }
+
+    private void waitForStatus(int rows, String status) {
+        waitUntil(() -> {
+            List<EmailOutbox> emails = emailOutboxRepository.findAll();
+            return emails.size() == rows && emails.stream().allMatch(e -> status.equals(e.getStatus()));
+        });
+    }
+
+    private void waitForAttempts(int rows, int attempts) {
+        waitUntil(() -> {
+            List<EmailOutbox> emails = emailOutboxRepository.findAll();
+            return emails.size() == rows && emails.stream().allMatch(e -> e.getAttempts() == attempts);
+        });
+    }
+
+    private void waitUntil(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                List<EmailOutbox> emails = emailOutboxRepository.findAll();
+                fail("Outbox did not reach the expected state: " + emails.size() + " rows");
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Interrupted");
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.funnfood.restaurant.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EmailTemplateRendererTest {
+
+    private static final int BENCHMARK_WARMUP = 200;
+    private static final int BENCHMARK_ITERATIONS = 2000;
+
+    private EmailTemplateRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        renderer = new EmailTemplateRenderer();
+        renderer.precompile();
+    }
+
+    @Test
+    public void render_shouldFillReservationTemplate() {
+        String html = renderer.render(EmailTemplateRenderer.RESERVATION_CONFIRMATION, reservationVariables("RES-ABC123"));
+
+        assertTrue(html.contains("RES-ABC123"));
+        assertTrue(html.contains("Test Diner"));
+    }
+
+    @Test
+    public void render_shouldNotLeakStateBetweenCalls() {
+        renderer.render(EmailTemplateRenderer.RESERVATION_CONFIRMATION, reservationVariables("RES-FIRST1"));
+        String second = renderer.render(EmailTemplateRenderer.RESERVATION_CONFIRMATION, reservationVariables("RES-SECOND"));
+
+        assertTrue(second.contains("RES-SECOND"));
+        assertFalse(second.contains("RES-FIRST1"));
+    }
+
+    @Test
+    public void render_shouldReuseParsedTemplatesAcrossThreads() throws Exception {
+        SpringTemplateEngine uncached = uncachedEngine();
+        Map<Object, Object> parsed = cachedTemplates();
+        assertEquals(2, parsed.size(), "both templates are parsed at startup");
+
+        int threads = 8;
+        int perThread = 250;
+        List<String> mismatches = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    String token = "RES-" + thread + "-" + i;
+                    String html = renderer.render(EmailTemplateRenderer.RESERVATION_CONFIRMATION, reservationVariables(token));
+                    Context context = new Context();
+                    context.setVariables(reservationVariables(token));
+                    if (!html.equals(uncached.process(EmailTemplateRenderer.RESERVATION_CONFIRMATION, context))) {
+                        mismatches.add(token);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(List.of(), mismatches, "each render matches a freshly parsed template");
+        assertEquals(parsed, cachedTemplates(), "the templates parsed at startup are still the ones in use");
+    }
+
+    /**
+     * Benchmark, not run by default: {@code mvn test -Dtest=EmailTemplateRendererTest -Dbenchmark=true}.
+     * Reports the per-email render cost against an engine that re-parses the template on every render,
+     * which is what {@code spring.thymeleaf.cache=false} does.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    public void benchmark_perEmailRenderCost() {
+        SpringTemplateEngine uncached = uncachedEngine();
+
+        long cachedNanos = measure(i -> renderer.render(EmailTemplateRenderer.RESERVATION_CONFIRMATION,
+                reservationVariables("RES-" + i)));
+        long uncachedNanos = measure(i -> {
+            Context context = new Context();
+            context.setVariables(reservationVariables("RES-" + i));
+            return uncached.process(EmailTemplateRenderer.RESERVATION_CONFIRMATION, context);
+        });
+
+        System.out.printf("Email render cost: cached %.1f us/email, spring.thymeleaf.cache=false %.1f us/email%n",
+                cachedNanos / 1000.0, uncachedNanos / 1000.0);
+        assertTrue(cachedNanos < uncachedNanos, "cached " + cachedNanos + " ns, uncached " + uncachedNanos + " ns");
+    }
+
+    private long measure(IntFunction<String> render) {
+        for (int i = 0; i < BENCHMARK_WARMUP; i++) {
+            assertFalse(render.apply(i).isEmpty());
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < BENCHMARK_ITERATIONS; i++) {
+            assertFalse(render.apply(i).isEmpty());
+        }
+        return (System.nanoTime() - start) / BENCHMARK_ITERATIONS;
+    }
+
+    // Snapshot of the parsed template cache, compared by identity of the parsed templates
+    private Map<Object, Object> cachedTemplates() {
+        var cache = renderer.templateEngine().getCacheManager().getTemplateCache();
+        Map<Object, Object> templates = new IdentityHashMap<>();
+        for (var key : cache.keySet()) {
+            templates.put(cache.get(key), key);
+        }
+        return templates;
+    }
+
+    private SpringTemplateEngine uncachedEngine() {
+        SpringTemplateEngine uncached = new SpringTemplateEngine();
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        resolver.setCacheable(false);
+        uncached.setTemplateResolver(resolver);
+        return uncached;
+    }
+
+    private Map<String, Object> reservationVariables(String token) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("name", "guest");
+        variables.put("restaurant", "Test Diner");
+        variables.put("date", "2030-01-01");
+        variables.put("time", "19:00");
+        variables.put("guests", 2);
+        variables.put("token", token);
+        return variables;
+    }
+}
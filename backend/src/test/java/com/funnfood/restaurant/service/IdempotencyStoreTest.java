@@ -0,0 +1,90 @@
+package com.funnfood.restaurant.service;
+
+import com.funnfood.restaurant.exception.IdempotencyConflictException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotencyStoreTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final IdempotencyStore store = new IdempotencyStore(60_000, 100, 5_000, now::get);
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    public void execute_shouldReplayTheFirstResult() {
+        IdempotencyStore.Result<String> first = store.execute("k1", "order-1", () -> "payment-" + executions.incrementAndGet());
+        IdempotencyStore.Result<String> retry = store.execute("k1", "order-1", () -> "payment-" + executions.incrementAndGet());
+
+        assertFalse(first.replayed());
+        assertTrue(retry.replayed());
+        assertEquals("payment-1", retry.value());
+        assertEquals(1, executions.get());
+
+        assertThrows(IdempotencyConflictException.class,
+                () -> store.execute("k1", "order-2", () -> "payment-" + executions.incrementAndGet()));
+    }
+
+    @Test
+    public void execute_shouldRunAgainAfterFailureOrExpiry() {
+        assertThrows(IllegalStateException.class, () -> store.execute("k2", "f", () -> {
+            executions.incrementAndGet();
+            throw new IllegalStateException("declined");
+        }));
+        assertEquals("ok", store.execute("k2", "f", () -> "ok").value());
+
+        now.addAndGet(60_000);
+        IdempotencyStore.Result<String> afterExpiry = store.execute("k2", "f", () -> "again");
+        assertFalse(afterExpiry.replayed());
+        assertEquals("again", afterExpiry.value());
+        store.purgeExpired();
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    public void execute_shouldCollapseConcurrentDuplicates() throws Exception {
+        int callers = 8;
+        CountDownLatch started = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<IdempotencyStore.Result<String>>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> store.execute("k3", "f", () -> {
+                    executions.incrementAndGet();
+                    started.countDown();
+                    sleep(200);
+                    return "payment";
+                })));
+            }
+
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            int replayed = 0;
+            for (Future<IdempotencyStore.Result<String>> result : results) {
+                assertEquals("payment", result.get(5, TimeUnit.SECONDS).value());
+                replayed += result.get().replayed() ? 1 : 0;
+            }
+            assertEquals(1, executions.get());
+            assertEquals(callers - 1, replayed);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.funnfood.restaurant.service;
+
+import com.funnfood.restaurant.model.MenuCategory;
+import com.funnfood.restaurant.model.MenuItem;
+import com.funnfood.restaurant.payload.response.MenuCategoryResponse;
+import com.funnfood.restaurant.repository.MenuCategoryRepository;
+import com.funnfood.restaurant.repository.MenuItemRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class MenuCatalogCacheTest {
+
+    private static final int TOGGLES = 100;
+    private static final int READERS = 4;
+
+    @Autowired
+    private MenuService menuService;
+
+    @Autowired
+    private MenuItemService menuItemService;
+
+    @Autowired
+    private MenuCategoryRepository menuCategoryRepository;
+
+    @Autowired
+    private MenuItemRepository menuItemRepository;
+
+    private MenuCategory category;
+    private MenuItem menuItem;
+
+    @BeforeEach
+    void setUp() {
+        category = new MenuCategory();
+        category.setName("Cache Test Category");
+        category = menuCategoryRepository.save(category);
+
+        menuItem = new MenuItem();
+        menuItem.setName("Cache Test Dish");
+        menuItem.setPrice(new BigDecimal("12.50"));
+        menuItem.setAvailable(true);
+        menuItem.setServesPeople(1);
+        menuItem.setPreparationTimeMinutes(10);
+        menuItem = menuItemService.createMenuItem(menuItem, category.getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        menuItemService.deleteMenuItem(menuItem.getId());
+        menuCategoryRepository.delete(category);
+    }
+
+    @Test
+    public void repeatedReads_shouldBeServedFromCache() {
+        menuService.getAllCategories();
+        long hitsBefore = (long) menuService.getCatalogCacheStats().get("hits");
+
+        menuService.getAllCategories();
+        menuService.getCategoryById(category.getId());
+
+        assertEquals(hitsBefore + 2, (long) menuService.getCatalogCacheStats().get("hits"));
+    }
+
+    /**
+     * Readers keep the cache hot while availability flips. Once a toggle has returned,
+     * the next read must always show the new state.
+     */
+    @Test
+    public void availabilityToggle_shouldNeverBeFollowedByStaleRead() throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService readers = Executors.newFixedThreadPool(READERS);
+        for (int i = 0; i < READERS; i++) {
+            readers.submit(() -> {
+                while (running.get()) {
+                    menuService.getAllCategories();
+                }
+            });
+        }
+
+        try {
+            boolean available = true;
+            for (int i = 0; i < TOGGLES; i++) {
+                available = !available;
+                menuItemService.updateAvailability(menuItem.getId(), available);
+
+                assertEquals(available, isListed(menuService.getCategoryById(category.getId())),
+                        "Stale catalog after toggle " + i);
+            }
+        } finally {
+            running.set(false);
+            readers.shutdown();
+            assertTrue(readers.awaitTermination(10, TimeUnit.SECONDS));
+        }
+
+        assertTrue((long) menuService.getCatalogCacheStats().get("invalidations") >= TOGGLES);
+    }
+
+    private boolean isListed(MenuCategoryResponse response) {
+        return response.getMenuItems().stream().anyMatch(item -> item.getId().equals(menuItem.getId()));
+    }
+}
@@ -0,0 +1,160 @@
+package com.funnfood.restaurant.service;
+
+import com.funnfood.restaurant.model.MenuCategory;
+import com.funnfood.restaurant.model.MenuItem;
+import com.funnfood.restaurant.payload.response.MenuItemResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MenuSearchIndexTest {
+
+    private static final int ITEMS = 50_000;
+    private static final int CHECKED_QUERIES = 50;
+    private static final int LIMIT = 20;
+    private static final int BENCHMARK_WARMUP = 2000;
+    private static final int BENCHMARK_QUERIES = 2000;
+    private static final String[] WORDS = {"chicken", "beef", "paneer", "masala", "grilled", "spicy", "garlic",
+            "naan", "biryani", "tikka", "curry", "lentil", "coconut", "mango", "lassi", "samosa", "kebab", "butter",
+            "tandoori", "chapati", "pilau", "ugali", "sukuma", "chips", "mandazi", "chai", "tilapia", "fries"};
+    private static final String[] CATEGORIES = {"Starters", "Mains", "Breads", "Drinks", "Desserts", "Sides"};
+
+    private MenuSearchIndex index;
+    private List<MenuItem> items;
+    private Random random;
+
+    @BeforeEach
+    void setUp() {
+        index = new MenuSearchIndex();
+        items = new ArrayList<>();
+        random = new Random(17);
+
+        List<MenuCategory> categories = new ArrayList<>();
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            MenuCategory category = new MenuCategory(CATEGORIES[i], null);
+            category.setId((long) i);
+            categories.add(category);
+        }
+
+        List<MenuSearchIndex.Doc> docs = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            MenuItem item = new MenuItem();
+            item.setId((long) i);
+            item.setName(word() + " " + word() + " " + i);
+            item.setDescription(word() + " with " + word() + " and " + word());
+            item.setPrice(BigDecimal.valueOf(100 + random.nextInt(2000)));
+            item.setVegetarian(random.nextBoolean());
+            item.setAvailable(random.nextInt(10) > 0);
+            item.setCategory(categories.get(random.nextInt(categories.size())));
+            items.add(item);
+            docs.add(MenuSearchIndex.Doc.of(item));
+        }
+        index.rebuild(docs);
+    }
+
+    @Test
+    public void search_shouldMatchFullScan() {
+        for (int q = 0; q < CHECKED_QUERIES; q++) {
+            String query = query();
+            MenuSearchIndex.Filter filter = filter();
+            assertEquals(ids(index.scan(items, query, filter, LIMIT)), ids(index.search(query, filter, LIMIT)),
+                    "query '" + query + "'");
+        }
+    }
+
+    /**
+     * Benchmark, not run by default: {@code mvn test -Dtest=MenuSearchIndexTest -Dbenchmark=true}.
+     * Typeahead queries, including one-letter prefixes, against 50k items must stay under 2 ms at p99.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    public void benchmark_searchLatency() {
+        for (int q = 0; q < BENCHMARK_WARMUP; q++) {
+            index.search(query(), filter(), LIMIT);
+        }
+
+        long[] nanos = new long[BENCHMARK_QUERIES];
+        for (int q = 0; q < BENCHMARK_QUERIES; q++) {
+            String query = query();
+            MenuSearchIndex.Filter filter = filter();
+            long start = System.nanoTime();
+            index.search(query, filter, LIMIT);
+            nanos[q] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+
+        long p50 = nanos[BENCHMARK_QUERIES / 2];
+        long p99 = nanos[BENCHMARK_QUERIES * 99 / 100];
+        System.out.printf("Menu search over %d items: p50 %.1f us, p99 %.1f us%n", ITEMS, p50 / 1000.0, p99 / 1000.0);
+        assertTrue(p99 < 2_000_000, "p99 was " + p99 + " ns");
+    }
+
+    @Test
+    public void search_shouldRankNameAboveDescriptionAndWholeWordsAbovePrefixes() {
+        index.put(doc(-1L, "Zzyzx Special", "house favourite"));
+        index.put(doc(-2L, "House Favourite", "zzyzx style"));
+        index.put(doc(-3L, "Zzyzxville Platter", "house favourite"));
+
+        List<MenuItemResponse> hits = index.search("zzyzx", MenuSearchIndex.Filter.NONE, LIMIT);
+
+        assertEquals(List.of(-1L, -3L, -2L), ids(hits));
+    }
+
+    @Test
+    public void updates_shouldBeReflectedInResults() {
+        index.put(doc(-1L, "Qwertz Stew", null));
+        assertEquals(List.of(-1L), ids(index.search("qwer", MenuSearchIndex.Filter.NONE, LIMIT)));
+        assertEquals(List.of(-1L), ids(index.search("qw", MenuSearchIndex.Filter.NONE, LIMIT)));
+
+        index.put(doc(-1L, "Plain Stew", null));
+        assertTrue(index.search("qwer", MenuSearchIndex.Filter.NONE, LIMIT).isEmpty());
+        assertTrue(index.search("qw", MenuSearchIndex.Filter.NONE, LIMIT).isEmpty());
+
+        index.remove(-1L);
+        assertTrue(index.search("plain", MenuSearchIndex.Filter.NONE, LIMIT).isEmpty());
+        assertEquals(ITEMS, index.size());
+    }
+
+    @Test
+    public void tokenize_shouldFoldCaseAndAccents() {
+        assertEquals(List.of("creme", "brulee", "2"), MenuSearchIndex.tokenize("Crème  Brûlée (2)"));
+    }
+
+    private MenuSearchIndex.Doc doc(Long id, String name, String description) {
+        MenuItem item = new MenuItem();
+        item.setId(id);
+        item.setName(name);
+        item.setDescription(description);
+        item.setPrice(BigDecimal.TEN);
+        return MenuSearchIndex.Doc.of(item);
+    }
+
+    private MenuSearchIndex.Filter filter() {
+        return new MenuSearchIndex.Filter(random.nextBoolean() ? Boolean.TRUE : null, Boolean.TRUE, null, BigDecimal.valueOf(1500));
+    }
+
+    private String query() {
+        String first = word();
+        if (random.nextBoolean()) {
+            return first.substring(0, 1 + random.nextInt(first.length()));
+        }
+        String second = word();
+        return first + " " + second.substring(0, 1 + random.nextInt(second.length()));
+    }
+
+    private String word() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private static List<Long> ids(List<MenuItemResponse> responses) {
+        return responses.stream().map(MenuItemResponse::getId).toList();
+    }
+}
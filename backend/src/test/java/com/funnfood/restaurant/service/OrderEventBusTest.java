@@ -0,0 +1,143 @@
+package com.funnfood.restaurant.service;
+
+import com.funnfood.restaurant.model.Order;
+import com.funnfood.restaurant.model.Restaurant;
+import com.funnfood.restaurant.payload.response.OrderFeedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderEventBusTest {
+
+    @Test
+    public void publish_shouldReachOnlyTheRestaurantsSubscribers() {
+        OrderEventBus bus = new OrderEventBus(100, 16, Runnable::run);
+        RecordingSink first = new RecordingSink();
+        RecordingSink second = new RecordingSink();
+        RecordingSink otherRestaurant = new RecordingSink();
+        bus.subscribe(1L, null, first);
+        bus.subscribe(1L, null, second);
+        bus.subscribe(2L, null, otherRestaurant);
+
+        bus.orderCreated(order(10L, 1L, "PENDING"));
+        bus.statusChanged(order(10L, 1L, "PREPARING"));
+
+        assertEquals(List.of(OrderFeedEvent.ORDER_CREATED, OrderFeedEvent.ORDER_STATUS_CHANGED), first.names());
+        assertEquals("PREPARING", ((OrderFeedEvent) second.messages.get(1).data()).getStatus());
+        assertTrue(first.messages.get(0).id() < first.messages.get(1).id());
+        assertTrue(otherRestaurant.messages.isEmpty());
+    }
+
+    @Test
+    public void subscribe_shouldResumeAfterLastEventId() {
+        OrderEventBus bus = new OrderEventBus(3, 16, Runnable::run);
+        RecordingSink live = new RecordingSink();
+        bus.subscribe(1L, null, live);
+        for (long id = 1; id <= 5; id++) {
+            bus.orderCreated(order(id, 1L, "PENDING"));
+        }
+        long secondToLast = live.messages.get(3).id();
+
+        RecordingSink resumed = new RecordingSink();
+        bus.subscribe(1L, secondToLast, resumed);
+        assertEquals(1, resumed.messages.size());
+        assertEquals(5L, ((OrderFeedEvent) resumed.messages.get(0).data()).getOrderId());
+
+        // Older than the three events kept, or from before a restart
+        RecordingSink tooOld = new RecordingSink();
+        bus.subscribe(1L, live.messages.get(0).id(), tooOld);
+        assertEquals(List.of(OrderEventBus.RESYNC_EVENT), tooOld.names());
+
+        RecordingSink fromTheFuture = new RecordingSink();
+        bus.subscribe(1L, live.messages.get(4).id() + 1_000L, fromTheFuture);
+        assertEquals(List.of(OrderEventBus.RESYNC_EVENT), fromTheFuture.names());
+    }
+
+    @Test
+    public void subscribe_shouldResyncIdsFromBeforeARestart() {
+        OrderEventBus beforeRestart = new OrderEventBus(100, 16, Runnable::run, 1_700_000_000_000L);
+        RecordingSink live = new RecordingSink();
+        beforeRestart.subscribe(1L, null, live);
+        for (long id = 1; id <= 5; id++) {
+            beforeRestart.orderCreated(order(id, 1L, "PENDING"));
+        }
+        long lastSeen = live.messages.get(4).id();
+
+        // Booted a second later and has already published more events than the client saw
+        OrderEventBus afterRestart = new OrderEventBus(100, 16, Runnable::run, 1_700_000_001_000L);
+        for (long id = 1; id <= 10; id++) {
+            afterRestart.orderCreated(order(id, 1L, "PENDING"));
+        }
+
+        RecordingSink reconnected = new RecordingSink();
+        afterRestart.subscribe(1L, lastSeen, reconnected);
+        assertEquals(List.of(OrderEventBus.RESYNC_EVENT), reconnected.names());
+    }
+
+    @Test
+    public void slowSubscriber_shouldBeDisconnectedWithoutBlockingPublishers() {
+        List<Runnable> pendingSends = new ArrayList<>();
+        OrderEventBus bus = new OrderEventBus(100, 4, pendingSends::add);
+        RecordingSink stalled = new RecordingSink();
+        bus.subscribe(1L, null, stalled);
+
+        for (long id = 1; id <= 5; id++) {
+            bus.orderCreated(order(id, 1L, "PENDING"));
+        }
+
+        assertTrue(stalled.closed);
+        assertEquals(1, bus.getOverflowCount());
+        assertEquals(0, bus.getSubscriberCount());
+        assertEquals(1, pendingSends.size(), "one send task per subscriber");
+    }
+
+    @Test
+    public void failingSink_shouldBeUnsubscribed() {
+        OrderEventBus bus = new OrderEventBus(100, 16, Runnable::run);
+        RecordingSink broken = new RecordingSink();
+        broken.fail = true;
+        bus.subscribe(1L, null, broken);
+
+        bus.orderCreated(order(1L, 1L, "PENDING"));
+
+        assertTrue(broken.closed);
+        assertEquals(0, bus.getSubscriberCount());
+    }
+
+    private static Order order(Long id, Long restaurantId, String status) {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId(restaurantId);
+        Order order = new Order();
+        order.setId(id);
+        order.setRestaurant(restaurant);
+        order.setStatus(status);
+        return order;
+    }
+
+    private static class RecordingSink implements OrderEventBus.Sink {
+        private final List<OrderEventBus.Message> messages = new ArrayList<>();
+        private boolean closed;
+        private boolean fail;
+
+        @Override
+        public void send(OrderEventBus.Message message) throws IOException {
+            if (fail) {
+                throw new IOException("Broken pipe");
+            }
+            messages.add(message);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        List<String> names() {
+            return messages.stream().map(OrderEventBus.Message::name).toList();
+        }
+    }
+}
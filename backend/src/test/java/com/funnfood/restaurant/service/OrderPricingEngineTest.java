@@ -0,0 +1,168 @@
+package com.funnfood.restaurant.service;
+
+import com.funnfood.restaurant.model.MenuItem;
+import com.funnfood.restaurant.model.Order;
+import com.funnfood.restaurant.model.OrderItem;
+import com.funnfood.restaurant.model.Restaurant;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderPricingEngineTest {
+
+    private static final int CARTS = 20_000;
+
+    private final PricingRuleTable pricingRuleTable = new PricingRuleTable(new BigDecimal("0.08"), new BigDecimal("5.99"));
+    private final OrderPricingEngine engine = new OrderPricingEngine(pricingRuleTable);
+    private final Restaurant restaurant = new Restaurant();
+    private final Random random = new Random(23);
+
+    /**
+     * Random carts priced by the engine must match the previous BigDecimal arithmetic to the cent.
+     */
+    @Test
+    public void price_shouldMatchBigDecimalArithmetic() {
+        for (int i = 0; i < CARTS; i++) {
+            Set<OrderItem> items = randomCart();
+            Order order = new Order();
+
+            engine.price(order, items, restaurant, null, null);
+
+            BigDecimal subtotal = legacySubtotal(items);
+            BigDecimal tax = legacyTax(subtotal);
+            BigDecimal total = subtotal.add(tax).add(new BigDecimal("5.99"));
+            assertAmount(subtotal, order.getSubtotal(), items);
+            assertAmount(tax, order.getTax(), items);
+            assertAmount(total, order.getTotalAmount(), items);
+        }
+    }
+
+    /**
+     * Adding and removing lines one at a time must land on the same totals as pricing the final cart.
+     */
+    @Test
+    public void lineChanges_shouldMatchFullRecalculation() {
+        for (int i = 0; i < CARTS / 10; i++) {
+            Order order = new Order();
+            List<OrderItem> lines = new ArrayList<>(randomCart());
+            order.setOrderItems(new HashSet<>(lines));
+            engine.price(order, order.getOrderItems(), restaurant, null, null);
+
+            for (int step = 0; step < 10; step++) {
+                if (!lines.isEmpty() && random.nextBoolean()) {
+                    OrderItem removed = lines.remove(random.nextInt(lines.size()));
+                    order.getOrderItems().remove(removed);
+                    engine.lineRemoved(order, removed);
+                } else {
+                    OrderItem added = randomLine();
+                    lines.add(added);
+                    order.getOrderItems().add(added);
+                    engine.lineAdded(order, added);
+                }
+            }
+
+            BigDecimal subtotal = legacySubtotal(order.getOrderItems());
+            BigDecimal tax = legacyTax(subtotal);
+            assertAmount(subtotal, order.getSubtotal(), order.getOrderItems());
+            assertAmount(tax, order.getTax(), order.getOrderItems());
+            assertAmount(subtotal.add(tax).add(order.getDeliveryFee()), order.getTotalAmount(), order.getOrderItems());
+        }
+    }
+
+    @Test
+    public void divideHalfUp_shouldRoundHalvesAwayFromZero() {
+        assertEquals(1, OrderPricingEngine.divideHalfUp(5, 10));
+        assertEquals(0, OrderPricingEngine.divideHalfUp(4, 10));
+        assertEquals(-1, OrderPricingEngine.divideHalfUp(-5, 10));
+        assertEquals(0, OrderPricingEngine.divideHalfUp(-4, 10));
+    }
+
+    @Test
+    public void toCents_shouldRejectFractionsOfACent() {
+        assertEquals(1999, OrderPricingEngine.toCents(new BigDecimal("19.99")));
+        assertEquals(2000, OrderPricingEngine.toCents(new BigDecimal("20")));
+        assertThrows(IllegalArgumentException.class, () -> OrderPricingEngine.toCents(new BigDecimal("1.005")));
+    }
+
+    @Test
+    public void lines_shouldKeepThePriceTheyWereAddedAt() {
+        OrderItem kept = line("12.50", 2);
+        OrderItem removed = line("4.00", 3);
+        Order order = new Order();
+        order.setOrderItems(new HashSet<>(List.of(kept, removed)));
+        engine.price(order, order.getOrderItems(), restaurant, null, null);
+        assertEquals(new BigDecimal("37.00"), order.getSubtotal());
+
+        // Menu prices change after the order was placed
+        kept.getMenuItem().setPrice(new BigDecimal("15.00"));
+        removed.getMenuItem().setPrice(new BigDecimal("9.00"));
+        order.getOrderItems().remove(removed);
+        engine.lineRemoved(order, removed);
+
+        assertEquals(new BigDecimal("4.00"), removed.getUnitPrice());
+        assertEquals(new BigDecimal("25.00"), order.getSubtotal());
+        assertEquals(new BigDecimal("25.00"), OrderPricingEngine.fromCents(engine.subtotalCents(order.getOrderItems())));
+    }
+
+    @Test
+    public void snapshotPrice_shouldRoundMenuPricesToTheCent() {
+        OrderItem item = line("1.005", 2);
+        Order order = new Order();
+        order.setOrderItems(new HashSet<>(List.of(item)));
+
+        engine.price(order, order.getOrderItems(), restaurant, null, null);
+
+        assertEquals(new BigDecimal("1.01"), item.getUnitPrice());
+        assertEquals(new BigDecimal("2.02"), order.getSubtotal());
+    }
+
+    private OrderItem line(String price, int quantity) {
+        MenuItem menuItem = new MenuItem();
+        menuItem.setPrice(new BigDecimal(price));
+        return new OrderItem(quantity, menuItem);
+    }
+
+    private Set<OrderItem> randomCart() {
+        Set<OrderItem> items = new HashSet<>();
+        int lines = 1 + random.nextInt(8);
+        for (int i = 0; i < lines; i++) {
+            items.add(randomLine());
+        }
+        return items;
+    }
+
+    private OrderItem randomLine() {
+        MenuItem menuItem = new MenuItem();
+        // Mix of whole-unit and two-decimal prices, like "12" and "12.50"
+        BigDecimal price = random.nextInt(4) == 0
+                ? BigDecimal.valueOf(1 + random.nextInt(200))
+                : BigDecimal.valueOf(random.nextInt(100_000), 2);
+        menuItem.setPrice(price);
+        return new OrderItem(1 + random.nextInt(12), menuItem);
+    }
+
+    private static BigDecimal legacySubtotal(Set<OrderItem> items) {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (OrderItem item : items) {
+            subtotal = subtotal.add(item.getMenuItem().getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+        }
+        return subtotal;
+    }
+
+    private static BigDecimal legacyTax(BigDecimal subtotal) {
+        return subtotal.multiply(new BigDecimal("0.08")).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static void assertAmount(BigDecimal expected, BigDecimal actual, Set<OrderItem> items) {
+        assertEquals(0, expected.compareTo(actual), "expected " + expected + " but was " + actual + " for " + items.size() + " lines");
+        assertEquals(2, actual.scale());
+    }
+}
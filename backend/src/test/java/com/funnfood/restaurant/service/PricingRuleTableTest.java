@@ -0,0 +1,113 @@
+package com.funnfood.restaurant.service;
+
+import com.funnfood.restaurant.exception.BadRequestException;
+import com.funnfood.restaurant.model.DeliveryFeeBand;
+import com.funnfood.restaurant.model.MenuItem;
+import com.funnfood.restaurant.model.Order;
+import com.funnfood.restaurant.model.OrderItem;
+import com.funnfood.restaurant.model.PricingRule;
+import com.funnfood.restaurant.model.Restaurant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PricingRuleTableTest {
+
+    private PricingRuleTable table;
+    private OrderPricingEngine engine;
+    private Restaurant restaurant;
+
+    @BeforeEach
+    void setUp() {
+        table = new PricingRuleTable(new BigDecimal("0.08"), new BigDecimal("5.99"));
+        engine = new OrderPricingEngine(table);
+
+        restaurant = new Restaurant();
+        restaurant.setId(7L);
+        restaurant.setName("Band Test Diner");
+        restaurant.setLatitude(-1.2921);
+        restaurant.setLongitude(36.8219);
+        restaurant.setDeliveryRadiusKm(12);
+
+        PricingRule rule = new PricingRule();
+        rule.setRestaurant(restaurant);
+        rule.setTaxRate(new BigDecimal("0.16"));
+        // Deliberately unsorted
+        rule.setFeeBands(List.of(
+                new DeliveryFeeBand(10, new BigDecimal("4.50")),
+                new DeliveryFeeBand(3, new BigDecimal("1.50")),
+                new DeliveryFeeBand(6, new BigDecimal("2.75"))));
+        table.ruleSaved(rule);
+    }
+
+    @Test
+    public void deliveryFee_shouldFollowDistanceBands() {
+        PricingRuleTable.CompiledRule rule = table.ruleFor(7L);
+
+        assertEquals(150, rule.deliveryFeeCents(0.5));
+        assertEquals(150, rule.deliveryFeeCents(3.0));
+        assertEquals(275, rule.deliveryFeeCents(3.01));
+        assertEquals(450, rule.deliveryFeeCents(9.9));
+        assertEquals(PricingRuleTable.NOT_DELIVERABLE, rule.deliveryFeeCents(10.5));
+        assertEquals(450, rule.flatFeeCents());
+        // Within the bands but outside the restaurant's delivery radius
+        assertEquals(PricingRuleTable.NOT_DELIVERABLE, OrderPricingEngine.deliveryFeeCents(rule, 9.0, 8.0));
+    }
+
+    @Test
+    public void price_shouldUseRestaurantRateAndBand() {
+        Order order = new Order();
+        engine.price(order, Set.of(line("10.00", 2)), restaurant, -1.2921, 36.8419); // about 2.2 km east
+
+        assertEquals(new BigDecimal("20.00"), order.getSubtotal());
+        assertEquals(new BigDecimal("3.20"), order.getTax());
+        assertEquals(new BigDecimal("1.50"), order.getDeliveryFee());
+        assertEquals(new BigDecimal("24.70"), order.getTotalAmount());
+
+        assertThrows(BadRequestException.class,
+                () -> engine.price(new Order(), Set.of(line("10.00", 1)), restaurant, -1.2921, 37.0)); // about 20 km
+    }
+
+    @Test
+    public void ruleDeleted_shouldFallBackToDefaults() {
+        table.ruleDeleted(7L);
+
+        Order order = new Order();
+        engine.price(order, Set.of(line("10.00", 1)), restaurant, -1.2921, 36.8419);
+
+        assertEquals(new BigDecimal("0.80"), order.getTax());
+        assertEquals(new BigDecimal("5.99"), order.getDeliveryFee());
+    }
+
+    @Test
+    public void deliveryFee_shouldMatchLinearBandSearch() {
+        PricingRuleTable.CompiledRule rule = table.ruleFor(7L);
+        double[] limits = {3, 6, 10};
+        long[] fees = {150, 275, 450};
+
+        Random random = new Random(5);
+        for (int i = 0; i < 10_000; i++) {
+            double distance = random.nextDouble() * 12;
+            long expected = PricingRuleTable.NOT_DELIVERABLE;
+            for (int band = 0; band < limits.length; band++) {
+                if (distance <= limits[band]) {
+                    expected = fees[band];
+                    break;
+                }
+            }
+            assertEquals(expected, rule.deliveryFeeCents(distance), "distance " + distance);
+        }
+    }
+
+    private static OrderItem line(String price, int quantity) {
+        MenuItem menuItem = new MenuItem();
+        menuItem.setPrice(new BigDecimal(price));
+        return new OrderItem(quantity, menuItem);
+    }
+}
@@ -0,0 +1,132 @@
+package com.funnfood.restaurant.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RestaurantGeoIndexTest {
+
+    private static final int RESTAURANTS = 100_000;
+    private static final int QUERIES = 1_000;
+    private static final String[] CITIES = {"Nairobi", "Mombasa", "Kisumu"};
+
+    private RestaurantGeoIndex index;
+    private List<double[]> restaurants;
+    private Random random;
+
+    @BeforeEach
+    void setUp() {
+        index = new RestaurantGeoIndex(0.1);
+        restaurants = new ArrayList<>();
+        random = new Random(11);
+
+        // Spread restaurants over a region of roughly 200 x 200 km
+        for (int i = 0; i < RESTAURANTS; i++) {
+            double latitude = -1.3 + random.nextDouble() * 1.8;
+            double longitude = 36.0 + random.nextDouble() * 1.8;
+            double radius = 1 + random.nextInt(10);
+            int city = random.nextInt(CITIES.length);
+            restaurants.add(new double[]{i, latitude, longitude, radius, city});
+            index.put((long) i, latitude, longitude, radius, CITIES[city]);
+        }
+    }
+
+    /**
+     * Checks the grid against a full haversine scan at 100k restaurants.
+     */
+    @Test
+    public void findNearby_shouldMatchFullScan() {
+        int totalHits = 0;
+
+        for (int q = 0; q < QUERIES; q++) {
+            double latitude = -1.3 + random.nextDouble() * 1.8;
+            double longitude = 36.0 + random.nextDouble() * 1.8;
+            int city = random.nextInt(CITIES.length);
+
+            List<RestaurantGeoIndex.Hit> hits = index.findNearby(CITIES[city], latitude, longitude);
+            List<Long> expected = fullScan(city, latitude, longitude);
+            totalHits += hits.size();
+            assertEquals(expected, hits.stream().map(RestaurantGeoIndex.Hit::restaurantId).toList());
+            for (int i = 1; i < hits.size(); i++) {
+                assertTrue(hits.get(i - 1).distanceKm() <= hits.get(i).distanceKm());
+            }
+        }
+
+        assertTrue(totalHits > 0);
+    }
+
+    /**
+     * Benchmark, not run by default: {@code mvn test -Dtest=RestaurantGeoIndexTest -Dbenchmark=true}.
+     * Compares the grid lookup with the per-row haversine evaluation that the findNearbyRestaurants query does,
+     * here without any database overhead, so the scan side is a lower bound for the query.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    public void benchmark_gridAgainstHaversineScan() {
+        double[][] queries = new double[QUERIES][];
+        for (int q = 0; q < QUERIES; q++) {
+            queries[q] = new double[]{-1.3 + random.nextDouble() * 1.8, 36.0 + random.nextDouble() * 1.8,
+                    random.nextInt(CITIES.length)};
+        }
+
+        // Warm both paths before timing
+        for (double[] q : queries) {
+            index.findNearby(CITIES[(int) q[2]], q[0], q[1]);
+            fullScan((int) q[2], q[0], q[1]);
+        }
+
+        long gridStart = System.nanoTime();
+        long hits = 0;
+        for (double[] q : queries) {
+            hits += index.findNearby(CITIES[(int) q[2]], q[0], q[1]).size();
+        }
+        long gridNanos = (System.nanoTime() - gridStart) / QUERIES;
+
+        long scanStart = System.nanoTime();
+        for (double[] q : queries) {
+            hits -= fullScan((int) q[2], q[0], q[1]).size();
+        }
+        long scanNanos = (System.nanoTime() - scanStart) / QUERIES;
+
+        System.out.printf("Nearby lookup over %d restaurants: grid %.1f us, haversine scan %.1f us%n",
+                RESTAURANTS, gridNanos / 1000.0, scanNanos / 1000.0);
+        assertEquals(0, hits, "the grid and the scan disagree");
+        assertTrue(gridNanos * 10 < scanNanos, "grid " + gridNanos + " ns, scan " + scanNanos + " ns");
+    }
+
+    @Test
+    public void moveAndRemove_shouldUpdateIndex() {
+        index.put(-1L, 10.0, 10.0, 5, "Elsewhere");
+        assertEquals(1, index.findNearby("Elsewhere", 10.01, 10.01).size());
+
+        index.put(-1L, 20.0, 20.0, 5, "Elsewhere");
+        assertTrue(index.findNearby("Elsewhere", 10.01, 10.01).isEmpty());
+        assertEquals(1, index.findNearby("Elsewhere", 20.01, 20.01).size());
+
+        index.remove(-1L);
+        assertTrue(index.findNearby("Elsewhere", 20.01, 20.01).isEmpty());
+        assertEquals(RESTAURANTS, index.size());
+    }
+
+    private List<Long> fullScan(int city, double latitude, double longitude) {
+        List<double[]> matches = new ArrayList<>();
+        for (double[] r : restaurants) {
+            if ((int) r[4] != city) {
+                continue;
+            }
+            double distance = RestaurantGeoIndex.distanceKm(latitude, longitude, r[1], r[2]);
+            if (distance <= r[3]) {
+                matches.add(new double[]{r[0], distance});
+            }
+        }
+        matches.sort(Comparator.comparingDouble(m -> m[1]));
+        return matches.stream().map(m -> (long) m[0]).toList();
+    }
+}
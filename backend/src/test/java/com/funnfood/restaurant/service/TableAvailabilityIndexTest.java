@@ -0,0 +1,270 @@
+package com.funnfood.restaurant.service;
+
+import com.funnfood.restaurant.TestFixtures;
+import com.funnfood.restaurant.model.DiningRoom;
+import com.funnfood.restaurant.model.DiningTable;
+import com.funnfood.restaurant.model.Restaurant;
+import com.funnfood.restaurant.model.TableReservation;
+import com.funnfood.restaurant.payload.request.TableReservationRequest;
+import com.funnfood.restaurant.payload.response.AvailabilityGridResponse;
+import com.funnfood.restaurant.repository.DiningRoomRepository;
+import com.funnfood.restaurant.repository.DiningTableRepository;
+import com.funnfood.restaurant.repository.RestaurantRepository;
+import com.funnfood.restaurant.repository.TableReservationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class TableAvailabilityIndexTest {
+
+    private static final int TABLES = 10;
+    private static final int RESERVATIONS_PER_TABLE = 40;
+    private static final int QUERIES = 500;
+
+    @Autowired
+    private TableAvailabilityIndex tableAvailabilityIndex;
+
+    @Autowired
+    private TableReservationService tableReservationService;
+
+    @Autowired
+    private DiningService diningService;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private DiningRoomRepository diningRoomRepository;
+
+    @Autowired
+    private DiningTableRepository diningTableRepository;
+
+    @Autowired
+    private TableReservationRepository tableReservationRepository;
+
+    private Restaurant restaurant;
+    private DiningRoom diningRoom;
+    private List<DiningTable> tables;
+    private List<TableReservation> reservations;
+    private LocalDateTime base;
+
+    @BeforeEach
+    void setUp() {
+        base = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+
+        restaurant = restaurantRepository.save(TestFixtures.restaurant("Availability Diner"));
+
+        diningRoom = new DiningRoom();
+        diningRoom.setName("Main");
+        diningRoom.setStatus("AVAILABLE");
+        diningRoom.setCapacity(40);
+        diningRoom.setRestaurant(restaurant);
+        diningRoom = diningRoomRepository.save(diningRoom);
+
+        tables = new ArrayList<>();
+        for (int i = 0; i < TABLES; i++) {
+            DiningTable table = new DiningTable("AV-" + i, 2 + i % 4);
+            table.setDiningRoom(diningRoom);
+            tables.add(diningTableRepository.save(table));
+        }
+
+        Random random = new Random(42);
+        reservations = new ArrayList<>();
+        for (DiningTable table : tables) {
+            for (int i = 0; i < RESERVATIONS_PER_TABLE; i++) {
+                TableReservation reservation = new TableReservation();
+                reservation.setDiningTable(table);
+                reservation.setTokenNumber("RES-AV-" + table.getId() + "-" + i);
+                reservation.setReservationDateTime(base.plusMinutes(15L * random.nextInt(4 * 24 * 7)));
+                reservation.setNumberOfGuests(2);
+                reservation.setStatus(random.nextInt(5) == 0 ? "CANCELLED" : "CONFIRMED");
+                reservation.setCreatedAt(LocalDateTime.now());
+                reservation = tableReservationRepository.save(reservation);
+                tableAvailabilityIndex.reservationSaved(reservation);
+                reservations.add(reservation);
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (TableReservation reservation : reservations) {
+            reservation.setStatus("CANCELLED");
+            tableAvailabilityIndex.reservationSaved(reservation);
+        }
+        tableReservationRepository.deleteAll(reservations);
+        diningTableRepository.deleteAll(tables);
+        diningRoomRepository.delete(diningRoom);
+        restaurantRepository.delete(restaurant);
+    }
+
+    /**
+     * The index must agree with the SQL conflict query it replaces.
+     */
+    @Test
+    public void index_shouldMatchDatabaseQuery() {
+        Random random = new Random(7);
+        List<LocalDateTime> times = new ArrayList<>();
+        for (int i = 0; i < QUERIES; i++) {
+            times.add(base.plusMinutes(5L * random.nextInt(12 * 24 * 7)));
+        }
+
+        for (LocalDateTime time : times) {
+            LocalDateTime start = time.minusHours(1);
+            LocalDateTime end = time.plusHours(1);
+            assertTrue(tableAvailabilityIndex.covers(start));
+
+            List<Long> fromIndex = tables.stream()
+                    .filter(table -> tableAvailabilityIndex.isAvailable(table.getId(), start, end))
+                    .map(DiningTable::getId)
+                    .toList();
+            List<Long> fromQuery = diningTableRepository.findAvailableTables(diningRoom, 0, start, end).stream()
+                    .map(DiningTable::getId)
+                    .sorted()
+                    .toList();
+            assertEquals(fromQuery, fromIndex.stream().sorted().toList(), "Mismatch at " + time);
+        }
+    }
+
+    /**
+     * Benchmark, not run by default: {@code mvn test -Dtest=TableAvailabilityIndexTest -Dbenchmark=true}.
+     * Answers "which tables of the room are free" from the index and from {@code findAvailableTables}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    public void benchmark_indexAgainstDatabaseQuery() {
+        Random random = new Random(11);
+        List<LocalDateTime> times = new ArrayList<>();
+        for (int i = 0; i < QUERIES; i++) {
+            times.add(base.plusMinutes(5L * random.nextInt(12 * 24 * 7)));
+        }
+
+        // Warm both paths before timing
+        for (LocalDateTime time : times) {
+            freeFromIndex(time);
+            diningTableRepository.findAvailableTables(diningRoom, 0, time.minusHours(1), time.plusHours(1));
+        }
+
+        long indexStart = System.nanoTime();
+        int found = 0;
+        for (LocalDateTime time : times) {
+            found += freeFromIndex(time);
+        }
+        long indexNanos = (System.nanoTime() - indexStart) / QUERIES;
+
+        long queryStart = System.nanoTime();
+        for (LocalDateTime time : times) {
+            found -= diningTableRepository.findAvailableTables(diningRoom, 0, time.minusHours(1), time.plusHours(1)).size();
+        }
+        long queryNanos = (System.nanoTime() - queryStart) / QUERIES;
+
+        System.out.printf("Free tables of a %d-table room: index %.1f us, findAvailableTables %.1f us%n",
+                TABLES, indexNanos / 1000.0, queryNanos / 1000.0);
+        assertEquals(0, found, "the index and the query disagree");
+        assertTrue(indexNanos < 1_000_000, "index lookup took " + indexNanos + " ns");
+        assertTrue(indexNanos < queryNanos, "index " + indexNanos + " ns, query " + queryNanos + " ns");
+    }
+
+    private int freeFromIndex(LocalDateTime time) {
+        int free = 0;
+        for (DiningTable table : tables) {
+            if (tableAvailabilityIndex.isAvailable(table.getId(), time.minusHours(1), time.plusHours(1))) {
+                free++;
+            }
+        }
+        return free;
+    }
+
+    @Test
+    public void availabilityGrid_shouldMatchPerSlotChecks() {
+        int days = 7;
+        AvailabilityGridResponse grid = diningService.getAvailabilityGrid(
+                restaurant.getId(), base.toLocalDate(), days, null);
+
+        assertEquals(days * 24 * 4, grid.getSlotCount());
+        assertEquals(TABLES, grid.getTables().size());
+
+        for (AvailabilityGridResponse.TableSlots row : grid.getTables()) {
+            BitSet slots = BitSet.valueOf(Base64.getDecoder().decode(row.getSlots()));
+            for (int i = 0; i < grid.getSlotCount(); i++) {
+                LocalDateTime time = grid.getFrom().plusMinutes((long) i * grid.getSlotMinutes());
+                boolean expected = tableAvailabilityIndex.isAvailable(row.getTableId(), time.minusHours(1), time.plusHours(1));
+                assertEquals(expected, slots.get(i), "Table " + row.getTableId() + " at " + time);
+            }
+        }
+
+        AvailabilityGridResponse largeTables = diningService.getAvailabilityGrid(
+                restaurant.getId(), base.toLocalDate(), 1, 5);
+        assertTrue(largeTables.getTables().stream().allMatch(row -> row.getCapacity() >= 5));
+    }
+
+    @Test
+    public void isTableAvailable_shouldFollowCancellation() {
+        TableReservation reservation = reservations.stream()
+                .filter(r -> !"CANCELLED".equals(r.getStatus()))
+                .findFirst()
+                .orElseThrow();
+        Long tableId = reservation.getDiningTable().getId();
+        LocalDateTime time = reservation.getReservationDateTime();
+
+        assertFalse(tableReservationService.isTableAvailable(tableId, time, 60));
+
+        tableReservationService.updateReservationStatus(reservation.getId(), "CANCELLED");
+        reservation.setStatus("CANCELLED");
+
+        boolean otherConflicts = reservations.stream()
+                .filter(r -> r.getDiningTable().getId().equals(tableId) && !"CANCELLED".equals(r.getStatus()))
+                .anyMatch(r -> !r.getReservationDateTime().isAfter(time.plusMinutes(90))
+                        && !r.getReservationDateTime().plusHours(2).isBefore(time.minusMinutes(30)));
+        assertEquals(!otherConflicts, tableReservationService.isTableAvailable(tableId, time, 60));
+    }
+
+    @Test
+    public void isTableAvailable_shouldFollowMovedReservation() {
+        // A table of its own, so no other reservation overlaps either slot
+        DiningTable table = new DiningTable("AV-MOVE", 4);
+        table.setDiningRoom(diningRoom);
+        table = diningTableRepository.save(table);
+        tables.add(table);
+
+        LocalDateTime oldTime = base.plusDays(20);
+        LocalDateTime newTime = base.plusDays(25);
+        TableReservation reservation = new TableReservation();
+        reservation.setDiningTable(table);
+        reservation.setTokenNumber("RES-AV-MOVE");
+        reservation.setReservationDateTime(oldTime);
+        reservation.setNumberOfGuests(2);
+        reservation.setStatus("CONFIRMED");
+        reservation.setCreatedAt(LocalDateTime.now());
+        reservation = tableReservationRepository.save(reservation);
+        tableAvailabilityIndex.reservationSaved(reservation);
+        reservations.add(reservation);
+
+        assertFalse(tableReservationService.isTableAvailable(table.getId(), oldTime, 60));
+        assertTrue(tableReservationService.isTableAvailable(table.getId(), newTime, 60));
+
+        TableReservationRequest request = new TableReservationRequest();
+        request.setTableId(table.getId());
+        request.setReservationDateTime(newTime);
+        request.setNumberOfGuests(2);
+        TableReservation moved = tableReservationService.updateReservation(reservation.getId(), request);
+        reservations.set(reservations.size() - 1, moved);
+
+        assertTrue(tableReservationService.isTableAvailable(table.getId(), oldTime, 60), "the old slot is free again");
+        assertFalse(tableReservationService.isTableAvailable(table.getId(), newTime, 60), "the new slot is taken");
+    }
+}
@@ -0,0 +1,210 @@
+package com.funnfood.restaurant.service;
+
+import com.funnfood.restaurant.TestFixtures;
+import com.funnfood.restaurant.model.DiningRoom;
+import com.funnfood.restaurant.model.DiningTable;
+import com.funnfood.restaurant.model.Restaurant;
+import com.funnfood.restaurant.model.TableReservation;
+import com.funnfood.restaurant.model.User;
+import com.funnfood.restaurant.payload.request.TableReservationRequest;
+import com.funnfood.restaurant.repository.DiningRoomRepository;
+import com.funnfood.restaurant.repository.DiningTableRepository;
+import com.funnfood.restaurant.repository.RestaurantRepository;
+import com.funnfood.restaurant.repository.TableReservationRepository;
+import com.funnfood.restaurant.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.email.outbox.enabled=false")
+public class TableBookingStressTest {
+
+    private static final int TABLES = 4;
+    private static final int SLOTS = 12;
+    private static final int BOOKINGS = 2000;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private TableReservationService tableReservationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private DiningRoomRepository diningRoomRepository;
+
+    @Autowired
+    private DiningTableRepository diningTableRepository;
+
+    @Autowired
+    private TableReservationRepository tableReservationRepository;
+
+    @Autowired
+    private TableAvailabilityIndex tableAvailabilityIndex;
+
+    private User user;
+    private Restaurant restaurant;
+    private DiningRoom diningRoom;
+    private List<DiningTable> tables;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User("stress-booker", "stress-booker@example.com", "secret"));
+
+        restaurant = restaurantRepository.save(TestFixtures.restaurant("Stress Diner"));
+
+        diningRoom = new DiningRoom();
+        diningRoom.setName("Main");
+        diningRoom.setStatus("AVAILABLE");
+        diningRoom.setCapacity(40);
+        diningRoom.setRestaurant(restaurant);
+        diningRoom = diningRoomRepository.save(diningRoom);
+
+        tables = new ArrayList<>();
+        for (int i = 0; i < TABLES; i++) {
+            DiningTable table = new DiningTable("ST-" + i, 4);
+            table.setDiningRoom(diningRoom);
+            tables.add(diningTableRepository.save(table));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        List<TableReservation> reservations = findReservations();
+        for (TableReservation reservation : reservations) {
+            reservation.setStatus("CANCELLED");
+            tableAvailabilityIndex.reservationSaved(reservation);
+        }
+        tableReservationRepository.deleteAll(reservations);
+        diningTableRepository.deleteAll(tables);
+        diningRoomRepository.delete(diningRoom);
+        restaurantRepository.delete(restaurant);
+        userRepository.delete(user);
+    }
+
+    @Test
+    public void parallelBookings_shouldNeverDoubleBook() throws Exception {
+        LocalDateTime base = LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.HOURS);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            final int attempt = i;
+            futures.add(executor.submit(() -> {
+                TableReservationRequest request = new TableReservationRequest();
+                request.setTableId(tables.get(attempt % TABLES).getId());
+                request.setReservationDateTime(base.plusMinutes(30L * ((attempt / TABLES) % SLOTS)));
+                request.setNumberOfGuests(2);
+                try {
+                    tableReservationService.createReservation(user, request);
+                    succeeded.incrementAndGet();
+                } catch (IllegalStateException e) {
+                    rejected.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        List<TableReservation> reservations = findReservations();
+        assertEquals(BOOKINGS, succeeded.get() + rejected.get());
+        assertEquals(succeeded.get(), reservations.size());
+        assertTrue(succeeded.get() >= TABLES, "Every table should get at least one booking");
+
+        assertNoDoubleBooking(reservations);
+    }
+
+    @Test
+    public void bookingsRacingAMove_shouldNeverDoubleBook() throws Exception {
+        LocalDateTime base = LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.HOURS);
+        int rounds = 60;
+        int bookersPerRound = 3;
+
+        // Each round moves a reservation four hours later, clear of its old slot,
+        // while others try to book the slot it moves to
+        List<TableReservation> moving = new ArrayList<>();
+        for (int round = 0; round < rounds; round++) {
+            TableReservationRequest request = new TableReservationRequest();
+            request.setTableId(tables.get(round % TABLES).getId());
+            request.setReservationDateTime(base.plusHours(8L * (round / TABLES)));
+            request.setNumberOfGuests(2);
+            moving.add(tableReservationService.createReservation(user, request));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (TableReservation reservation : moving) {
+            TableReservationRequest target = new TableReservationRequest();
+            target.setTableId(reservation.getDiningTable().getId());
+            target.setReservationDateTime(reservation.getReservationDateTime().plusHours(4));
+            target.setNumberOfGuests(2);
+            futures.add(executor.submit(() -> {
+                try {
+                    tableReservationService.updateReservation(reservation.getId(), target);
+                } catch (IllegalStateException e) {
+                    // The slot was booked first
+                }
+            }));
+            for (int i = 0; i < bookersPerRound; i++) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        tableReservationService.createReservation(user, target);
+                    } catch (IllegalStateException e) {
+                        // The slot was taken by the move or another booking
+                    }
+                }));
+            }
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        List<TableReservation> reservations = findReservations();
+        assertTrue(reservations.size() >= rounds, "No reservation may be lost");
+        assertNoDoubleBooking(reservations);
+    }
+
+    // Whatever order the bookings ran in, no two reservations of a table may start within an hour of each other
+    private void assertNoDoubleBooking(List<TableReservation> reservations) {
+        Map<Long, List<TableReservation>> byTable = reservations.stream()
+                .collect(Collectors.groupingBy(r -> r.getDiningTable().getId()));
+        for (List<TableReservation> tableReservations : byTable.values()) {
+            tableReservations.sort(Comparator.comparing(TableReservation::getReservationDateTime));
+            for (int i = 1; i < tableReservations.size(); i++) {
+                Duration gap = Duration.between(tableReservations.get(i - 1).getReservationDateTime(),
+                        tableReservations.get(i).getReservationDateTime());
+                assertTrue(gap.toMinutes() > 60, "Double booking on table " + tableReservations.get(i).getDiningTable().getId()
+                        + " at " + tableReservations.get(i).getReservationDateTime());
+            }
+        }
+    }
+
+    private List<TableReservation> findReservations() {
+        return tableReservationRepository.findByUser(user);
+    }
+}
@@ -0,0 +1,49 @@
+package com.funnfood.restaurant.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenNumberGeneratorTest {
+
+    @Test
+    public void tokens_shouldHavePrefixAndFixedLength() {
+        TokenNumberGenerator generator = new TokenNumberGenerator();
+
+        assertTrue(generator.nextOrderToken().matches("ORD-[0-9A-HJKMNP-TV-Z]{10}"));
+        assertTrue(generator.nextReservationToken().matches("RES-[0-9A-HJKMNP-TV-Z]{10}"));
+    }
+
+    @Test
+    public void tokens_shouldBeUniqueAcrossThreadsAndCounterOverflow() throws Exception {
+        // Frozen clock forces the generator to borrow from following seconds once the counter fills up
+        TokenNumberGenerator generator = new TokenNumberGenerator() {
+            @Override
+            long currentSeconds() {
+                return 1800000000L;
+            }
+        };
+        int threads = 8;
+        int perThread = 25_000;
+        Set<String> tokens = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    tokens.add(generator.nextOrderToken());
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(threads * perThread, tokens.size());
+    }
+}